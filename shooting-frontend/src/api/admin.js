@@ -14,8 +14,8 @@ export const getDashboardStats = () => {
 /**
  * 获取用户列表（分页）
  * @param {Object} params - 查询参数
- * @param {number} params.page - 页码
  * @param {number} params.size - 每页数量
+ * @param {string} params.cursor - 上一页返回的 nextCursor，第一页不传
  * @param {string} params.keyword - 搜索关键词
  * @param {string} params.role - 角色筛选
  * @param {string} params.status - 状态筛选
@@ -71,6 +71,10 @@ export const kickUser = (userId) => {
 /**
  * 获取运动员列表
  * @param {Object} params - 查询参数
+ * @param {number} params.size - 每页数量，传入时按键集分页
+ * @param {string} params.status - 审批状态筛选
+ * @param {string} params.cursor - 上一页返回的 nextCursor
+ * @param {boolean} params.withTotal - 是否返回总数
  */
 export const getAthleteList = (params) => {
   return apiClient.get('/admin/athletes', { params });
@@ -3,8 +3,8 @@ import apiClient from './index';
 /**
  * 获取消息列表
  * @param {Object} params - 查询参数
- * @param {number} params.page - 页码
  * @param {number} params.size - 每页数量
+ * @param {string} params.cursor - 上一页返回的 nextCursor，第一页不传
  * @param {string} params.type - 消息类型（可选）
  * @param {boolean} params.isRead - 是否已读（可选）
  */
@@ -15,6 +15,8 @@ export const useCompetitionStore = defineStore('competition', {
     currentCompetition: null,
     records: [],
     ranking: [],
+    rankingEpoch: null,
+    rankingSequence: 0,
     status: 'disconnected', // 'disconnected' | 'connecting' | 'connected'
     error: null,
     isLoading: false,
@@ -232,6 +234,9 @@ export const useCompetitionStore = defineStore('competition', {
         });
         this.subscribedTopics.push(statusTopic);
         
+        // 订阅后拉取一次排名全量快照，之后只应用增量
+        this.requestRankingSnapshot(id);
+        
         console.log(`✅ 已连接并订阅比赛 ${id} 的WebSocket主题`);
       });
       } catch (error) {
@@ -278,14 +283,16 @@ export const useCompetitionStore = defineStore('competition', {
             this.records.push(confirmedRecord);
           }
           
-          // 注意：不在这里更新排名，等待后端的 RANKING_UPDATE 消息
+          // 注意：不在这里更新排名，等待后端的 RANKING_DELTA 消息
           // this.updateRanking();
         } 
-        // 如果消息是排名更新
-        else if (message.type === 'RANKING_UPDATE') {
-          console.log('📈 收到排名更新:', message.data);
-          // 直接更新排名
-          this.ranking = message.data;
+        // 如果消息是排名增量
+        else if (message.type === 'RANKING_DELTA') {
+          this.applyRankingDelta(message.data);
+        }
+        // 如果消息是排名全量快照
+        else if (message.type === 'RANKING_SNAPSHOT') {
+          this.applyRankingSnapshot(message.data);
         }
         // 如果消息是比赛状态更新
         else if (message.type === 'COMPETITION_STATUS') {
@@ -307,6 +314,59 @@ export const useCompetitionStore = defineStore('competition', {
       }
     },
     
+    /**
+     * 请求排名全量快照
+     * 订阅 /app 目的地后服务端直接回复一次快照，收到后即取消订阅
+     * @param {number|string} id - 比赛ID
+     */
+    requestRankingSnapshot(id) {
+      const destination = `/app/competition/${id}/ranking`;
+      stompService.subscribe(destination, (snapshot) => {
+        stompService.unsubscribe(destination);
+        this.applyRankingSnapshot(snapshot);
+      });
+    },
+    
+    /**
+     * 应用排名全量快照
+     * @param {Object} snapshot - 排名快照
+     */
+    applyRankingSnapshot(snapshot) {
+      if (!snapshot || !Array.isArray(snapshot.rankings)) return;
+      // 同一纪元内忽略比当前更旧的快照
+      if (snapshot.epoch === this.rankingEpoch && snapshot.sequence < this.rankingSequence) return;
+      this.rankingEpoch = snapshot.epoch;
+      this.rankingSequence = snapshot.sequence;
+      this.ranking = snapshot.rankings;
+    },
+    
+    /**
+     * 应用排名增量，发现序列号缺失或排行榜重建时重新拉取快照
+     * @param {Object} delta - 排名增量
+     */
+    applyRankingDelta(delta) {
+      if (!delta || !Array.isArray(delta.changes)) return;
+      if (delta.epoch === this.rankingEpoch && delta.sequence <= this.rankingSequence) {
+        // 重复或过期的增量
+        return;
+      }
+      if (delta.epoch !== this.rankingEpoch || delta.sequence !== this.rankingSequence + 1) {
+        console.warn('⚠️ 排名增量不连续，重新同步快照');
+        if (this.currentCompetition) {
+          this.requestRankingSnapshot(this.currentCompetition.id);
+        }
+        return;
+      }
+      
+      const ranking = this.ranking.slice();
+      delta.changes.forEach(change => {
+        ranking[change.rank - 1] = change;
+      });
+      ranking.length = delta.totalAthletes;
+      this.ranking = ranking;
+      this.rankingSequence = delta.sequence;
+    },
+    
     /**
      * 处理比赛状态变更
      * @param {Object} message - 状态变更消息
@@ -538,7 +598,7 @@ export const useCompetitionStore = defineStore('competition', {
           const confirmedRecord = response.record || response;
           const displayRecord = toDisplayRecord(confirmedRecord);
           this.records.push(displayRecord);
-          // 注意：不在这里更新排名，等待后端的 RANKING_UPDATE 消息
+          // 注意：不在这里更新排名，等待后端的 RANKING_DELTA 消息
           // this.updateRanking();
           
           return displayRecord;
@@ -555,7 +615,7 @@ export const useCompetitionStore = defineStore('competition', {
         
         this.records.push(tempRecord);
         
-        // 注意：不在这里更新排名，等待后端的 RANKING_UPDATE 消息
+        // 注意：不在这里更新排名，等待后端的 RANKING_DELTA 消息
         // this.updateRanking();
         
         return tempRecord;
@@ -1,60 +1,66 @@
 package com.aimlab.config;
 
 import cn.dev33.satoken.stp.StpInterface;
-import com.aimlab.entity.User;
-import com.aimlab.mapper.UserMapper;
+import com.aimlab.service.UserRoleCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 自定义权限验证接口扩展
+ * 用户角色从缓存读取，各角色的权限码和角色列表预先生成为不可变集合共享使用
  */
 @Component
 public class StpInterfaceImpl implements StpInterface {
+
+    private static final List<String> ADMIN_PERMISSIONS = List.of(
+            "admin:dashboard",
+            "admin:users",
+            "admin:users:manage",
+            "admin:athletes",
+            "admin:athletes:export",
+            "admin:athletes:import",
+            "admin:reports",
+            "admin:training.analytics",
+            "admin:training.export",
+            "admin:competitions.manage",
+            "admin:competitions.export",
+            "admin:records.export",
+            "competition:force-finish");
+
+    private static final List<String> COACH_PERMISSIONS = List.of("coach:training");
+
+    private static final List<String> ATHLETE_PERMISSIONS = List.of("athlete:self");
+
+    /**
+     * 各角色的权限码，未列出的角色按运动员处理
+     */
+    private static final Map<String, List<String>> ROLE_PERMISSIONS = Map.of(
+            "ADMIN", ADMIN_PERMISSIONS,
+            "COACH", COACH_PERMISSIONS,
+            "ATHLETE", ATHLETE_PERMISSIONS);
+
+    private static final Map<String, List<String>> ROLE_LISTS = Map.of(
+            "ADMIN", List.of("ADMIN"),
+            "COACH", List.of("COACH"),
+            "ATHLETE", List.of("ATHLETE"));
     
     @Autowired
-    private UserMapper userMapper;
+    private UserRoleCache userRoleCache;
     
     /**
      * 返回一个账号所拥有的权限码集合
      */
     @Override
     public List<String> getPermissionList(Object loginId, String loginType) {
-        Long userId = Long.parseLong(loginId.toString());
-        User user = userMapper.findById(userId);
-        if (user == null || user.getRole() == null) {
-            return new ArrayList<>();
-        }
-
-        List<String> permissions = new ArrayList<>();
-        switch (user.getRole()) {
-            case "ADMIN":
-                permissions.add("admin:dashboard");
-                permissions.add("admin:users");
-                permissions.add("admin:users:manage");
-                permissions.add("admin:athletes");
-                permissions.add("admin:athletes:export");
-                permissions.add("admin:athletes:import");
-                permissions.add("admin:reports");
-                permissions.add("admin:training.analytics");
-                permissions.add("admin:training.export");
-                permissions.add("admin:competitions.manage");
-                permissions.add("admin:competitions.export");
-                permissions.add("competition:force-finish");
-                break;
-            case "COACH":
-                permissions.add("coach:training");
-                break;
-            case "ATHLETE":
-            default:
-                permissions.add("athlete:self");
-                break;
+        String role = userRoleCache.getRole(loginId);
+        if (role == null) {
+            return Collections.emptyList();
         }
-        return permissions;
+        return ROLE_PERMISSIONS.getOrDefault(role, ATHLETE_PERMISSIONS);
     }
     
     /**
@@ -62,15 +68,11 @@ public class StpInterfaceImpl implements StpInterface {
      */
     @Override
     public List<String> getRoleList(Object loginId, String loginType) {
-        // 获取用户ID
-        Long userId = Long.parseLong(loginId.toString());
-        
-        // 查询用户角色
-        User user = userMapper.findById(userId);
-        if (user != null && user.getRole() != null) {
-            return Arrays.asList(user.getRole());
+        String role = userRoleCache.getRole(loginId);
+        if (role == null) {
+            return Collections.emptyList();
         }
-        
-        return new ArrayList<>();
+        List<String> roles = ROLE_LISTS.get(role);
+        return roles != null ? roles : List.of(role);
     }
 }
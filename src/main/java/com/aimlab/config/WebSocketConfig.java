@@ -4,6 +4,8 @@ import cn.dev33.satoken.stp.StpUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.server.ServerHttpRequest;
@@ -11,6 +13,8 @@ import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.messaging.simp.stomp.StompCommand;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.messaging.support.MessageHeaderAccessor;
@@ -21,6 +25,7 @@ import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBr
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.standard.ServerEndpointExporter;
 
 import java.util.Map;
 
@@ -33,12 +38,59 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
     private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
 
+    /**
+     * 消息代理模式：simple(进程内简单代理，单节点及测试使用) / relay(中继到外部STOMP代理，多节点共享订阅)
+     */
+    @Value("${aimlab.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${aimlab.websocket.broker.relay-host:localhost}")
+    private String relayHost;
+
+    @Value("${aimlab.websocket.broker.relay-port:61613}")
+    private int relayPort;
+
+    @Value("${aimlab.websocket.broker.client-login:guest}")
+    private String clientLogin;
+
+    @Value("${aimlab.websocket.broker.client-passcode:guest}")
+    private String clientPasscode;
+
+    @Value("${aimlab.websocket.broker.system-login:guest}")
+    private String systemLogin;
+
+    @Value("${aimlab.websocket.broker.system-passcode:guest}")
+    private String systemPasscode;
+
+    @Value("${aimlab.websocket.broker.virtual-host:}")
+    private String virtualHost;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // 启用简单代理，前缀为 /topic
-        config.enableSimpleBroker("/topic");
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            // 中继到外部STOMP代理，任一节点发布的消息都会送达所有节点上的订阅会话
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(clientLogin)
+                    .setClientPasscode(clientPasscode)
+                    .setSystemLogin(systemLogin)
+                    .setSystemPasscode(systemPasscode);
+            if (!virtualHost.isEmpty()) {
+                relay.setVirtualHost(virtualHost);
+            }
+            // 用户连接在其他节点时，用户目的地的消息经代理转发给持有该用户会话的节点
+            relay.setUserDestinationBroadcast("/topic/unresolved-user-destination")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            logger.info("WebSocket使用STOMP代理中继: {}:{}", relayHost, relayPort);
+        } else {
+            // 启用简单代理，前缀为 /topic（广播）和 /queue（用户私有消息）
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         // 客户端发送消息的前缀
         config.setApplicationDestinationPrefixes("/app");
+        // 用户目的地前缀，客户端订阅 /user/queue/messages 接收推送给自己的消息
+        config.setUserDestinationPrefix("/user");
     }
 
     @Override
@@ -55,6 +107,16 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registration.interceptors(new SaTokenChannelInterceptor());
     }
     
+    /**
+     * 注册原生比赛端点（/ws/competition/{id}），供不使用STOMP的大屏等客户端订阅比赛消息
+     * 内嵌容器不会扫描 @ServerEndpoint，需显式导出；测试使用的模拟Web环境没有WebSocket容器，默认关闭
+     */
+    @Bean
+    @ConditionalOnProperty(name = "aimlab.websocket.native-endpoint.enabled", havingValue = "true")
+    public ServerEndpointExporter serverEndpointExporter() {
+        return new ServerEndpointExporter();
+    }
+    
     /**
      * Sa-Token握手拦截器
      */
@@ -95,15 +157,24 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private static class SaTokenChannelInterceptor implements ChannelInterceptor {
         @Override
         public Message<?> preSend(Message<?> message, MessageChannel channel) {
-            StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+            // 设置连接身份需使用消息自带的可变头访问器
+            StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+            if (accessor == null) {
+                accessor = StompHeaderAccessor.wrap(message);
+            }
             
-            if (accessor != null && accessor.getSessionAttributes() != null) {
+            if (accessor.getSessionAttributes() != null) {
                 String token = (String) accessor.getSessionAttributes().get("aimlab-token");
                 
                 if (token != null && !token.isEmpty()) {
                     try {
                         // 在当前线程中设置Sa-Token的上下文
-                        StpUtil.getLoginIdByToken(token);
+                        Object loginId = StpUtil.getLoginIdByToken(token);
+                        // 连接时以用户ID作为会话身份，用于 /user 目的地推送
+                        if (loginId != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+                            String userName = loginId.toString();
+                            accessor.setUser(() -> userName);
+                        }
                         logger.debug("WebSocket消息: 设置token上下文成功");
                     } catch (Exception e) {
                         logger.warn("WebSocket消息: token验证失败: {}", e.getMessage());
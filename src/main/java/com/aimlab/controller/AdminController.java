@@ -5,14 +5,18 @@ import com.aimlab.dto.AdminUserDTO;
 import com.aimlab.dto.ExportFile;
 import com.aimlab.dto.ImportResult;
 import com.aimlab.dto.PageResult;
+import com.aimlab.dto.ShotExportQuery;
 import com.aimlab.entity.Competition;
 import com.aimlab.entity.Athlete;
 import com.aimlab.service.AdminService;
 import com.aimlab.service.AdminUserService;
+import com.aimlab.service.AthleteDailyStatsService;
 import com.aimlab.service.AthleteImportExportService;
 import com.aimlab.service.AthleteService;
 import com.aimlab.service.CompetitionService;
+import com.aimlab.service.ShotExportService;
 import com.aimlab.service.TrainingAnalyticsService;
+import com.aimlab.websocket.WebSocketConnectionMetrics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,7 +33,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.HashMap;
@@ -62,6 +68,15 @@ public class AdminController {
     @Autowired
     private TrainingAnalyticsService trainingAnalyticsService;
 
+    @Autowired
+    private AthleteDailyStatsService athleteDailyStatsService;
+
+    @Autowired
+    private ShotExportService shotExportService;
+
+    @Autowired
+    private WebSocketConnectionMetrics webSocketConnectionMetrics;
+
     /**
      * 获取仪表盘统计数据
      *
@@ -77,8 +92,24 @@ public class AdminController {
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * 获取本节点WebSocket连接指标
+     *
+     * @return 连接指标
+     */
+    @Operation(summary = "WebSocket连接指标", description = "获取处理本次请求的节点上的STOMP会话数和各比赛订阅数")
+    @SaCheckPermission("admin:dashboard")
+    @GetMapping("/websocket/metrics")
+    public ResponseEntity<?> getWebSocketMetrics() {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", true);
+        result.put("metrics", webSocketConnectionMetrics.snapshot());
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * 获取全部用户（脱敏）
+     * 传入上一页返回的 cursor 时按键集继续翻页，否则按 page 跳页
      *
      * @return 用户列表
      */
@@ -90,12 +121,16 @@ public class AdminController {
             @RequestParam(value = "role", required = false) String role,
             @RequestParam(value = "status", required = false) Integer status,
             @RequestParam(value = "page", defaultValue = "1") int page,
-            @RequestParam(value = "size", defaultValue = "20") int size) {
-        PageResult<AdminUserDTO> pageResult = adminUserService.listUsers(username, role, status, page, size);
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "withTotal", required = false) Boolean withTotal) {
+        PageResult<AdminUserDTO> pageResult = adminUserService.listUsers(username, role, status, cursor, page, size, withTotal);
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
         result.put("total", pageResult.getTotal());
         result.put("items", pageResult.getItems());
+        result.put("nextCursor", pageResult.getNextCursor());
+        result.put("hasMore", pageResult.isHasMore());
         return ResponseEntity.ok(result);
     }
 
@@ -182,28 +217,41 @@ public class AdminController {
 
     /**
      * 获取全部运动员
+     * 传入 size、cursor 或 status 时按创建时间倒序键集分页，否则返回全部运动员
      *
      * @return 运动员列表
      */
     @Operation(summary = "运动员列表", description = "获取全部运动员基础档案数据")
     @SaCheckPermission("admin:athletes")
     @GetMapping("/athletes")
-    public ResponseEntity<?> getAllAthletes() {
+    public ResponseEntity<?> getAllAthletes(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal) {
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
-        result.put("athletes", adminService.listAthletes());
+        if (size == null && cursor == null && status == null) {
+            result.put("athletes", adminService.listAthletes());
+            return ResponseEntity.ok(result);
+        }
+        PageResult<Map<String, Object>> page = adminService.listAthletes(status, cursor, size != null ? size : 20, withTotal);
+        result.put("athletes", page.getItems());
+        result.put("total", page.getTotal());
+        result.put("nextCursor", page.getNextCursor());
+        result.put("hasMore", page.isHasMore());
         return ResponseEntity.ok(result);
     }
 
     @Operation(summary = "导出运动员档案", description = "支持导出为CSV或Excel格式")
     @SaCheckPermission("admin:athletes:export")
     @GetMapping("/athletes/export")
-    public ResponseEntity<byte[]> exportAthletes(@RequestParam(value = "format", defaultValue = "csv") String format) {
+    public ResponseEntity<StreamingResponseBody> exportAthletes(@RequestParam(value = "format", defaultValue = "csv") String format) {
         ExportFile exportFile = athleteImportExportService.exportAthletes(format);
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + exportFile.getFileName());
         headers.setContentType(MediaType.parseMediaType(exportFile.getContentType()));
-        return ResponseEntity.ok().headers(headers).body(exportFile.getData());
+        return ResponseEntity.ok().headers(headers).body(exportFile::writeTo);
     }
 
     @Operation(summary = "导入运动员档案", description = "支持上传CSV/Excel文件批量导入")
@@ -382,13 +430,16 @@ public class AdminController {
     @SaCheckPermission("admin:athletes")
     @GetMapping("/athletes/pending")
     public ResponseEntity<?> getPendingAthletes(
-            @RequestParam(value = "limit", required = false) Integer limit) {
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         try {
-            List<Athlete> pendingAthletes = athleteService.getPendingAthletes(limit);
+            PageResult<Athlete> pendingAthletes = athleteService.getPendingAthletes(cursor, limit);
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
-            result.put("athletes", pendingAthletes);
-            result.put("total", pendingAthletes.size());
+            result.put("athletes", pendingAthletes.getItems());
+            result.put("total", pendingAthletes.getItems().size());
+            result.put("nextCursor", pendingAthletes.getNextCursor());
+            result.put("hasMore", pendingAthletes.isHasMore());
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -402,13 +453,16 @@ public class AdminController {
     @SaCheckPermission("admin:athletes")
     @GetMapping("/athletes/approved")
     public ResponseEntity<?> getApprovedAthletes(
-            @RequestParam(value = "limit", required = false) Integer limit) {
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "cursor", required = false) String cursor) {
         try {
-            List<Athlete> approvedAthletes = athleteService.getApprovedAthletes(limit);
+            PageResult<Athlete> approvedAthletes = athleteService.getApprovedAthletes(cursor, limit);
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
-            result.put("athletes", approvedAthletes);
-            result.put("total", approvedAthletes.size());
+            result.put("athletes", approvedAthletes.getItems());
+            result.put("total", approvedAthletes.getItems().size());
+            result.put("nextCursor", approvedAthletes.getNextCursor());
+            result.put("hasMore", approvedAthletes.isHasMore());
             return ResponseEntity.ok(result);
         } catch (Exception e) {
             Map<String, Object> error = new HashMap<>();
@@ -474,6 +528,51 @@ public class AdminController {
         }
     }
 
+    @Operation(summary = "重新计分比赛", description = "按靶面配置由射击坐标重新计算比赛全部成绩，已结束的比赛同时刷新最终排名")
+    @SaCheckPermission("admin:competitions.manage")
+    @PostMapping("/competitions/{competitionId}/rescore")
+    public ResponseEntity<?> rescoreCompetition(@PathVariable Integer competitionId,
+                                                @RequestParam(value = "profile", required = false) String profile) {
+        try {
+            int updated = competitionService.rescoreCompetition(competitionId, profile);
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("updatedRecords", updated);
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @Operation(summary = "重建每日统计汇总", description = "由射击记录重新生成日期范围内的运动员每日统计汇总，用于历史回填或修复")
+    @SaCheckPermission("admin:training.analytics")
+    @PostMapping("/analytics/daily-stats/rebuild")
+    public ResponseEntity<?> rebuildDailyStats(@RequestParam("startDate") String startDate,
+                                               @RequestParam(value = "endDate", required = false) String endDate) {
+        try {
+            LocalDate start = LocalDate.parse(startDate.trim());
+            LocalDate end = endDate != null && !endDate.trim().isEmpty() ? LocalDate.parse(endDate.trim()) : LocalDate.now();
+            int rows = athleteDailyStatsService.rebuild(start, end);
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("rows", rows);
+            return ResponseEntity.ok(result);
+        } catch (DateTimeParseException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", "日期格式错误，请使用yyyy-MM-dd格式");
+            return ResponseEntity.badRequest().body(error);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @Operation(summary = "训练统计 - 时间维度", description = "按时间周期聚合训练成绩与稳定性")
     @SaCheckPermission("admin:training.analytics")
     @GetMapping("/training/analytics/time")
@@ -525,7 +624,7 @@ public class AdminController {
     @Operation(summary = "导出训练统计报表", description = "按指定维度导出训练表现报表")
     @SaCheckPermission("admin:training.export")
     @GetMapping("/training/analytics/export")
-    public ResponseEntity<byte[]> exportTrainingAnalytics(
+    public ResponseEntity<StreamingResponseBody> exportTrainingAnalytics(
             @RequestParam(value = "dimension", defaultValue = "TIME") String dimension,
             @RequestParam(value = "granularity", defaultValue = "DAY") String granularity,
             @RequestParam(value = "startTime", required = false) String startTime,
@@ -539,19 +638,19 @@ public class AdminController {
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + exportFile.getFileName());
         headers.setContentType(MediaType.parseMediaType(exportFile.getContentType()));
-        return ResponseEntity.ok().headers(headers).body(exportFile.getData());
+        return ResponseEntity.ok().headers(headers).body(exportFile::writeTo);
     }
 
     @Operation(summary = "导出比赛成绩", description = "导出已完成比赛的成绩单")
     @SaCheckPermission("admin:competitions.export")
     @GetMapping("/competitions/{competitionId}/results/export")
-    public ResponseEntity<byte[]> exportCompetitionResults(@PathVariable Integer competitionId,
-                                                           @RequestParam(value = "format", defaultValue = "xlsx") String format) {
+    public ResponseEntity<StreamingResponseBody> exportCompetitionResults(@PathVariable Integer competitionId,
+                                                                          @RequestParam(value = "format", defaultValue = "xlsx") String format) {
         ExportFile exportFile = competitionService.exportCompetitionResults(competitionId, format);
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + exportFile.getFileName());
         headers.setContentType(MediaType.parseMediaType(exportFile.getContentType()));
-        return ResponseEntity.ok().headers(headers).body(exportFile.getData());
+        return ResponseEntity.ok().headers(headers).body(exportFile::writeTo);
     }
 
     /**
@@ -599,6 +698,33 @@ public class AdminController {
                 .body(pdfBytes);
     }
 
+    @Operation(summary = "导出原始射击记录",
+            description = "按时间范围、运动员和训练项目流式导出射击记录，支持ndjson、csv和列式二进制bin格式；"
+                    + "导出中断后传入最后收到记录的射击时间和ID可从其后继续导出")
+    @SaCheckPermission("admin:records.export")
+    @GetMapping("/records/export")
+    public ResponseEntity<StreamingResponseBody> exportShootingRecords(
+            @RequestParam("startTime") String startTime,
+            @RequestParam("endTime") String endTime,
+            @RequestParam(value = "athleteIds", required = false) List<Long> athleteIds,
+            @RequestParam(value = "projectType", required = false) String projectType,
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "afterShotAt", required = false) String afterShotAt,
+            @RequestParam(value = "afterId", required = false) Long afterId) {
+        ShotExportQuery query = new ShotExportQuery();
+        query.setStartTime(parseDateTime(startTime));
+        query.setEndTime(parseDateTime(endTime));
+        query.setAthleteIds(athleteIds);
+        query.setProjectType(projectType);
+        query.setAfterShotAt(parseDateTime(afterShotAt));
+        query.setAfterId(afterId);
+        ExportFile exportFile = shotExportService.exportShots(query, format);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + exportFile.getFileName());
+        headers.setContentType(MediaType.parseMediaType(exportFile.getContentType()));
+        return ResponseEntity.ok().headers(headers).body(exportFile::writeTo);
+    }
+
     private LocalDateTime parseDateTime(String value) {
         if (value == null || value.trim().isEmpty()) {
             return null;
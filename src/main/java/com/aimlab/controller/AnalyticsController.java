@@ -11,7 +11,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -100,43 +102,20 @@ public class AnalyticsController {
     @Operation(summary = "导出对比数据")
     @SaCheckLogin
     @PostMapping("/compare/export")
-    public ResponseEntity<?> exportCompareData(@RequestBody CompareRequestDTO request) {
-        try {
-            List<AthleteCompareDTO> data = analyticsService.compareAthletes(request);
-            ExportFile file = analyticsService.exportCompareData(data, "xlsx");
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + file.getFileName() + "\"")
-                    .contentType(MediaType.parseMediaType(file.getContentType()))
-                    .body(file.getData());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("success", false, "message", e.getMessage()));
-        }
+    public ResponseEntity<StreamingResponseBody> exportCompareData(@RequestBody CompareRequestDTO request) {
+        List<AthleteCompareDTO> data = analyticsService.compareAthletes(request);
+        return attachment(analyticsService.exportCompareData(data, "xlsx"));
     }
 
     @Operation(summary = "导出趋势数据")
     @SaCheckLogin
     @GetMapping("/trend/{athleteId}/export")
-    public ResponseEntity<?> exportTrendData(
+    public ResponseEntity<StreamingResponseBody> exportTrendData(
             @PathVariable Long athleteId,
             @RequestParam(defaultValue = "12") Integer weeks,
             @RequestParam(required = false) String projectType) {
-        
-        try {
-            TrendAnalysisResultDTO data = analyticsService.getTrendAnalysis(athleteId, weeks, projectType);
-            ExportFile file = analyticsService.exportTrendData(data);
-            
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + file.getFileName() + "\"")
-                    .contentType(MediaType.parseMediaType(file.getContentType()))
-                    .body(file.getData());
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("success", false, "message", e.getMessage()));
-        }
+        TrendAnalysisResultDTO data = analyticsService.getTrendAnalysis(athleteId, weeks, projectType);
+        return attachment(analyticsService.exportTrendData(data));
     }
 
     @Operation(summary = "获取级别列表")
@@ -145,4 +124,23 @@ public class AnalyticsController {
         List<String> levels = Arrays.asList("国家级", "省级", "市级", "业余");
         return ResponseEntity.ok(Map.of("success", true, "levels", levels));
     }
+
+    /**
+     * 以附件形式流式输出导出文件，生成数据时的异常由 GlobalExceptionHandler 转换为错误JSON
+     * 写出过程中响应头已提交，无法再返回错误JSON，只记录日志后中断连接
+     */
+    private ResponseEntity<StreamingResponseBody> attachment(ExportFile file) {
+        StreamingResponseBody body = out -> {
+            try {
+                file.writeTo(out);
+            } catch (IOException | RuntimeException e) {
+                log.error("导出文件写出中断: fileName={}, error={}", file.getFileName(), e.getMessage(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+                .contentType(MediaType.parseMediaType(file.getContentType()))
+                .body(body);
+    }
 }
@@ -3,12 +3,15 @@ package com.aimlab.controller;
 import cn.dev33.satoken.annotation.SaCheckLogin;
 import cn.dev33.satoken.annotation.SaCheckPermission;
 import cn.dev33.satoken.annotation.SaCheckRole;
+import cn.dev33.satoken.stp.StpUtil;
 import com.aimlab.dto.RankingItemDTO;
 import com.aimlab.entity.Competition;
 import com.aimlab.entity.CompetitionAthlete;
 import com.aimlab.entity.CompetitionResult;
 import com.aimlab.entity.CompetitionStatus;
 import com.aimlab.service.CompetitionService;
+import com.aimlab.service.ReportJob;
+import com.aimlab.service.ReportJobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -22,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 比赛控制器
@@ -33,6 +37,9 @@ public class CompetitionController {
 
     @Autowired
     private CompetitionService competitionService;
+
+    @Autowired
+    private ReportJobService reportJobService;
     
     /**
      * 创建比赛
@@ -554,23 +561,50 @@ public class CompetitionController {
     @ApiResponse(responseCode = "200", description = "成功获取比赛结果PDF")
     @SaCheckPermission("admin:reports")
     @GetMapping("/{competitionId}/results/pdf")
-    public ResponseEntity<byte[]> downloadCompetitionResultsPdf(
+    public CompletableFuture<ResponseEntity<byte[]>> downloadCompetitionResultsPdf(
             @Parameter(description = "比赛ID") @PathVariable Integer competitionId) {
         try {
-            byte[] pdfBytes = competitionService.getCompetitionResultsAsPdf(competitionId);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "Competition-Results-" + competitionId + ".pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+            ReportJob job = reportJobService.submitCompetitionReport(competitionId, StpUtil.getLoginIdAsLong(), false);
+            return job.getResult().thenApply(file -> {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_PDF);
+                headers.setContentDispositionFormData("attachment", job.getFileName());
+                headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
 
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(reportJobService.readReport(job));
+            });
         } catch (Exception e) {
             throw new RuntimeException("下载比赛结果失败: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * 提交比赛结果PDF生成任务
+     *
+     * @param competitionId 比赛ID
+     * @return 报告任务，完成后通过站内信通知
+     */
+    @Operation(summary = "提交比赛结果PDF生成任务", description = "异步生成比赛结果报告，通过报告任务接口查询进度并下载")
+    @SaCheckPermission("admin:reports")
+    @PostMapping("/{competitionId}/results/pdf/jobs")
+    public ResponseEntity<?> submitCompetitionResultsPdfJob(
+            @Parameter(description = "比赛ID") @PathVariable Integer competitionId) {
+        try {
+            ReportJob job = reportJobService.submitCompetitionReport(competitionId, StpUtil.getLoginIdAsLong(), true);
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("job", job.toDTO());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
     
     /**
      * 获取运动员的比赛结果
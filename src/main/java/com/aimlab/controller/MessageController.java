@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
@@ -33,6 +34,7 @@ public class MessageController {
     
     /**
      * 获取当前用户的消息列表
+     * 传入上一页返回的 cursor 时按键集继续翻页，否则按 page 跳页；withTotal 控制是否返回总数
      */
     @GetMapping
     @SaCheckLogin
@@ -41,13 +43,15 @@ public class MessageController {
             @RequestParam(defaultValue = "1") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String type,
-            @RequestParam(required = false) Boolean isRead) {
+            @RequestParam(required = false) Boolean isRead,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Boolean withTotal) {
         
         Long userId = StpUtil.getLoginIdAsLong();
         Map<String, Object> result = new HashMap<>();
         
         try {
-            Map<String, Object> data = messageService.getMessageList(userId, type, isRead, page, size);
+            Map<String, Object> data = messageService.getMessageList(userId, type, isRead, cursor, page, size, withTotal);
             result.put("success", true);
             result.put("data", data);
         } catch (Exception e) {
@@ -216,6 +220,88 @@ public class MessageController {
         return result;
     }
     
+    /**
+     * 获取广播消息详情
+     */
+    @GetMapping("/broadcasts/{id}")
+    @SaCheckLogin
+    @Operation(summary = "获取广播消息详情")
+    public Map<String, Object> getBroadcastDetail(@PathVariable Long id) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        Map<String, Object> result = new HashMap<>();
+        
+        try {
+            Message message = messageService.getBroadcastForUser(id, userId);
+            if (message == null) {
+                result.put("success", false);
+                result.put("message", "消息不存在");
+                return result;
+            }
+            
+            // 自动标记为已读
+            if (!Boolean.TRUE.equals(message.getIsRead())) {
+                messageService.markBroadcastAsRead(id, userId);
+                message.setIsRead(true);
+            }
+            
+            result.put("success", true);
+            result.put("data", message);
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "获取消息详情失败: " + e.getMessage());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 标记广播消息为已读
+     */
+    @PutMapping("/broadcasts/{id}/read")
+    @SaCheckLogin
+    @Operation(summary = "标记广播消息为已读")
+    public Map<String, Object> markBroadcastAsRead(@PathVariable Long id) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        Map<String, Object> result = new HashMap<>();
+        
+        try {
+            boolean success = messageService.markBroadcastAsRead(id, userId);
+            result.put("success", success);
+            if (!success) {
+                result.put("message", "标记失败，消息不存在或无权操作");
+            }
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "标记失败: " + e.getMessage());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 删除广播消息（仅对当前用户隐藏）
+     */
+    @DeleteMapping("/broadcasts/{id}")
+    @SaCheckLogin
+    @Operation(summary = "删除广播消息")
+    public Map<String, Object> deleteBroadcast(@PathVariable Long id) {
+        Long userId = StpUtil.getLoginIdAsLong();
+        Map<String, Object> result = new HashMap<>();
+        
+        try {
+            boolean success = messageService.deleteBroadcast(id, userId);
+            result.put("success", success);
+            if (!success) {
+                result.put("message", "删除失败，消息不存在或无权操作");
+            }
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "删除失败: " + e.getMessage());
+        }
+        
+        return result;
+    }
+    
     // ============ 管理员接口 ============
     
     /**
@@ -270,8 +356,12 @@ public class MessageController {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            @SuppressWarnings("unchecked")
-            List<Long> receiverIds = (List<Long>) body.get("receiverIds");
+            List<Long> receiverIds = new ArrayList<>();
+            if (body.get("receiverIds") instanceof List) {
+                for (Object receiverId : (List<?>) body.get("receiverIds")) {
+                    receiverIds.add(Long.valueOf(receiverId.toString()));
+                }
+            }
             String title = (String) body.get("title");
             String content = (String) body.get("content");
             
@@ -293,10 +383,51 @@ public class MessageController {
                 return result;
             }
             
-            messageService.sendBatchMessage(senderId, receiverIds, title, content, MessageService.TYPE_MANUAL);
+            int count = messageService.sendBatchMessage(senderId, receiverIds, title, content, MessageService.TYPE_MANUAL);
+            result.put("success", true);
+            result.put("count", count);
+            result.put("message", "已向 " + count + " 位用户发送消息");
+        } catch (Exception e) {
+            result.put("success", false);
+            result.put("message", "发送失败: " + e.getMessage());
+        }
+        
+        return result;
+    }
+    
+    /**
+     * 管理员发送广播消息给全体用户或某一角色的用户
+     */
+    @PostMapping("/admin/broadcast")
+    @SaCheckLogin
+    @SaCheckRole("ADMIN")
+    @Operation(summary = "管理员发送广播消息", description = "消息只保存一份，接收者在收件箱中看到；role 为空时发送给全体用户")
+    public Map<String, Object> adminBroadcast(@RequestBody Map<String, Object> body) {
+        Long senderId = StpUtil.getLoginIdAsLong();
+        Map<String, Object> result = new HashMap<>();
+        
+        try {
+            String title = (String) body.get("title");
+            String content = (String) body.get("content");
+            String role = (String) body.get("role");
+            
+            if (title == null || title.trim().isEmpty()) {
+                result.put("success", false);
+                result.put("message", "消息标题不能为空");
+                return result;
+            }
+            
+            if (content == null || content.trim().isEmpty()) {
+                result.put("success", false);
+                result.put("message", "消息内容不能为空");
+                return result;
+            }
+            
+            String targetRole = role == null || role.trim().isEmpty() ? null : role.trim().toUpperCase(Locale.ROOT);
+            Long broadcastId = messageService.sendBroadcast(senderId, targetRole, title, content, MessageService.TYPE_MANUAL);
             result.put("success", true);
-            result.put("count", receiverIds.size());
-            result.put("message", "已向 " + receiverIds.size() + " 位用户发送消息");
+            result.put("broadcastId", broadcastId);
+            result.put("message", targetRole == null ? "已向全体用户发送广播消息" : "已向 " + targetRole + " 角色用户发送广播消息");
         } catch (Exception e) {
             result.put("success", false);
             result.put("message", "发送失败: " + e.getMessage());
@@ -333,14 +464,6 @@ public class MessageController {
                 return result;
             }
             
-            // 获取所有管理员
-            List<User> admins = userMapper.findByRole("ADMIN");
-            if (admins == null || admins.isEmpty()) {
-                result.put("success", false);
-                result.put("message", "暂无管理员可接收消息");
-                return result;
-            }
-            
             // 获取发送者信息
             User sender = userMapper.findById(senderId);
             String senderName = sender != null ? sender.getUsername() : "用户";
@@ -349,8 +472,10 @@ public class MessageController {
             String fullTitle = "【用户反馈】" + title;
             String fullContent = "来自用户 " + senderName + " 的消息：\n\n" + content;
             
-            for (User admin : admins) {
-                messageService.sendMessage(senderId, admin.getId(), fullTitle, fullContent, MessageService.TYPE_MANUAL);
+            if (messageService.sendToAdmins(senderId, fullTitle, fullContent, MessageService.TYPE_MANUAL) == 0) {
+                result.put("success", false);
+                result.put("message", "暂无管理员可接收消息");
+                return result;
             }
             
             result.put("success", true);
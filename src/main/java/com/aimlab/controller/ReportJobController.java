@@ -0,0 +1,77 @@
+package com.aimlab.controller;
+
+import cn.dev33.satoken.annotation.SaCheckLogin;
+import cn.dev33.satoken.stp.StpUtil;
+import com.aimlab.service.ReportJob;
+import com.aimlab.service.ReportJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 报告任务控制器
+ * 训练报告和比赛结果报告的生成任务由各自的接口提交，在此查询进度并下载
+ */
+@RestController
+@RequestMapping("/api/report-jobs")
+@Tag(name = "报告任务", description = "PDF报告生成任务查询与下载接口")
+public class ReportJobController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    /**
+     * 查询报告任务状态
+     */
+    @GetMapping("/{jobId}")
+    @SaCheckLogin
+    @Operation(summary = "查询报告任务状态")
+    public ResponseEntity<?> getJob(@Parameter(description = "任务ID") @PathVariable String jobId) {
+        try {
+            ReportJob job = reportJobService.getJob(jobId, StpUtil.getLoginIdAsLong());
+
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("job", job.toDTO());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * 下载已生成的报告
+     */
+    @GetMapping("/{jobId}/file")
+    @SaCheckLogin
+    @Operation(summary = "下载报告文件")
+    public ResponseEntity<byte[]> downloadReport(@Parameter(description = "任务ID") @PathVariable String jobId) {
+        try {
+            ReportJob job = reportJobService.getJob(jobId, StpUtil.getLoginIdAsLong());
+            byte[] pdfBytes = reportJobService.readReport(job);
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_PDF);
+            headers.setContentDispositionFormData("attachment", job.getFileName());
+            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(pdfBytes);
+        } catch (Exception e) {
+            // 由于这是文件下载接口，无法返回JSON错误信息，只能抛出异常
+            throw new RuntimeException("下载报告失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -7,6 +7,8 @@ import com.aimlab.entity.Athlete;
 import com.aimlab.entity.ShootingRecord;
 import com.aimlab.entity.TrainingSession;
 import com.aimlab.service.AthleteService;
+import com.aimlab.service.ReportJob;
+import com.aimlab.service.ReportJobService;
 import com.aimlab.service.TrainingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -23,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 训练控制器
@@ -38,6 +41,9 @@ public class TrainingController {
     @Autowired
     private AthleteService athleteService;
     
+    @Autowired
+    private ReportJobService reportJobService;
+    
     /**
      * 开始新的训练场次
      * 
@@ -351,6 +357,7 @@ public class TrainingController {
     
     /**
      * 下载训练报告PDF
+     * 报告由报告任务线程池生成，等待期间不占用请求线程
      * 
      * @param sessionId 训练场次ID
      * @return PDF文件
@@ -359,43 +366,74 @@ public class TrainingController {
     @ApiResponse(responseCode = "200", description = "成功获取PDF报告", content = @Content(mediaType = "application/pdf"))
     @SaCheckLogin
     @GetMapping("/sessions/{sessionId}/report/pdf")
-    public ResponseEntity<byte[]> downloadTrainingReportPdf(@Parameter(description = "训练场次ID") @PathVariable Long sessionId) {
+    public CompletableFuture<ResponseEntity<byte[]>> downloadTrainingReportPdf(@Parameter(description = "训练场次ID") @PathVariable Long sessionId) {
         try {
-            // 获取当前登录用户
             Long userId = StpUtil.getLoginIdAsLong();
-            
-            // 获取当前用户的运动员信息
-            Athlete athlete = athleteService.getAthleteByUserId(userId);
-            if (athlete == null) {
-                throw new RuntimeException("请先创建运动员档案");
-            }
-            
-            // 获取训练场次
-            TrainingSession session = trainingService.getSessionById(sessionId);
-            if (session == null) {
-                throw new RuntimeException("训练场次不存在");
-            }
-            
-            // 检查是否是当前运动员的训练场次
-            if (!session.getAthleteId().equals(athlete.getId())) {
-                throw new RuntimeException("无权查看此训练报告");
-            }
-            
-            // 生成PDF
-            byte[] pdfBytes = trainingService.getTrainingReportAsPdf(sessionId);
-            
-            // 设置HTTP响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("attachment", "Training-Report-" + sessionId + ".pdf");
-            headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(pdfBytes);
+            checkSessionOwner(userId, sessionId);
+            ReportJob job = reportJobService.submitTrainingReport(sessionId, userId, false);
+            return job.getResult().thenApply(file -> {
+                // 设置HTTP响应头
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_PDF);
+                headers.setContentDispositionFormData("attachment", job.getFileName());
+                headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+                
+                return ResponseEntity.ok()
+                        .headers(headers)
+                        .body(reportJobService.readReport(job));
+            });
         } catch (Exception e) {
             // 由于这是文件下载接口，无法返回JSON错误信息，只能抛出异常
             throw new RuntimeException("下载PDF失败: " + e.getMessage(), e);
         }
     }
-} 
+    
+    /**
+     * 提交训练报告PDF生成任务
+     * 
+     * @param sessionId 训练场次ID
+     * @return 报告任务，完成后通过站内信通知
+     */
+    @Operation(summary = "提交训练报告PDF生成任务", description = "异步生成训练报告，通过报告任务接口查询进度并下载")
+    @SaCheckLogin
+    @PostMapping("/sessions/{sessionId}/report/pdf/jobs")
+    public ResponseEntity<?> submitTrainingReportJob(@Parameter(description = "训练场次ID") @PathVariable Long sessionId) {
+        try {
+            Long userId = StpUtil.getLoginIdAsLong();
+            checkSessionOwner(userId, sessionId);
+            ReportJob job = reportJobService.submitTrainingReport(sessionId, userId, true);
+            
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", true);
+            result.put("job", job.toDTO());
+            return ResponseEntity.ok(result);
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("success", false);
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+    
+    /**
+     * 校验训练场次属于当前用户的运动员档案
+     */
+    private void checkSessionOwner(Long userId, Long sessionId) {
+        // 获取当前用户的运动员信息
+        Athlete athlete = athleteService.getAthleteByUserId(userId);
+        if (athlete == null) {
+            throw new RuntimeException("请先创建运动员档案");
+        }
+        
+        // 获取训练场次
+        TrainingSession session = trainingService.getSessionById(sessionId);
+        if (session == null) {
+            throw new RuntimeException("训练场次不存在");
+        }
+        
+        // 检查是否是当前运动员的训练场次
+        if (!session.getAthleteId().equals(athlete.getId())) {
+            throw new RuntimeException("无权查看此训练报告");
+        }
+    }
+}
@@ -1,15 +1,18 @@
 package com.aimlab.controller;
 
 import cn.dev33.satoken.stp.StpUtil;
+import com.aimlab.dto.RankingSnapshotDTO;
 import com.aimlab.entity.Athlete;
 import com.aimlab.entity.ShootingRecord;
 import com.aimlab.service.AthleteService;
 import com.aimlab.service.CompetitionService;
 import com.aimlab.websocket.WebSocketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.SendTo;
 import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -94,24 +97,8 @@ public class WebSocketController {
             record.setShotAt(LocalDateTime.now());
             record.setRecordType("COMPETITION");
             
-            // 保存射击记录
-            ShootingRecord savedRecord = competitionService.addCompetitionRecord(record);
-            
-            // 通过WebSocket广播给所有客户端
-            webSocketService.sendShootingRecord(
-                String.valueOf(record.getCompetitionId()), 
-                savedRecord
-            );
-            
-            // 获取并广播最新排名
-            try {
-                webSocketService.sendRankingUpdate(
-                    String.valueOf(record.getCompetitionId()),
-                    competitionService.getLiveRanking(record.getCompetitionId())
-                );
-            } catch (Exception e) {
-                logger.warn("更新实时排名失败: {}", e.getMessage());
-            }
+            // 保存射击记录（服务层负责广播射击记录和排名增量）
+            competitionService.addCompetitionRecord(record);
             
         } catch (Exception e) {
             logger.error("处理比赛射击记录失败: {}", e.getMessage(), e);
@@ -124,4 +111,17 @@ public class WebSocketController {
             );
         }
     }
+    
+    /**
+     * 订阅比赛排名快照
+     * 客户端订阅 /app/competition/{competitionId}/ranking 时直接回复全量快照，
+     * 用于初次进入或发现增量序列号缺失时重新同步
+     * 
+     * @param competitionId 比赛ID
+     * @return 排名快照
+     */
+    @SubscribeMapping("/competition/{competitionId}/ranking")
+    public RankingSnapshotDTO subscribeRankingSnapshot(@DestinationVariable Integer competitionId) {
+        return competitionService.getRankingSnapshot(competitionId);
+    }
 } 
\ No newline at end of file
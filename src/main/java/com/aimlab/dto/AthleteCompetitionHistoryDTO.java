@@ -0,0 +1,38 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 运动员参赛历史数据传输对象
+ * 报名记录、比赛信息和最终成绩由一次关联查询得到
+ */
+@Data
+public class AthleteCompetitionHistoryDTO {
+
+    /**
+     * 比赛ID
+     */
+    private Integer competitionId;
+
+    /**
+     * 比赛名称
+     */
+    private String competitionName;
+
+    /**
+     * 比赛开始时间
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * 最终排名，比赛未完成时为空
+     */
+    private Integer finalRank;
+
+    /**
+     * 最终得分，比赛未完成时为空
+     */
+    private BigDecimal finalScore;
+}
@@ -0,0 +1,58 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 运动员档案导出行数据传输对象
+ * 只包含导出列，不读取头像等大字段
+ */
+@Data
+public class AthleteExportDTO {
+
+    /**
+     * 关联的用户ID
+     */
+    private Long userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 运动员姓名
+     */
+    private String name;
+
+    /**
+     * 性别
+     */
+    private String gender;
+
+    /**
+     * 出生日期
+     */
+    private LocalDate birthDate;
+
+    /**
+     * 等级
+     */
+    private String level;
+
+    /**
+     * 审核状态
+     */
+    private String approvalStatus;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
@@ -45,4 +45,21 @@ public class AthleteHistoryItemDTO {
      * 比赛排名（仅对比赛有效）
      */
     private Integer rank;
-} 
\ No newline at end of file
+    
+    /**
+     * 复制历史记录项
+     * 
+     * @return 新的历史记录项
+     */
+    public AthleteHistoryItemDTO copy() {
+        AthleteHistoryItemDTO item = new AthleteHistoryItemDTO();
+        item.setType(type);
+        item.setId(id);
+        item.setName(name);
+        item.setDate(date);
+        item.setResult(result);
+        item.setResultValue(resultValue);
+        item.setRank(rank);
+        return item;
+    }
+}
@@ -0,0 +1,67 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 运动员月度比赛成绩汇总数据传输对象
+ * 排行榜快照的数据源，每个已审核运动员每月一行，没有比赛成绩的运动员只有一行且年月为空
+ */
+@Data
+public class AthleteMonthlyResultDTO {
+
+    /**
+     * 运动员ID
+     */
+    private Long athleteId;
+
+    /**
+     * 运动员姓名
+     */
+    private String athleteName;
+
+    /**
+     * 运动员等级
+     */
+    private String athleteLevel;
+
+    /**
+     * 性别
+     */
+    private String gender;
+
+    /**
+     * 成绩年份，没有比赛成绩时为空
+     */
+    private Integer resultYear;
+
+    /**
+     * 成绩月份，没有比赛成绩时为空
+     */
+    private Integer resultMonth;
+
+    /**
+     * 成绩条数
+     */
+    private Integer resultCount;
+
+    /**
+     * 参加的比赛场数
+     */
+    private Integer competitionCount;
+
+    /**
+     * 最终成绩之和
+     */
+    private BigDecimal scoreSum;
+
+    /**
+     * 最高最终成绩
+     */
+    private BigDecimal maxScore;
+
+    /**
+     * 获得第一名的次数
+     */
+    private Integer winCount;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -136,4 +137,40 @@ public class AthleteProfileDTO {
         profileDTO.setUpdatedAt(athlete.getUpdatedAt());
         return profileDTO;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 深复制个人资料，历史记录列表及其中的记录项均为新对象
+     * 
+     * @return 新的AthleteProfileDTO对象
+     */
+    public AthleteProfileDTO copy() {
+        AthleteProfileDTO profileDTO = new AthleteProfileDTO();
+        profileDTO.setId(id);
+        profileDTO.setUserId(userId);
+        profileDTO.setName(name);
+        profileDTO.setGender(gender);
+        profileDTO.setBirthDate(birthDate);
+        profileDTO.setLevel(level);
+        profileDTO.setHasAvatar(hasAvatar);
+        profileDTO.setCreatedAt(createdAt);
+        profileDTO.setUpdatedAt(updatedAt);
+        if (historyItems != null) {
+            List<AthleteHistoryItemDTO> items = new ArrayList<>(historyItems.size());
+            for (AthleteHistoryItemDTO item : historyItems) {
+                items.add(item != null ? item.copy() : null);
+            }
+            profileDTO.setHistoryItems(items);
+        }
+        profileDTO.setCareerTotalShots(careerTotalShots);
+        profileDTO.setCareerAverageScore(careerAverageScore);
+        profileDTO.setCareerBestScore(careerBestScore);
+        profileDTO.setApprovalStatus(approvalStatus);
+        profileDTO.setModificationStatus(modificationStatus);
+        profileDTO.setTotalCompetitions(totalCompetitions);
+        profileDTO.setCompetitionsWon(competitionsWon);
+        profileDTO.setCompetitionsTopThree(competitionsTopThree);
+        profileDTO.setTotalTrainingSessions(totalTrainingSessions);
+        profileDTO.setTotalTrainingMinutes(totalTrainingMinutes);
+        return profileDTO;
+    }
+}
@@ -0,0 +1,97 @@
+package com.aimlab.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 统计分析的射击时间范围，拆分为整天部分和首尾不足一天的部分
+ * 整天部分读取每日汇总 athlete_daily_stats，其余部分直接读取射击记录，
+ * 合并后的结果与全部读取射击记录一致，读取射击记录的时间跨度不超过两天
+ */
+public class DailyStatsRange {
+
+    /**
+     * 读取汇总的开始日期（含），null表示不限
+     */
+    private final LocalDate fromDate;
+
+    /**
+     * 读取汇总的结束日期（不含），null表示不限
+     */
+    private final LocalDate toDate;
+
+    /**
+     * 是否包含整天，不包含时全部读取射击记录
+     */
+    private final boolean fullDays;
+
+    /**
+     * 直接读取射击记录的时间窗口
+     */
+    private final List<ShotTimeWindow> shotWindows;
+
+    private DailyStatsRange(LocalDate fromDate, LocalDate toDate, boolean fullDays, List<ShotTimeWindow> shotWindows) {
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.fullDays = fullDays;
+        this.shotWindows = shotWindows;
+    }
+
+    /**
+     * @param start 开始时间（含），null表示不限
+     * @param end 结束时间（不含），null表示不限
+     * @return 时间范围
+     */
+    public static DailyStatsRange of(LocalDateTime start, LocalDateTime end) {
+        LocalDate fromDate = null;
+        if (start != null) {
+            fromDate = start.equals(start.toLocalDate().atStartOfDay())
+                    ? start.toLocalDate() : start.toLocalDate().plusDays(1);
+        }
+        LocalDate toDate = end != null ? end.toLocalDate() : null;
+        if (fromDate != null && toDate != null && !fromDate.isBefore(toDate)) {
+            // 范围内没有整天
+            return new DailyStatsRange(null, null, false,
+                    Collections.singletonList(new ShotTimeWindow(start, end)));
+        }
+        List<ShotTimeWindow> windows = new ArrayList<>();
+        if (fromDate != null && start.isBefore(fromDate.atStartOfDay())) {
+            windows.add(new ShotTimeWindow(start, fromDate.atStartOfDay()));
+        }
+        if (toDate != null && toDate.atStartOfDay().isBefore(end)) {
+            windows.add(new ShotTimeWindow(toDate.atStartOfDay(), end));
+        }
+        return new DailyStatsRange(fromDate, toDate, true, windows);
+    }
+
+    /**
+     * 结束时间包含在内的范围。射击时间精确到毫秒，右边界取结束时间的下一毫秒
+     *
+     * @param start 开始时间（含），null表示不限
+     * @param end 结束时间（含），null表示不限
+     * @return 时间范围
+     */
+    public static DailyStatsRange ofInclusive(LocalDateTime start, LocalDateTime end) {
+        return of(start, end != null ? end.truncatedTo(ChronoUnit.MILLIS).plus(1, ChronoUnit.MILLIS) : null);
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public boolean isFullDays() {
+        return fullDays;
+    }
+
+    public List<ShotTimeWindow> getShotWindows() {
+        return shotWindows;
+    }
+}
@@ -0,0 +1,46 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+/**
+ * 管理员仪表盘计数，由一条分组统计查询得到
+ */
+@Data
+public class DashboardCountsDTO {
+
+    private long totalUsers;
+
+    private long activeUsers;
+
+    private long disabledUsers;
+
+    private long adminUsers;
+
+    private long totalAthletes;
+
+    private long pendingAthletes;
+
+    private long totalTrainings;
+
+    /**
+     * 进行中（未结束）的训练场次
+     */
+    private long activeTrainings;
+
+    /**
+     * 统计起点之后生成的训练报告数
+     */
+    private long recentReports;
+
+    private long totalCompetitions;
+
+    private long createdCompetitions;
+
+    private long runningCompetitions;
+
+    private long pausedCompetitions;
+
+    private long completedCompetitions;
+
+    private long cancelledCompetitions;
+}
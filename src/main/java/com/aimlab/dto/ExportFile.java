@@ -1,17 +1,35 @@
 package com.aimlab.dto;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * 文件导出结果
+ * 内容由 {@link Body} 在响应时直接写入输出流，导出数据不在内存中整体缓存
  */
 public class ExportFile {
+
+    public static final String CSV_CONTENT_TYPE = "text/csv;charset=UTF-8";
+
+    public static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    /**
+     * 导出内容
+     */
+    @FunctionalInterface
+    public interface Body {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
     private final String fileName;
     private final String contentType;
-    private final byte[] data;
+    private final Body body;
 
-    public ExportFile(String fileName, String contentType, byte[] data) {
+    public ExportFile(String fileName, String contentType, Body body) {
         this.fileName = fileName;
         this.contentType = contentType;
-        this.data = data;
+        this.body = body;
     }
 
     public String getFileName() {
@@ -22,7 +40,27 @@ public class ExportFile {
         return contentType;
     }
 
+    /**
+     * 将导出内容写入输出流
+     *
+     * @param out 输出流
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        body.writeTo(out);
+    }
+
+    /**
+     * 将导出内容完整写入内存，只适合小文件；响应输出应使用 {@link #writeTo(OutputStream)}
+     *
+     * @return 文件内容
+     */
     public byte[] getData() {
-        return data;
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            writeTo(bos);
+        } catch (IOException e) {
+            throw new RuntimeException("生成导出文件失败: " + e.getMessage(), e);
+        }
+        return bos.toByteArray();
     }
 }
@@ -0,0 +1,84 @@
+package com.aimlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 键集分页游标，记录上一页最后一行的 (created_at, id)
+ * 下一页以 created_at、id 比较代替 OFFSET，按索引定位起点，翻到第N页与第一页的开销相同。
+ * 对外编码为不透明字符串，客户端原样回传
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class KeysetCursor {
+
+    /**
+     * 上一页最后一行的创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 上一页最后一行的ID
+     */
+    private Long id;
+
+    /**
+     * 合并多个表的结果时上一页最后一行的来源序号，创建时间相同时按来源排序
+     */
+    private int source;
+
+    public KeysetCursor(LocalDateTime createdAt, Long id) {
+        this(createdAt, id, 0);
+    }
+
+    /**
+     * @return 编码后的游标字符串
+     */
+    public String encode() {
+        String raw = createdAt + "|" + id + "|" + source;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 由最后一行生成下一页的游标
+     *
+     * @return 编码后的游标字符串，最后一行缺少创建时间或ID时返回null
+     */
+    public static String encode(LocalDateTime createdAt, Long id, int source) {
+        if (createdAt == null || id == null) {
+            return null;
+        }
+        return new KeysetCursor(createdAt, id, source).encode();
+    }
+
+    /**
+     * 解析客户端回传的游标
+     *
+     * @param value 游标字符串
+     * @return 游标，为空时返回null表示第一页
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static KeysetCursor decode(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(value.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new KeysetCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]),
+                    Integer.parseInt(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
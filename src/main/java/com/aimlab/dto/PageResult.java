@@ -4,21 +4,24 @@ import java.util.List;
 
 /**
  * 通用分页结果
+ * 键集分页时通过 nextCursor 获取下一页；未要求精确总数时 total 为null
  */
 public class PageResult<T> {
-    private long total;
+    private Long total;
     private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
 
-    public PageResult(long total, List<T> items) {
+    public PageResult(Long total, List<T> items) {
         this.total = total;
         this.items = items;
     }
 
-    public long getTotal() {
+    public Long getTotal() {
         return total;
     }
 
-    public void setTotal(long total) {
+    public void setTotal(Long total) {
         this.total = total;
     }
 
@@ -29,4 +32,20 @@ public class PageResult<T> {
     public void setItems(List<T> items) {
         this.items = items;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
 }
@@ -0,0 +1,38 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 比赛排名增量数据传输对象
+ * 仅包含名次、总分或射击次数发生变化的运动员
+ */
+@Data
+public class RankingDeltaDTO {
+
+    /**
+     * 比赛ID
+     */
+    private Long competitionId;
+
+    /**
+     * 排行榜纪元，排行榜重建（如服务重启）后会变化
+     */
+    private Long epoch;
+
+    /**
+     * 序列号，同一纪元内每次变更递增1
+     */
+    private Long sequence;
+
+    /**
+     * 排行榜总人数
+     */
+    private Integer totalAthletes;
+
+    /**
+     * 发生变化的排名项，按名次升序
+     */
+    private List<RankingItemDTO> changes;
+}
@@ -0,0 +1,32 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 比赛排名全量快照数据传输对象
+ */
+@Data
+public class RankingSnapshotDTO {
+
+    /**
+     * 比赛ID
+     */
+    private Long competitionId;
+
+    /**
+     * 排行榜纪元，0表示未启用实时排行榜（由数据库计算）
+     */
+    private Long epoch;
+
+    /**
+     * 快照对应的序列号，客户端据此衔接后续增量
+     */
+    private Long sequence;
+
+    /**
+     * 完整排名列表
+     */
+    private List<RankingItemDTO> rankings;
+}
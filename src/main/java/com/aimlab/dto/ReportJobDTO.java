@@ -0,0 +1,52 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 报告生成任务数据传输对象
+ */
+@Data
+public class ReportJobDTO {
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 报告类型：TRAINING, COMPETITION
+     */
+    private String reportType;
+
+    /**
+     * 训练场次ID或比赛ID
+     */
+    private Long targetId;
+
+    /**
+     * 任务状态：PENDING, RUNNING, COMPLETED, FAILED
+     */
+    private String status;
+
+    /**
+     * 报告文件名
+     */
+    private String fileName;
+
+    /**
+     * 失败原因
+     */
+    private String errorMessage;
+
+    /**
+     * 提交时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,27 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+import java.math.BigDecimal;
+
+/**
+ * 训练场次成绩汇总数据传输对象
+ * 用于一次查询得到运动员全部训练场次的射击次数和平均环数
+ */
+@Data
+public class SessionScoreSummaryDTO {
+
+    /**
+     * 训练场次ID
+     */
+    private Long sessionId;
+
+    /**
+     * 射击次数
+     */
+    private Integer shotCount;
+
+    /**
+     * 平均环数
+     */
+    private BigDecimal averageScore;
+}
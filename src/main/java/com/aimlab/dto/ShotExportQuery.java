@@ -0,0 +1,44 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 原始射击记录导出条件
+ * 记录按 (射击时间, ID) 顺序导出；续传时传入最后收到记录的射击时间和ID，从其后一条开始导出
+ */
+@Data
+public class ShotExportQuery {
+
+    /**
+     * 开始时间（含）
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间（不含）
+     */
+    private LocalDateTime endTime;
+
+    /**
+     * 运动员ID，为空时导出全部运动员
+     */
+    private List<Long> athleteIds;
+
+    /**
+     * 训练项目，为空时不限制；指定后只导出该项目的训练记录
+     */
+    private String projectType;
+
+    /**
+     * 续传位置：最后收到记录的射击时间
+     */
+    private LocalDateTime afterShotAt;
+
+    /**
+     * 续传位置：最后收到记录的ID
+     */
+    private Long afterId;
+}
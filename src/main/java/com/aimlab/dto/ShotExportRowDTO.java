@@ -0,0 +1,73 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 原始射击记录导出行数据传输对象
+ */
+@Data
+public class ShotExportRowDTO {
+
+    /**
+     * 记录ID
+     */
+    private Long id;
+
+    /**
+     * 记录类型：TRAINING, COMPETITION
+     */
+    private String recordType;
+
+    /**
+     * 运动员ID
+     */
+    private Long athleteId;
+
+    /**
+     * 比赛ID
+     */
+    private Integer competitionId;
+
+    /**
+     * 训练场次ID
+     */
+    private Long trainingSessionId;
+
+    /**
+     * 训练项目，比赛记录为空
+     */
+    private String projectType;
+
+    /**
+     * 第几轮
+     */
+    private Integer roundNumber;
+
+    /**
+     * 第几发
+     */
+    private Integer shotNumber;
+
+    /**
+     * X轴坐标
+     */
+    private BigDecimal x;
+
+    /**
+     * Y轴坐标
+     */
+    private BigDecimal y;
+
+    /**
+     * 环数
+     */
+    private BigDecimal score;
+
+    /**
+     * 射击时间
+     */
+    private LocalDateTime shotAt;
+}
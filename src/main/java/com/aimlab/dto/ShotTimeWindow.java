@@ -0,0 +1,27 @@
+package com.aimlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 射击时间窗口 [from, to)
+ * 附加在按射击时间范围查询射击记录的条件中
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShotTimeWindow {
+
+    /**
+     * 开始时间（含）
+     */
+    private LocalDateTime from;
+
+    /**
+     * 结束时间（不含）
+     */
+    private LocalDateTime to;
+}
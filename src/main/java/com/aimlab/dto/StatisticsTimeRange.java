@@ -0,0 +1,108 @@
+package com.aimlab.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * 统计报表时间范围
+ * 年、季度、月和自定义范围统一转换为左闭右开区间 [start, end)，
+ * 查询条件直接比较时间列，不对列套用 YEAR()/MONTH() 等函数，可以使用索引并按时间裁剪分表
+ */
+public class StatisticsTimeRange {
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+    /**
+     * 统计周期：MONTHLY, QUARTERLY, YEARLY, CUSTOM
+     */
+    private final String period;
+
+    /**
+     * 报表中显示的时间范围
+     */
+    private final String label;
+
+    /**
+     * 开始时间（含）
+     */
+    private final LocalDateTime start;
+
+    /**
+     * 结束时间（不含）
+     */
+    private final LocalDateTime end;
+
+    private StatisticsTimeRange(String period, String label, LocalDateTime start, LocalDateTime end) {
+        this.period = period;
+        this.label = label;
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * @param year 年份
+     * @param month 月份（1-12）
+     * @return 该月的时间范围
+     */
+    public static StatisticsTimeRange ofMonth(int year, int month) {
+        LocalDateTime start = LocalDate.of(year, month, 1).atStartOfDay();
+        return new StatisticsTimeRange("MONTHLY", String.format("%d-%02d", year, month), start, start.plusMonths(1));
+    }
+
+    /**
+     * @param year 年份
+     * @param quarter 季度（1-4）
+     * @return 该季度的时间范围
+     */
+    public static StatisticsTimeRange ofQuarter(int year, int quarter) {
+        LocalDateTime start = LocalDate.of(year, (quarter - 1) * 3 + 1, 1).atStartOfDay();
+        return new StatisticsTimeRange("QUARTERLY", year + " Q" + quarter, start, start.plusMonths(3));
+    }
+
+    /**
+     * @param year 年份
+     * @return 该年的时间范围
+     */
+    public static StatisticsTimeRange ofYear(int year) {
+        LocalDateTime start = LocalDate.of(year, 1, 1).atStartOfDay();
+        return new StatisticsTimeRange("YEARLY", String.valueOf(year), start, start.plusYears(1));
+    }
+
+    /**
+     * 自定义范围，结束时间包含在内。射击时间精确到毫秒，右边界取结束时间的下一毫秒
+     *
+     * @param startDate 开始时间（含）
+     * @param endDate 结束时间（含）
+     * @return 时间范围
+     */
+    public static StatisticsTimeRange ofCustom(LocalDateTime startDate, LocalDateTime endDate) {
+        String label = startDate.format(DAY_FORMAT) + " ~ " + endDate.format(DAY_FORMAT);
+        return new StatisticsTimeRange("CUSTOM", label, startDate,
+                endDate.truncatedTo(ChronoUnit.MILLIS).plus(1, ChronoUnit.MILLIS));
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+
+    /**
+     * @return 读取每日汇总时的范围，与 [start, end) 一致
+     */
+    public DailyStatsRange getDaily() {
+        return DailyStatsRange.of(start, end);
+    }
+}
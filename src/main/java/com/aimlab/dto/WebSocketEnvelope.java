@@ -0,0 +1,26 @@
+package com.aimlab.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * WebSocket广播消息信封
+ *
+ * @param <T> 消息数据类型
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WebSocketEnvelope<T> {
+
+    /**
+     * 消息类型，如 SHOOTING_RECORD、RANKING_DELTA、RANKING_SNAPSHOT、COMPETITION_STATUS
+     */
+    private String type;
+
+    /**
+     * 消息数据
+     */
+    private T data;
+}
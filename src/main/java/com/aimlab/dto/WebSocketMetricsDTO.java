@@ -0,0 +1,62 @@
+package com.aimlab.dto;
+
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * 本节点WebSocket连接指标数据传输对象
+ */
+@Data
+public class WebSocketMetricsDTO {
+
+    /**
+     * 节点标识
+     */
+    private String nodeId;
+
+    /**
+     * 消息代理模式：simple / relay
+     */
+    private String brokerMode;
+
+    /**
+     * 当前STOMP会话数
+     */
+    private Integer activeSessions;
+
+    /**
+     * 启动以来建立的会话总数
+     */
+    private Long totalConnections;
+
+    /**
+     * 启动以来断开的会话总数
+     */
+    private Long totalDisconnections;
+
+    /**
+     * 各比赛频道在本节点的订阅数，key为比赛ID
+     */
+    private Map<Long, Integer> competitionSubscribers;
+
+    /**
+     * 原生比赛WebSocket端点（/ws/competition/{id}）的当前会话数
+     */
+    private Integer rawSessions;
+
+    /**
+     * 原生端点因合并或断开而丢弃的消息数
+     */
+    private Long rawDroppedFrames;
+
+    /**
+     * 原生端点因接收过慢或发送失败而断开的会话数
+     */
+    private Long rawEvictedSessions;
+
+    /**
+     * Spring 消息代理统计（会话、STOMP帧、中继连接、线程池）
+     */
+    private String brokerStats;
+}
@@ -0,0 +1,74 @@
+package com.aimlab.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 运动员每日射击统计汇总
+ * 按（运动员, 日期, 训练项目, 记录类型, 场次）累加射击次数、环数和、环数平方和及最值，
+ * 任意时间段的均值和标准差都可由这些可加的量求出，场次数为不同场次的行数
+ */
+@Data
+public class AthleteDailyStats {
+    /**
+     * 运动员ID
+     */
+    private Long athleteId;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+
+    /**
+     * 训练项目，比赛记录和未设置项目的训练为空字符串
+     */
+    private String projectType;
+
+    /**
+     * 记录类型：TRAINING(训练), COMPETITION(比赛)
+     */
+    private String recordType;
+
+    /**
+     * 场次：训练记录为训练场次ID，比赛记录为比赛ID，未关联场次为0
+     */
+    private long sessionId;
+
+    /**
+     * 射击次数
+     */
+    private long shotCount;
+
+    /**
+     * 环数之和
+     */
+    private BigDecimal scoreSum;
+
+    /**
+     * 环数平方和
+     */
+    private BigDecimal scoreSqSum;
+
+    /**
+     * 最低环数
+     */
+    private BigDecimal minScore;
+
+    /**
+     * 最高环数
+     */
+    private BigDecimal maxScore;
+
+    /**
+     * 10环次数（环数恰好为10）
+     */
+    private long perfectCount;
+
+    /**
+     * 9环及以上次数
+     */
+    private long highScoreCount;
+}
@@ -0,0 +1,47 @@
+package com.aimlab.entity;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 广播消息实体类
+ * 面向全体用户或某一角色的公告只存一行，用户的阅读、删除状态记录在 broadcast_receipts
+ */
+@Data
+public class BroadcastMessage {
+    /**
+     * 广播消息ID
+     */
+    private Long id;
+
+    /**
+     * 发送者ID，NULL表示系统消息
+     */
+    private Long senderId;
+
+    /**
+     * 接收角色，NULL表示全体用户
+     */
+    private String targetRole;
+
+    /**
+     * 消息标题
+     */
+    private String title;
+
+    /**
+     * 消息内容
+     */
+    private String content;
+
+    /**
+     * 消息类型：SYSTEM-系统通知, APPROVAL-审核通知, MANUAL-手动发送
+     */
+    private String type;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
@@ -4,6 +4,7 @@ import lombok.Data;
 import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.HashMap;
 import java.time.temporal.ChronoUnit;
 
@@ -52,10 +53,16 @@ public class CompetitionStatus {
      */
     private long totalPauseDurationSeconds = 0;
     
+    /**
+     * 每位运动员本场比赛的射击次数上限（总轮数 × 每轮射击次数），0表示未启用射击校验
+     */
+    private int shotQuota = 0;
+    
     /**
      * 运动员射击次数统计，key为运动员ID，value为射击次数
+     * key集合即为本场比赛的报名运动员集合
      */
-    private Map<Long, Integer> athleteShotCounts = new ConcurrentHashMap<>();
+    private Map<Long, AtomicInteger> athleteShotCounts = new ConcurrentHashMap<>();
     
     /**
      * 无参构造函数
@@ -78,15 +85,69 @@ public class CompetitionStatus {
     }
     
     /**
-     * 记录射击，并返回当前射击次数
+     * 初始化射击校验：登记报名运动员及其已有射击次数
+     * 
+     * @param shotQuota 每位运动员的射击次数上限
+     * @param initialShotCounts 报名运动员ID及其已有射击次数
+     */
+    public void initShotGuard(int shotQuota, Map<Long, Integer> initialShotCounts) {
+        Map<Long, AtomicInteger> counts = new ConcurrentHashMap<>();
+        initialShotCounts.forEach((athleteId, count) -> counts.put(athleteId, new AtomicInteger(count)));
+        this.athleteShotCounts = counts;
+        this.shotQuota = shotQuota;
+    }
+    
+    /**
+     * 射击校验是否已初始化
+     * 
+     * @return 是否已初始化
+     */
+    public boolean isShotGuardReady() {
+        return shotQuota > 0;
+    }
+    
+    /**
+     * 运动员是否已报名本场比赛
      * 
      * @param athleteId 运动员ID
-     * @return 当前射击次数
+     * @return 是否已报名
      */
-    public int recordShot(Long athleteId) {
-        int currentCount = athleteShotCounts.getOrDefault(athleteId, 0) + 1;
-        athleteShotCounts.put(athleteId, currentCount);
-        return currentCount;
+    public boolean isEnrolled(Long athleteId) {
+        return athleteId != null && athleteShotCounts.containsKey(athleteId);
+    }
+    
+    /**
+     * 尝试为运动员占用一次射击名额，并发射击时也不会超过上限
+     * 
+     * @param athleteId 运动员ID
+     * @return 未报名或已达上限时返回false
+     */
+    public boolean recordShot(Long athleteId) {
+        AtomicInteger counter = athleteId != null ? athleteShotCounts.get(athleteId) : null;
+        if (counter == null) {
+            return false;
+        }
+        while (true) {
+            int current = counter.get();
+            if (current >= shotQuota) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+    
+    /**
+     * 撤销一次射击名额，用于射击记录写入失败时
+     * 
+     * @param athleteId 运动员ID
+     */
+    public void revokeShot(Long athleteId) {
+        AtomicInteger counter = athleteShotCounts.get(athleteId);
+        if (counter != null) {
+            counter.updateAndGet(current -> Math.max(current - 1, 0));
+        }
     }
     
     /**
@@ -96,7 +157,8 @@ public class CompetitionStatus {
      * @return 射击次数
      */
     public int getAthleteShotCount(Long athleteId) {
-        return athleteShotCounts.getOrDefault(athleteId, 0);
+        AtomicInteger counter = athleteShotCounts.get(athleteId);
+        return counter != null ? counter.get() : 0;
     }
     
     /**
@@ -105,19 +167,20 @@ public class CompetitionStatus {
      * @return 所有运动员射击次数
      */
     public Map<Long, Integer> getAllAthleteShotCounts() {
-        return new HashMap<>(athleteShotCounts);
+        Map<Long, Integer> counts = new HashMap<>();
+        athleteShotCounts.forEach((athleteId, counter) -> counts.put(athleteId, counter.get()));
+        return counts;
     }
     
     /**
      * 开始新一轮
+     * 射击次数按整场比赛累计，用于上限校验，换轮时不重置
      * 
      * @param roundNumber 轮次编号
      */
     public void startNewRound(int roundNumber) {
         this.currentRound = roundNumber;
         this.startTime = LocalDateTime.now();
-        // 重置所有运动员的射击计数
-        this.athleteShotCounts.clear();
     }
     
     /**
@@ -129,8 +192,6 @@ public class CompetitionStatus {
         } else {
             this.currentRound = 2;
         }
-        // 新一轮开始前清空射击计数
-        this.athleteShotCounts.clear();
     }
     
     /**
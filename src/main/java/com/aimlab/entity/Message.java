@@ -63,4 +63,9 @@ public class Message {
      * 接收者用户名
      */
     private transient String receiverName;
+
+    /**
+     * 是否为广播消息，广播消息的ID为广播消息ID，阅读和删除使用广播消息接口
+     */
+    private transient Boolean broadcast;
 }
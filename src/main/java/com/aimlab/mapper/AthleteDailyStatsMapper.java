@@ -0,0 +1,47 @@
+package com.aimlab.mapper;
+
+import com.aimlab.entity.AthleteDailyStats;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 运动员每日射击统计汇总Mapper
+ */
+@Mapper
+public interface AthleteDailyStatsMapper {
+
+    /**
+     * 将增量累加到对应的每日汇总行，不存在时插入
+     *
+     * @param delta 增量统计
+     */
+    int upsert(@Param("delta") AthleteDailyStats delta);
+
+    /**
+     * 删除日期范围内的汇总（含首尾日期）
+     */
+    int deleteByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 由射击记录重新生成日期范围内的汇总（含首尾日期）
+     */
+    int rebuildByDateRange(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * 汇总运动员生涯全部射击的次数、环数和、平方和与最值
+     */
+    AthleteDailyStats sumByAthleteId(@Param("athleteId") Long athleteId);
+
+    /**
+     * 汇总行数
+     */
+    long countAll();
+
+    /**
+     * 最早的射击时间，用于确定历史回填范围
+     */
+    LocalDateTime findEarliestShotAt();
+}
@@ -1,8 +1,11 @@
 package com.aimlab.mapper;
 
+import com.aimlab.dto.AthleteExportDTO;
+import com.aimlab.dto.KeysetCursor;
 import com.aimlab.entity.Athlete;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.util.List;
 
@@ -59,6 +62,13 @@ public interface AthleteMapper {
      */
     List<Athlete> findAll();
 
+    /**
+     * 流式读取运动员导出数据，逐行交给处理器，不在内存中缓存结果集
+     *
+     * @param handler 行处理器
+     */
+    void streamForExport(ResultHandler<AthleteExportDTO> handler);
+
     /**
      * 统计运动员总数
      *
@@ -67,13 +77,28 @@ public interface AthleteMapper {
     long countAll();
 
     /**
-     * 按审批状态查询运动员
+     * 按 (created_at, id) 倒序键集分页查询运动员
+     *
+     * @param status 审批状态，为空时不限
+     * @param cursor 上一页最后一行，为null时从第一行开始
+     * @param limit  查询数量
+     * @return 运动员列表
+     */
+    List<Athlete> findPage(@Param("status") String status,
+                           @Param("cursor") KeysetCursor cursor,
+                           @Param("limit") int limit);
+
+    /**
+     * 按审批状态查询运动员，按 (created_at, id) 正序，先提交的排在前面
      *
      * @param status 审批状态
+     * @param cursor 上一页最后一行，为null时从第一行开始
      * @param limit  返回数量限制，可为空
      * @return 运动员列表
      */
-    List<Athlete> findByApprovalStatus(@Param("status") String status, @Param("limit") Integer limit);
+    List<Athlete> findByApprovalStatus(@Param("status") String status,
+                                       @Param("cursor") KeysetCursor cursor,
+                                       @Param("limit") Integer limit);
 
     /**
      * 统计指定审批状态的运动员数量
@@ -0,0 +1,65 @@
+package com.aimlab.mapper;
+
+import com.aimlab.dto.KeysetCursor;
+import com.aimlab.entity.BroadcastMessage;
+import com.aimlab.entity.Message;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 广播消息Mapper接口
+ */
+@Mapper
+public interface BroadcastMessageMapper {
+
+    /**
+     * 插入广播消息
+     */
+    int insert(BroadcastMessage message);
+
+    /**
+     * 按用户视角查询广播消息，用户不可见或已删除时返回null
+     * @param id 广播消息ID
+     * @param userId 用户ID
+     * @param role 用户角色
+     */
+    Message findForUser(@Param("id") Long id, @Param("userId") Long userId, @Param("role") String role);
+
+    /**
+     * 按 (created_at, id) 倒序键集分页查询用户可见的广播消息
+     * @param userId 用户ID
+     * @param role 用户角色
+     * @param type 消息类型（可选）
+     * @param isRead 是否已读（可选）
+     * @param cursor 收件箱上一页最后一行，为null时从第一行开始
+     * @param limit 查询数量
+     */
+    List<Message> findPageForUser(@Param("userId") Long userId,
+                                  @Param("role") String role,
+                                  @Param("type") String type,
+                                  @Param("isRead") Boolean isRead,
+                                  @Param("cursor") KeysetCursor cursor,
+                                  @Param("limit") int limit);
+
+    /**
+     * 统计用户未读的广播消息数量
+     */
+    int countUnread(@Param("userId") Long userId, @Param("role") String role);
+
+    /**
+     * 标记广播消息为已读
+     */
+    int markAsRead(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * 将用户可见的未读广播消息全部标记为已读
+     */
+    int markAllAsRead(@Param("userId") Long userId, @Param("role") String role);
+
+    /**
+     * 用户删除广播消息，只记录删除标记
+     */
+    int markDeleted(@Param("id") Long id, @Param("userId") Long userId);
+}
@@ -1,5 +1,6 @@
 package com.aimlab.mapper;
 
+import com.aimlab.dto.AthleteCompetitionHistoryDTO;
 import com.aimlab.entity.CompetitionAthlete;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -53,6 +54,14 @@ public interface CompetitionAthleteMapper {
      */
     List<CompetitionAthlete> findByAthleteId(@Param("athleteId") Long athleteId);
     
+    /**
+     * 查询运动员参赛历史，关联比赛信息和最终成绩
+     * 
+     * @param athleteId 运动员ID
+     * @return 参赛历史列表
+     */
+    List<AthleteCompetitionHistoryDTO> findCompetitionHistoryByAthleteId(@Param("athleteId") Long athleteId);
+    
     /**
      * 更新比赛运动员关联状态
      * 
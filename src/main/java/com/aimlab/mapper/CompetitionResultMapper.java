@@ -3,7 +3,9 @@ package com.aimlab.mapper;
 import com.aimlab.entity.CompetitionResult;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -35,6 +37,23 @@ public interface CompetitionResultMapper {
      * @return 比赛结果列表
      */
     List<CompetitionResult> findByCompetitionId(@Param("competitionId") Integer competitionId);
+
+    /**
+     * 查询比赛结果最近一次生成的时间
+     *
+     * @param competitionId 比赛ID
+     * @return 生成时间，没有比赛结果时返回null
+     */
+    LocalDateTime findLastCreatedAtByCompetitionId(@Param("competitionId") Integer competitionId);
+
+    /**
+     * 按名次流式读取比赛结果，逐行交给处理器，不在内存中缓存结果集
+     *
+     * @param competitionId 比赛ID
+     * @param handler 行处理器
+     */
+    void streamByCompetitionId(@Param("competitionId") Integer competitionId,
+                               ResultHandler<CompetitionResult> handler);
     
     /**
      * 根据比赛ID和运动员ID查询比赛结果
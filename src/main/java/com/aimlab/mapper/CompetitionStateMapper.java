@@ -0,0 +1,29 @@
+package com.aimlab.mapper;
+
+import com.aimlab.entity.CompetitionStatus;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 比赛运行时状态快照Mapper
+ */
+@Mapper
+public interface CompetitionStateMapper {
+
+    /**
+     * 插入或覆盖比赛状态快照
+     */
+    int upsert(CompetitionStatus status);
+
+    /**
+     * 获取所有比赛状态快照
+     */
+    List<CompetitionStatus> findAll();
+
+    /**
+     * 删除比赛状态快照
+     */
+    int deleteByCompetitionId(@Param("competitionId") Long competitionId);
+}
@@ -0,0 +1,48 @@
+package com.aimlab.mapper;
+
+import com.aimlab.dto.DashboardCountsDTO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管理员仪表盘统计Mapper
+ */
+@Mapper
+public interface DashboardMapper {
+
+    /**
+     * 用户、运动员、训练场次、比赛的各项计数
+     *
+     * @param reportsSince 统计训练报告的起始时间
+     */
+    DashboardCountsDTO countEntities(@Param("reportsSince") LocalDateTime reportsSince);
+
+    /**
+     * 按级别统计运动员数量，返回 level, count
+     */
+    List<Map<String, Object>> countAthletesByLevel();
+
+    /**
+     * 全部射击记录的平均环数，由每日汇总计算
+     */
+    BigDecimal getAverageScore();
+
+    /**
+     * 按训练场次数和平均环数排序的运动员训练排行，由每日汇总计算
+     *
+     * @param limit 返回条数
+     */
+    List<Map<String, Object>> getAthleteTrainingRanking(@Param("limit") int limit);
+
+    /**
+     * 指定时间之后射击记录的环数分布，返回 scoreRange, count
+     *
+     * @param since 起始时间
+     */
+    List<Map<String, Object>> getScoreDistributionSince(@Param("since") LocalDateTime since);
+}
@@ -1,5 +1,6 @@
 package com.aimlab.mapper;
 
+import com.aimlab.dto.KeysetCursor;
 import com.aimlab.entity.Message;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -16,6 +17,11 @@ public interface MessageMapper {
      * 插入消息
      */
     int insert(Message message);
+
+    /**
+     * 批量插入消息，一条语句插入多行
+     */
+    int batchInsert(List<Message> messages);
     
     /**
      * 根据ID查询消息
@@ -23,23 +29,41 @@ public interface MessageMapper {
     Message findById(@Param("id") Long id);
     
     /**
-     * 查询用户的消息列表
+     * 按 (created_at, id) 倒序键集分页查询用户的个人消息，不含广播消息
      * @param receiverId 接收者ID
      * @param type 消息类型（可选）
      * @param isRead 是否已读（可选）
-     * @param offset 偏移量
-     * @param limit 每页数量
+     * @param cursor 上一页最后一行，为null时从第一行开始
+     * @param limit 查询数量
      */
     List<Message> findByReceiverId(@Param("receiverId") Long receiverId,
                                     @Param("type") String type,
                                     @Param("isRead") Boolean isRead,
-                                    @Param("offset") int offset,
+                                    @Param("cursor") KeysetCursor cursor,
                                     @Param("limit") int limit);
     
     /**
-     * 统计用户的消息数量
+     * 按页码查询用户的个人消息与可见的广播消息，在数据库中合并排序后取一页
+     * 创建时间相同时个人消息排在广播消息之前，与键集分页的顺序一致
+     * @param receiverId 接收者ID
+     * @param role 接收者角色
+     * @param type 消息类型（可选）
+     * @param isRead 是否已读（可选）
+     * @param offset 跳过的行数
+     * @param limit 查询数量
+     */
+    List<Message> findInboxPage(@Param("receiverId") Long receiverId,
+                                @Param("role") String role,
+                                @Param("type") String type,
+                                @Param("isRead") Boolean isRead,
+                                @Param("offset") int offset,
+                                @Param("limit") int limit);
+    
+    /**
+     * 统计用户的消息数量，包含用户可见的广播消息
      */
     int countByReceiverId(@Param("receiverId") Long receiverId,
+                          @Param("role") String role,
                           @Param("type") String type,
                           @Param("isRead") Boolean isRead);
     
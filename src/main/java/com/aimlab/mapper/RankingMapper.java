@@ -1,5 +1,6 @@
 package com.aimlab.mapper;
 
+import com.aimlab.dto.AthleteMonthlyResultDTO;
 import com.aimlab.dto.RankingDTO;
 import org.apache.ibatis.annotations.Param;
 import java.time.LocalDateTime;
@@ -11,28 +12,10 @@ import java.util.List;
 public interface RankingMapper {
     
     /**
-     * 获取全站排行榜（基于所有比赛成绩）
-     * @param limit 返回条数
-     * @return 排行榜列表
-     */
-    List<RankingDTO> getOverallRanking(@Param("limit") Integer limit);
-    
-    /**
-     * 获取分类排行榜（按运动员等级分类）
-     * @param level 运动员等级
-     * @param limit 返回条数
-     * @return 排行榜列表
-     */
-    List<RankingDTO> getRankingByLevel(@Param("level") String level, @Param("limit") Integer limit);
-    
-    /**
-     * 获取月度排行榜
-     * @param year 年份
-     * @param month 月份
-     * @param limit 返回条数
-     * @return 排行榜列表
+     * 按月汇总已审核运动员的比赛成绩，作为排行榜快照的数据源
+     * @return 每个运动员每月一行，没有比赛成绩的运动员只有一行且年月为空
      */
-    List<RankingDTO> getMonthlyRanking(@Param("year") Integer year, @Param("month") Integer month, @Param("limit") Integer limit);
+    List<AthleteMonthlyResultDTO> findMonthlyResultSummaries();
     
     /**
      * 获取特定比赛的排行榜
@@ -49,20 +32,4 @@ public interface RankingMapper {
      * @return 排行榜列表
      */
     List<RankingDTO> getRankingByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("limit") Integer limit);
-    
-    /**
-     * 获取运动员的排名信息
-     * @param athleteId 运动员ID
-     * @return 排名信息
-     */
-    RankingDTO getAthleteRanking(@Param("athleteId") Long athleteId);
-    
-    /**
-     * 获取运动员的月度排名
-     * @param athleteId 运动员ID
-     * @param year 年份
-     * @param month 月份
-     * @return 排名信息
-     */
-    RankingDTO getAthleteMonthlyRanking(@Param("athleteId") Long athleteId, @Param("year") Integer year, @Param("month") Integer month);
 }
@@ -1,9 +1,14 @@
 package com.aimlab.mapper;
 
 import com.aimlab.dto.RankingItemDTO;
+import com.aimlab.dto.SessionScoreSummaryDTO;
+import com.aimlab.dto.ShotExportQuery;
+import com.aimlab.dto.ShotExportRowDTO;
+import com.aimlab.dto.ShotTimeWindow;
 import com.aimlab.entity.ShootingRecord;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -22,6 +27,22 @@ public interface ShootingRecordMapper {
      */
     int insert(ShootingRecord record);
     
+    /**
+     * 批量插入射击记录（单条多行INSERT语句）
+     * 
+     * @param records 射击记录列表
+     * @return 影响的行数
+     */
+    int batchInsert(List<ShootingRecord> records);
+    
+    /**
+     * 批量更新射击记录成绩
+     * 
+     * @param records 射击记录列表（需包含ID和新成绩）
+     * @return 影响的行数
+     */
+    int batchUpdateScore(@Param("records") List<ShootingRecord> records);
+    
     /**
      * 根据ID查询射击记录
      * 
@@ -54,6 +75,22 @@ public interface ShootingRecordMapper {
      * @return 射击记录列表
      */
     List<ShootingRecord> findByTrainingSessionId(@Param("trainingSessionId") Long trainingSessionId);
+
+    /**
+     * 查询训练场次最后一发射击的时间
+     *
+     * @param trainingSessionId 训练场次ID
+     * @return 最后射击时间，没有射击记录时返回null
+     */
+    LocalDateTime findLastShotAtByTrainingSessionId(@Param("trainingSessionId") Long trainingSessionId);
+    
+    /**
+     * 按训练场次汇总运动员的射击次数和平均环数
+     * 
+     * @param athleteId 运动员ID
+     * @return 各训练场次的成绩汇总，没有射击记录的场次不返回
+     */
+    List<SessionScoreSummaryDTO> summarizeTrainingSessionsByAthleteId(@Param("athleteId") Long athleteId);
     
     /**
      * 根据比赛ID和运动员ID查询射击记录
@@ -112,23 +149,13 @@ public interface ShootingRecordMapper {
             @Param("athleteId") Long athleteId);
     
     /**
-     * 获取所有射击记录的平均成绩
-     * 
-     * @return 平均成绩
-     */
-    java.math.BigDecimal getAverageScore();
-    
-    /**
-     * 按运动员统计训练次数和平均成绩
-     * 
-     * @return 运动员训练统计列表
-     */
-    List<java.util.Map<String, Object>> getAthleteTrainingStats();
-    
-    /**
-     * 获取成绩分布统计（按分数段）
-     * 
-     * @return 成绩分布列表
+     * 按 (射击时间, ID) 顺序流式读取一个时间窗口内的射击记录，逐行交给处理器
+     *
+     * @param query 导出条件
+     * @param window 时间窗口，不超过一个月，只路由到一张月份分表
+     * @param handler 行处理器
      */
-    List<java.util.Map<String, Object>> getScoreDistribution();
-} 
\ No newline at end of file
+    void streamForExport(@Param("query") ShotExportQuery query,
+                         @Param("window") ShotTimeWindow window,
+                         ResultHandler<ShotExportRowDTO> handler);
+}
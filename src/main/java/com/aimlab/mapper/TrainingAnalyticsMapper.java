@@ -1,12 +1,12 @@
 package com.aimlab.mapper;
 
+import com.aimlab.dto.DailyStatsRange;
 import com.aimlab.dto.TrainingAthleteStatsDTO;
 import com.aimlab.dto.TrainingProjectStatsDTO;
 import com.aimlab.dto.TrainingTimeStatsDTO;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -16,17 +16,14 @@ import java.util.List;
 public interface TrainingAnalyticsMapper {
 
     List<TrainingTimeStatsDTO> aggregateByTime(@Param("granularity") String granularity,
-                                               @Param("startTime") LocalDateTime startTime,
-                                               @Param("endTime") LocalDateTime endTime,
+                                               @Param("daily") DailyStatsRange daily,
                                                @Param("athleteId") Long athleteId,
                                                @Param("projectType") String projectType);
 
-    List<TrainingAthleteStatsDTO> aggregateByAthlete(@Param("startTime") LocalDateTime startTime,
-                                                     @Param("endTime") LocalDateTime endTime,
+    List<TrainingAthleteStatsDTO> aggregateByAthlete(@Param("daily") DailyStatsRange daily,
                                                      @Param("projectType") String projectType,
                                                      @Param("keyword") String keyword);
 
-    List<TrainingProjectStatsDTO> aggregateByProject(@Param("startTime") LocalDateTime startTime,
-                                                     @Param("endTime") LocalDateTime endTime,
+    List<TrainingProjectStatsDTO> aggregateByProject(@Param("daily") DailyStatsRange daily,
                                                      @Param("athleteId") Long athleteId);
 }
@@ -1,6 +1,7 @@
 package com.aimlab.mapper;
 
 import com.aimlab.dto.AdminUserDTO;
+import com.aimlab.dto.KeysetCursor;
 import com.aimlab.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -90,6 +91,7 @@ public interface UserMapper {
      * @param username 用户名关键字
      * @param role     角色
      * @param status   状态
+     * @param cursor   上一页最后一行，按 (created_at, id) 倒序从其后继续，为null时从第一行开始
      * @param offset   分页偏移
      * @param limit    分页数量
      * @return 用户列表
@@ -97,6 +99,7 @@ public interface UserMapper {
     List<AdminUserDTO> findAdminUsers(@Param("username") String username,
                                       @Param("role") String role,
                                       @Param("status") Integer status,
+                                      @Param("cursor") KeysetCursor cursor,
                                       @Param("offset") Integer offset,
                                       @Param("limit") Integer limit);
 
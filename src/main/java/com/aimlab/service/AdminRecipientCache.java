@@ -0,0 +1,54 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.User;
+import com.aimlab.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 管理员收件人缓存
+ * 通知管理员的站内信都发给全部启用的管理员，缓存其用户ID，避免每次通知查询用户表。
+ * 新增用户、修改角色或状态、删除用户时失效，过期时间兜底
+ */
+@Component
+public class AdminRecipientCache {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    /**
+     * 缓存有效期（秒），0表示不缓存
+     */
+    @Value("${aimlab.message.admin-recipients-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private final LocalCache<String, List<Long>> recipients = new LocalCache<>(() -> ttlSeconds);
+
+    /**
+     * @return 启用状态的管理员用户ID
+     */
+    public List<Long> getAdminIds() {
+        return recipients.get("ADMIN", role -> {
+            List<Long> userIds = new ArrayList<>();
+            List<User> admins = userMapper.findByRole(role);
+            if (admins != null) {
+                for (User admin : admins) {
+                    userIds.add(admin.getId());
+                }
+            }
+            return Collections.unmodifiableList(userIds);
+        });
+    }
+
+    /**
+     * 使缓存失效
+     */
+    public void invalidate() {
+        recipients.invalidateAll();
+    }
+}
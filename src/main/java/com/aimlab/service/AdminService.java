@@ -1,30 +1,52 @@
 package com.aimlab.service;
 
+import com.aimlab.dto.DashboardCountsDTO;
+import com.aimlab.dto.KeysetCursor;
+import com.aimlab.dto.PageResult;
 import com.aimlab.entity.Athlete;
 import com.aimlab.entity.Competition;
 import com.aimlab.entity.User;
 import com.aimlab.mapper.AthleteMapper;
 import com.aimlab.mapper.CompetitionMapper;
-import com.aimlab.mapper.ShootingRecordMapper;
-import com.aimlab.mapper.TrainingSessionMapper;
+import com.aimlab.mapper.DashboardMapper;
 import com.aimlab.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
  * 管理员后台服务
+ * 仪表盘计数由少量分组统计查询得到，互不依赖的部分并行查询，组装好的快照缓存数秒，
+ * 多个管理员同时刷新仪表盘时共用同一份快照
  */
 @Service
 public class AdminService {
 
+    private static final Logger logger = LoggerFactory.getLogger(AdminService.class);
+
+    private static final int TODO_ITEMS = 5;
+
+    private static final int RANKING_SIZE = 10;
+
     @Autowired
     private UserMapper userMapper;
 
@@ -35,94 +57,204 @@ public class AdminService {
     private CompetitionMapper competitionMapper;
 
     @Autowired
-    private TrainingSessionMapper trainingSessionMapper;
-    
+    private DashboardMapper dashboardMapper;
+
     @Autowired
-    private ShootingRecordMapper shootingRecordMapper;
+    private PageTotalCache pageTotalCache;
+
+    /**
+     * 仪表盘快照缓存时间（秒），0表示不缓存
+     */
+    @Value("${aimlab.admin.dashboard.cache-seconds:5}")
+    private long cacheSeconds;
+
+    /**
+     * 仪表盘并行查询线程数
+     */
+    @Value("${aimlab.admin.dashboard.parallelism:4}")
+    private int parallelism;
+
+    /**
+     * 成绩分布统计最近多少天的射击记录
+     */
+    @Value("${aimlab.admin.dashboard.score-distribution-days:30}")
+    private int scoreDistributionDays;
+
+    /**
+     * 列表每页最大数量
+     */
+    @Value("${aimlab.pagination.max-size:100}")
+    private int maxPageSize;
+
+    private volatile DashboardSnapshot snapshot;
+
+    private final Object refreshLock = new Object();
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(parallelism, 1), r -> {
+            Thread thread = new Thread(r, "dashboard-metrics-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
 
     /**
      * 获取仪表盘概览数据
+     * 快照过期时只由一个请求重新统计，其余请求等待后直接使用新快照
      *
-     * @return 统计信息
+     * @return 统计信息，generatedAt 为快照生成时间，cacheAgeMs 为快照已缓存的毫秒数
      */
     public Map<String, Object> getDashboardMetrics() {
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
+        DashboardSnapshot current = snapshot;
+        if (!isFresh(current)) {
+            synchronized (refreshLock) {
+                current = snapshot;
+                if (!isFresh(current)) {
+                    current = new DashboardSnapshot(buildDashboardMetrics(), LocalDateTime.now(), System.currentTimeMillis());
+                    snapshot = current;
+                }
+            }
+        }
+        Map<String, Object> metrics = new HashMap<>(current.metrics);
+        metrics.put("generatedAt", current.generatedAt);
+        metrics.put("cacheAgeMs", System.currentTimeMillis() - current.createdAtMillis);
+        return metrics;
+    }
+
+    private boolean isFresh(DashboardSnapshot current) {
+        return current != null && System.currentTimeMillis() - current.createdAtMillis < cacheSeconds * 1000;
+    }
+
+    Map<String, Object> buildDashboardMetrics() {
+        LocalDateTime now = LocalDateTime.now();
+
+        CompletableFuture<DashboardCountsDTO> countsFuture =
+                supply(() -> dashboardMapper.countEntities(now.minusDays(7)));
+        CompletableFuture<BigDecimal> avgScoreFuture = supply(dashboardMapper::getAverageScore);
+        CompletableFuture<Map<String, Long>> levelFuture = supply(this::athleteLevelDistribution);
+        CompletableFuture<List<Map<String, Object>>> rankingFuture = supply(this::athleteRanking);
+        CompletableFuture<List<Map<String, Object>>> scoreDistributionFuture =
+                supply(() -> scoreDistribution(now.minusDays(scoreDistributionDays)));
+        CompletableFuture<List<Athlete>> pendingFuture =
+                supply(() -> athleteMapper.findByApprovalStatus("PENDING", null, TODO_ITEMS));
+        CompletableFuture<List<Competition>> upcomingFuture = supply(() -> competitionMapper.findUpcoming(TODO_ITEMS));
+        CompletableFuture<List<Competition>> recentFuture = supply(() -> competitionMapper.findRecent(TODO_ITEMS));
+
+        DashboardCountsDTO counts = join(countsFuture);
+        BigDecimal avgScore = join(avgScoreFuture);
 
         // 总览数据
         Map<String, Object> overview = new HashMap<>();
-        overview.put("totalUsers", userMapper.countAll());
-        overview.put("totalAthletes", athleteMapper.countAll());
-        overview.put("activeTrainings", trainingSessionMapper.countActive());
-        overview.put("totalTrainings", trainingSessionMapper.countAll());
-        overview.put("activeCompetitions",
-                competitionMapper.countByStatus("RUNNING") + competitionMapper.countByStatus("PAUSED"));
-        overview.put("totalCompetitions", competitionMapper.countAll());
-        overview.put("recentReports", trainingSessionMapper.countReportsSince(sevenDaysAgo));
-        
-        // 计算平均成绩
-        BigDecimal avgScore = shootingRecordMapper.getAverageScore();
+        overview.put("totalUsers", counts.getTotalUsers());
+        overview.put("totalAthletes", counts.getTotalAthletes());
+        overview.put("activeTrainings", counts.getActiveTrainings());
+        overview.put("totalTrainings", counts.getTotalTrainings());
+        overview.put("activeCompetitions", counts.getRunningCompetitions() + counts.getPausedCompetitions());
+        overview.put("totalCompetitions", counts.getTotalCompetitions());
+        overview.put("recentReports", counts.getRecentReports());
         overview.put("avgScore", avgScore != null ? avgScore : BigDecimal.ZERO);
 
         // 用户统计
         Map<String, Object> userStats = new HashMap<>();
-        userStats.put("totalUsers", userMapper.countAll());
-        userStats.put("activeUsers", userMapper.countByStatus(1));
-        userStats.put("disabledUsers", userMapper.countByStatus(0));
-        userStats.put("adminUsers", userMapper.countByRole("ADMIN"));
+        userStats.put("totalUsers", counts.getTotalUsers());
+        userStats.put("activeUsers", counts.getActiveUsers());
+        userStats.put("disabledUsers", counts.getDisabledUsers());
+        userStats.put("adminUsers", counts.getAdminUsers());
 
         // 待审批运动员
-        long pendingAthleteTotal = athleteMapper.countByApprovalStatus("PENDING");
-        List<Map<String, Object>> pendingAthleteItems = athleteMapper.findByApprovalStatus("PENDING", 5).stream()
-                .map(this::toAthleteSummary)
-                .collect(Collectors.toList());
         Map<String, Object> pendingAthletes = new HashMap<>();
-        pendingAthletes.put("total", pendingAthleteTotal);
-        pendingAthletes.put("items", pendingAthleteItems);
+        pendingAthletes.put("total", counts.getPendingAthletes());
+        pendingAthletes.put("items", join(pendingFuture).stream()
+                .map(this::toAthleteSummary)
+                .collect(Collectors.toList()));
 
         // 即将开始的比赛
-        long upcomingCompetitionTotal = competitionMapper.countByStatus("CREATED");
-        List<Map<String, Object>> upcomingCompetitionItems = competitionMapper.findUpcoming(5).stream()
-                .map(this::toCompetitionSummary)
-                .collect(Collectors.toList());
         Map<String, Object> upcomingCompetitions = new HashMap<>();
-        upcomingCompetitions.put("total", upcomingCompetitionTotal);
-        upcomingCompetitions.put("items", upcomingCompetitionItems);
+        upcomingCompetitions.put("total", counts.getCreatedCompetitions());
+        upcomingCompetitions.put("items", join(upcomingFuture).stream()
+                .map(this::toCompetitionSummary)
+                .collect(Collectors.toList()));
 
         Map<String, Object> todos = new HashMap<>();
         todos.put("pendingAthletes", pendingAthletes);
         todos.put("upcomingCompetitions", upcomingCompetitions);
-        
-        // 运动员级别分布
-        Map<String, Long> athleteLevelDistribution = new HashMap<>();
-        List<Athlete> allAthletes = athleteMapper.findAll();
-        for (Athlete athlete : allAthletes) {
-            String level = athlete.getLevel() != null ? athlete.getLevel() : "未知";
-            athleteLevelDistribution.merge(level, 1L, Long::sum);
+
+        // 比赛状态统计
+        Map<String, Long> competitionStatusCounts = new HashMap<>();
+        competitionStatusCounts.put("CREATED", counts.getCreatedCompetitions());
+        competitionStatusCounts.put("RUNNING", counts.getRunningCompetitions());
+        competitionStatusCounts.put("PAUSED", counts.getPausedCompetitions());
+        competitionStatusCounts.put("COMPLETED", counts.getCompletedCompetitions());
+        competitionStatusCounts.put("CANCELLED", counts.getCancelledCompetitions());
+
+        // 最近比赛
+        List<Map<String, Object>> recentCompetitions = join(recentFuture).stream()
+                .map(comp -> {
+                    Map<String, Object> item = toCompetitionSummary(comp);
+                    item.put("project", "射击");
+                    item.put("participantCount", 0);
+                    item.put("date", comp.getCreatedAt());
+                    return item;
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("overview", overview);
+        metrics.put("userStats", userStats);
+        metrics.put("todos", todos);
+        metrics.put("athleteLevelDistribution", join(levelFuture));
+        metrics.put("athleteRanking", join(rankingFuture));
+        metrics.put("recentCompetitions", recentCompetitions);
+        metrics.put("scoreDistribution", join(scoreDistributionFuture));
+        metrics.put("competitionStatusCounts", competitionStatusCounts);
+        return Collections.unmodifiableMap(metrics);
+    }
+
+    /**
+     * 运动员级别分布
+     */
+    private Map<String, Long> athleteLevelDistribution() {
+        Map<String, Long> distribution = new HashMap<>();
+        for (Map<String, Object> row : dashboardMapper.countAthletesByLevel()) {
+            Object level = row.get("level");
+            distribution.merge(level != null ? level.toString() : "未知", ((Number) row.get("count")).longValue(), Long::sum);
         }
-        
-        // 运动员排行（按训练次数和平均成绩）
+        return distribution;
+    }
+
+    /**
+     * 运动员排行（按平均成绩和训练次数），没有训练统计数据时列出已审核的运动员
+     */
+    private List<Map<String, Object>> athleteRanking() {
         List<Map<String, Object>> athleteRanking = new ArrayList<>();
         try {
-            List<Map<String, Object>> stats = shootingRecordMapper.getAthleteTrainingStats();
-            if (stats != null && !stats.isEmpty()) {
-                for (Map<String, Object> stat : stats) {
-                    Map<String, Object> ranking = new HashMap<>();
-                    ranking.put("name", stat.get("name"));
-                    ranking.put("level", stat.get("level"));
-                    ranking.put("trainingCount", stat.get("trainingCount"));
-                    Object avgScoreVal = stat.get("avgScore");
-                    ranking.put("avgScore", avgScoreVal != null ? ((Number) avgScoreVal).doubleValue() : 0.0);
-                    athleteRanking.add(ranking);
-                }
+            for (Map<String, Object> stat : dashboardMapper.getAthleteTrainingRanking(RANKING_SIZE)) {
+                Map<String, Object> ranking = new HashMap<>();
+                ranking.put("name", stat.get("name"));
+                ranking.put("level", stat.get("level"));
+                Object trainingCount = stat.get("trainingCount");
+                ranking.put("trainingCount", trainingCount != null ? ((Number) trainingCount).longValue() : 0L);
+                Object avgScoreVal = stat.get("avgScore");
+                ranking.put("avgScore", avgScoreVal != null ? ((Number) avgScoreVal).doubleValue() : 0.0);
+                athleteRanking.add(ranking);
             }
         } catch (Exception e) {
-            // 如果统计失败，使用默认空列表
-            e.printStackTrace();
+            // 如果统计失败，使用默认列表
+            logger.warn("运动员训练排行统计失败", e);
         }
-        
-        // 如果没有训练统计数据，使用运动员基本信息
         if (athleteRanking.isEmpty()) {
-            for (Athlete athlete : allAthletes.stream().limit(10).collect(Collectors.toList())) {
+            for (Athlete athlete : athleteMapper.findByApprovalStatus("APPROVED", null, RANKING_SIZE)) {
                 Map<String, Object> ranking = new HashMap<>();
                 ranking.put("name", athlete.getName());
                 ranking.put("level", athlete.getLevel());
@@ -131,45 +263,52 @@ public class AdminService {
                 athleteRanking.add(ranking);
             }
         }
-        
-        // 成绩分布统计
-        List<Map<String, Object>> scoreDistribution = new ArrayList<>();
+        return athleteRanking;
+    }
+
+    /**
+     * 成绩分布统计
+     */
+    private List<Map<String, Object>> scoreDistribution(LocalDateTime since) {
         try {
-            scoreDistribution = shootingRecordMapper.getScoreDistribution();
+            return dashboardMapper.getScoreDistributionSince(since);
         } catch (Exception e) {
-            e.printStackTrace();
+            logger.warn("成绩分布统计失败", e);
+            return new ArrayList<>();
         }
-        
-        // 比赛状态统计
-        Map<String, Long> competitionStatusCounts = new HashMap<>();
-        competitionStatusCounts.put("CREATED", competitionMapper.countByStatus("CREATED"));
-        competitionStatusCounts.put("RUNNING", competitionMapper.countByStatus("RUNNING"));
-        competitionStatusCounts.put("PAUSED", competitionMapper.countByStatus("PAUSED"));
-        competitionStatusCounts.put("COMPLETED", competitionMapper.countByStatus("COMPLETED"));
-        competitionStatusCounts.put("CANCELLED", competitionMapper.countByStatus("CANCELLED"));
-        
-        // 最近比赛
-        List<Map<String, Object>> recentCompetitions = competitionMapper.findAll().stream()
-                .limit(5)
-                .map(comp -> {
-                    Map<String, Object> item = toCompetitionSummary(comp);
-                    item.put("project", "射击");
-                    item.put("participantCount", 0);
-                    item.put("date", comp.getCreatedAt());
-                    return item;
-                })
-                .collect(Collectors.toList());
+    }
 
-        Map<String, Object> metrics = new HashMap<>();
-        metrics.put("overview", overview);
-        metrics.put("userStats", userStats);
-        metrics.put("todos", todos);
-        metrics.put("athleteLevelDistribution", athleteLevelDistribution);
-        metrics.put("athleteRanking", athleteRanking);
-        metrics.put("recentCompetitions", recentCompetitions);
-        metrics.put("scoreDistribution", scoreDistribution);
-        metrics.put("competitionStatusCounts", competitionStatusCounts);
-        return metrics;
+    private <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 组装好的仪表盘数据及其生成时间
+     */
+    private static final class DashboardSnapshot {
+
+        private final Map<String, Object> metrics;
+
+        private final LocalDateTime generatedAt;
+
+        private final long createdAtMillis;
+
+        private DashboardSnapshot(Map<String, Object> metrics, LocalDateTime generatedAt, long createdAtMillis) {
+            this.metrics = metrics;
+            this.generatedAt = generatedAt;
+            this.createdAtMillis = createdAtMillis;
+        }
     }
 
     /**
@@ -194,6 +333,41 @@ public class AdminService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 按创建时间倒序键集分页查询运动员，翻到第N页与第一页开销相同
+     *
+     * @param approvalStatus 审批状态，为空时不限
+     * @param cursor         上一页返回的 nextCursor，为空时从第一行开始
+     * @param size           每页数量
+     * @param withTotal      是否统计总数，总数会被缓存
+     * @return 分页结果
+     */
+    public PageResult<Map<String, Object>> listAthletes(String approvalStatus, String cursor, int size, boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = size <= 0 ? 20 : Math.min(size, maxPageSize);
+        List<Athlete> athletes = athleteMapper.findPage(approvalStatus, after, pageSize + 1);
+        boolean hasMore = athletes.size() > pageSize;
+        if (hasMore) {
+            athletes = athletes.subList(0, pageSize);
+        }
+        Long total = null;
+        if (withTotal) {
+            total = pageTotalCache.get(PageTotalCache.ATHLETES, String.valueOf(approvalStatus),
+                    () -> approvalStatus == null || approvalStatus.isEmpty()
+                            ? athleteMapper.countAll()
+                            : athleteMapper.countByApprovalStatus(approvalStatus));
+        }
+        PageResult<Map<String, Object>> result = new PageResult<>(total, athletes.stream()
+                .map(this::toAthleteSummary)
+                .collect(Collectors.toList()));
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            Athlete last = athletes.get(athletes.size() - 1);
+            result.setNextCursor(KeysetCursor.encode(last.getCreatedAt(), last.getId(), 0));
+        }
+        return result;
+    }
+
     private Map<String, Object> toUserSummary(User user) {
         Map<String, Object> summary = new HashMap<>();
         summary.put("id", user.getId());
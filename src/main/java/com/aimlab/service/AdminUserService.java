@@ -2,15 +2,18 @@ package com.aimlab.service;
 
 import cn.dev33.satoken.stp.StpUtil;
 import com.aimlab.dto.AdminUserDTO;
+import com.aimlab.dto.KeysetCursor;
 import com.aimlab.dto.PageResult;
 import com.aimlab.entity.User;
 import com.aimlab.mapper.UserMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -26,24 +29,58 @@ public class AdminUserService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserRoleCache userRoleCache;
+
+    @Autowired
+    private AdminRecipientCache adminRecipientCache;
+
+    @Autowired
+    private PageTotalCache pageTotalCache;
+
     /**
-     * 分页查询用户
+     * 列表每页最大数量
+     */
+    @Value("${aimlab.pagination.max-size:100}")
+    private int maxPageSize;
+
+    /**
+     * 分页查询用户，按创建时间倒序
+     * 传入游标时按 (created_at, id) 从上一页最后一行之后继续，与第一页开销相同；
+     * 不传游标时按页码跳页，兼容旧的分页方式
      *
-     * @param username 用户名关键字
-     * @param role     角色
-     * @param status   状态
-     * @param page     页码（从1开始）
-     * @param size     每页数量
+     * @param username  用户名关键字
+     * @param role      角色
+     * @param status    状态
+     * @param cursor    上一页返回的 nextCursor，为空时按页码查询
+     * @param page      页码（从1开始）
+     * @param size      每页数量
+     * @param withTotal 是否统计总数，为null时只在按页码查询时统计；总数会被缓存
      * @return 分页结果
      */
-    public PageResult<AdminUserDTO> listUsers(String username, String role, Integer status, int page, int size) {
-        int pageSize = size <= 0 ? 20 : size;
-        int pageIndex = Math.max(page, 1);
-        int offset = (pageIndex - 1) * pageSize;
-
-        List<AdminUserDTO> items = userMapper.findAdminUsers(username, role, status, offset, pageSize);
-        long total = userMapper.countAdminUsers(username, role, status);
-        return new PageResult<>(total, items);
+    public PageResult<AdminUserDTO> listUsers(String username, String role, Integer status,
+                                              String cursor, int page, int size, Boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = size <= 0 ? 20 : Math.min(size, maxPageSize);
+        int offset = after == null ? (Math.max(page, 1) - 1) * pageSize : 0;
+
+        List<AdminUserDTO> items = userMapper.findAdminUsers(username, role, status, after, offset, pageSize + 1);
+        boolean hasMore = items.size() > pageSize;
+        if (hasMore) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+        }
+        Long total = null;
+        if (withTotal != null ? withTotal : after == null) {
+            total = pageTotalCache.get(PageTotalCache.USERS, username + "|" + role + "|" + status,
+                    () -> userMapper.countAdminUsers(username, role, status));
+        }
+        PageResult<AdminUserDTO> result = new PageResult<>(total, items);
+        result.setHasMore(hasMore);
+        if (hasMore) {
+            AdminUserDTO last = items.get(items.size() - 1);
+            result.setNextCursor(KeysetCursor.encode(last.getCreatedAt(), last.getId(), 0));
+        }
+        return result;
     }
 
     /**
@@ -66,6 +103,8 @@ public class AdminUserService {
         user.setUpdatedAt(now);
         user.setLastLoginAt(null);
         userMapper.insert(user);
+        adminRecipientCache.invalidate();
+        pageTotalCache.invalidate(PageTotalCache.USERS);
         return user.getId();
     }
 
@@ -80,6 +119,9 @@ public class AdminUserService {
         if (userMapper.updateStatus(userId, status) == 0) {
             throw new RuntimeException("更新用户状态失败");
         }
+        userRoleCache.invalidate(userId);
+        adminRecipientCache.invalidate();
+        pageTotalCache.invalidate(PageTotalCache.USERS);
         if (status == 0) {
             StpUtil.logout(userId);
         }
@@ -97,6 +139,9 @@ public class AdminUserService {
         if (userMapper.updateRole(userId, normalizedRole) == 0) {
             throw new RuntimeException("更新用户角色失败");
         }
+        userRoleCache.invalidate(userId);
+        adminRecipientCache.invalidate();
+        pageTotalCache.invalidate(PageTotalCache.USERS);
     }
 
     /**
@@ -120,6 +165,9 @@ public class AdminUserService {
         if (userMapper.deleteById(userId) == 0) {
             throw new RuntimeException("删除用户失败");
         }
+        userRoleCache.invalidate(userId);
+        adminRecipientCache.invalidate();
+        pageTotalCache.invalidate(PageTotalCache.USERS);
     }
 
     /**
@@ -4,13 +4,11 @@ import com.aimlab.dto.*;
 import com.aimlab.mapper.AdvancedAnalyticsMapper;
 import com.aimlab.mapper.AthleteMapper;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDateTime;
@@ -42,6 +40,7 @@ public class AdvancedAnalyticsService {
                 request.getEndTime() : LocalDateTime.now();
         LocalDateTime startTime = request.getStartTime() != null ? 
                 request.getStartTime() : endTime.minusDays(30);
+        DailyStatsRange range = DailyStatsRange.ofInclusive(startTime, endTime);
         
         int maxCount = request.getMaxCount() != null ? request.getMaxCount() : 5;
         
@@ -50,10 +49,10 @@ public class AdvancedAnalyticsService {
         try {
             if (request.getAthleteIds() != null && !request.getAthleteIds().isEmpty()) {
                 result = analyticsMapper.getAthletesByIds(
-                        request.getAthleteIds(), startTime, endTime, request.getProjectType());
+                        request.getAthleteIds(), range, request.getProjectType());
             } else {
                 result = analyticsMapper.getAthleteCompareData(
-                        request.getLevel(), null, startTime, endTime, 
+                        request.getLevel(), null, range,
                         request.getProjectType(), maxCount);
             }
             
@@ -87,7 +86,7 @@ public class AdvancedAnalyticsService {
         
         try {
             List<TrendDataDTO> rawData = analyticsMapper.getWeeklyTrendData(
-                    athleteId, analyzeWeeks, projectType);
+                    athleteId, DailyStatsRange.of(LocalDateTime.now().minusWeeks(analyzeWeeks), null), projectType);
             
             log.info("查询到 {} 周的趋势数据", rawData.size());
             
@@ -264,15 +263,10 @@ public class AdvancedAnalyticsService {
      * 导出对比数据
      */
     public ExportFile exportCompareData(List<AthleteCompareDTO> data, String format) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("运动员对比分析");
-            
-            Row header = sheet.createRow(0);
-            String[] headers = {"运动员ID", "姓名", "级别", "平均环数", "最高环数", 
-                    "最低环数", "稳定性指数", "射击总数", "训练场次", "10环率(%)", "9环以上率(%)"};
-            for (int i = 0; i < headers.length; i++) {
-                header.createCell(i).setCellValue(headers[i]);
-            }
+        String fileName = "athlete-compare-" + System.currentTimeMillis() + ".xlsx";
+        return StreamingExports.xlsx(fileName, workbook -> {
+            Sheet sheet = StreamingExports.createSheet(workbook, "运动员对比分析", "运动员ID", "姓名", "级别", "平均环数", "最高环数",
+                    "最低环数", "稳定性指数", "射击总数", "训练场次", "10环率(%)", "9环以上率(%)");
             
             int rowIndex = 1;
             for (AthleteCompareDTO dto : data) {
@@ -289,32 +283,17 @@ public class AdvancedAnalyticsService {
                 row.createCell(9).setCellValue(toDouble(dto.getPerfectRate()));
                 row.createCell(10).setCellValue(toDouble(dto.getHighScoreRate()));
             }
-            
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            workbook.write(bos);
-            
-            String fileName = "athlete-compare-" + System.currentTimeMillis() + ".xlsx";
-            return new ExportFile(fileName, 
-                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", 
-                    bos.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("导出对比数据失败: " + e.getMessage(), e);
-        }
+        });
     }
 
     /**
      * 导出趋势数据
      */
     public ExportFile exportTrendData(TrendAnalysisResultDTO data) {
-        try (Workbook workbook = new XSSFWorkbook()) {
-            Sheet sheet = workbook.createSheet("趋势分析");
-            
-            Row header = sheet.createRow(0);
-            String[] headers = {"周期", "平均环数", "最高环数", "最低环数", 
-                    "稳定性指数", "移动平均", "射击总数", "训练场次", "是否预测"};
-            for (int i = 0; i < headers.length; i++) {
-                header.createCell(i).setCellValue(headers[i]);
-            }
+        String fileName = "trend-analysis-" + data.getAthleteId() + ".xlsx";
+        return StreamingExports.xlsx(fileName, workbook -> {
+            Sheet sheet = StreamingExports.createSheet(workbook, "趋势分析", "周期", "平均环数", "最高环数", "最低环数",
+                    "稳定性指数", "移动平均", "射击总数", "训练场次", "是否预测");
             
             int rowIndex = 1;
             for (TrendDataDTO dto : data.getTrendData()) {
@@ -323,17 +302,7 @@ public class AdvancedAnalyticsService {
             for (TrendDataDTO dto : data.getPredictions()) {
                 fillTrendRow(sheet.createRow(rowIndex++), dto);
             }
-            
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            workbook.write(bos);
-            
-            String fileName = "trend-analysis-" + data.getAthleteId() + ".xlsx";
-            return new ExportFile(fileName, 
-                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", 
-                    bos.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("导出趋势数据失败: " + e.getMessage(), e);
-        }
+        });
     }
 
     private void fillTrendRow(Row row, TrendDataDTO dto) {
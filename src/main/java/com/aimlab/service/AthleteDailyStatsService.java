@@ -0,0 +1,241 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.AthleteDailyStats;
+import com.aimlab.entity.ShootingRecord;
+import com.aimlab.mapper.AthleteDailyStatsMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 运动员每日射击统计汇总服务
+ * 射击记录写库时同步累加到 athlete_daily_stats，每个场次每天一行。
+ * 统计分析的整天部分读取汇总，查询成本与范围内的场次天数成正比，而不是与射击次数成正比
+ */
+@Service
+public class AthleteDailyStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AthleteDailyStatsService.class);
+
+    private static final BigDecimal NINE = new BigDecimal("9");
+
+    @Autowired
+    private AthleteDailyStatsMapper athleteDailyStatsMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private AthleteProfileCache athleteProfileCache;
+
+    /**
+     * 正在执行的重建（含启动回填）数量，重建期间汇总不完整
+     */
+    private final AtomicInteger rebuildsInProgress = new AtomicInteger();
+
+    /**
+     * 汇总表为空时是否在启动后由历史射击记录回填
+     */
+    @Value("${aimlab.analytics.daily-stats.backfill-on-startup:true}")
+    private boolean backfillOnStartup;
+
+    /**
+     * 累加一条射击记录
+     *
+     * @param record 已写库的射击记录
+     * @param projectType 训练项目，比赛记录传null
+     */
+    public void recordShot(ShootingRecord record, String projectType) {
+        recordShots(Collections.singletonList(record), projectType);
+    }
+
+    /**
+     * 累加一批射击记录，同一汇总行的记录先在内存中合并，每行只更新一次
+     *
+     * @param records 已写库的射击记录
+     * @param projectType 训练项目，比赛记录传null
+     */
+    public void recordShots(List<ShootingRecord> records, String projectType) {
+        for (DailyDelta delta : aggregate(records, projectType)) {
+            athleteDailyStatsMapper.upsert(delta.stats);
+        }
+    }
+
+    /**
+     * 累加一批射击记录，失败时只记录日志，用于射击记录已在事务外提交的场景，
+     * 缺失的增量可通过重建对应日期的汇总修复
+     *
+     * @param records 已写库的射击记录
+     * @param projectType 训练项目，比赛记录传null
+     */
+    public void recordShotsQuietly(List<ShootingRecord> records, String projectType) {
+        try {
+            recordShots(records, projectType);
+        } catch (Exception e) {
+            logger.error("更新每日统计汇总失败，记录数: {}，需重建对应日期的汇总: {}", records.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 由射击记录重新生成日期范围内的汇总（含首尾日期），按月分段提交
+     *
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 生成的汇总行数
+     */
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            throw new RuntimeException("日期范围无效");
+        }
+        // 重建期间由汇总得出的个人资料不完整，开始和结束时都使缓存失效
+        rebuildsInProgress.incrementAndGet();
+        athleteProfileCache.invalidateAll();
+        try {
+            int rows = 0;
+            LocalDate from = startDate;
+            while (!from.isAfter(endDate)) {
+                LocalDate monthEnd = from.withDayOfMonth(from.lengthOfMonth());
+                LocalDate to = monthEnd.isBefore(endDate) ? monthEnd : endDate;
+                LocalDate chunkStart = from;
+                Integer inserted = transactionTemplate.execute(tx -> {
+                    athleteDailyStatsMapper.deleteByDateRange(chunkStart, to);
+                    return athleteDailyStatsMapper.rebuildByDateRange(chunkStart, to);
+                });
+                rows += inserted != null ? inserted : 0;
+                from = to.plusDays(1);
+            }
+            return rows;
+        } finally {
+            rebuildsInProgress.decrementAndGet();
+            athleteProfileCache.invalidateAll();
+        }
+    }
+
+    /**
+     * 是否正在重建或回填汇总，期间由汇总得出的统计不完整，不应缓存
+     *
+     * @return 是否正在重建
+     */
+    public boolean isRebuilding() {
+        return rebuildsInProgress.get() > 0;
+    }
+
+    /**
+     * 启动后检查汇总表，为空时在后台回填全部历史射击记录
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            if (athleteDailyStatsMapper.countAll() > 0) {
+                return;
+            }
+            LocalDateTime earliest = athleteDailyStatsMapper.findEarliestShotAt();
+            if (earliest == null) {
+                return;
+            }
+            // 线程启动前即标记为重建中，避免启动期间的请求缓存不完整的资料
+            rebuildsInProgress.incrementAndGet();
+            Thread thread = new Thread(() -> {
+                try {
+                    long startedAt = System.currentTimeMillis();
+                    int rows = rebuild(earliest.toLocalDate(), LocalDate.now());
+                    logger.info("每日统计汇总回填完成，起始日期: {}，汇总行: {}，耗时: {}ms",
+                            earliest.toLocalDate(), rows, System.currentTimeMillis() - startedAt);
+                } catch (Exception e) {
+                    logger.error("每日统计汇总回填失败", e);
+                } finally {
+                    rebuildsInProgress.decrementAndGet();
+                }
+            }, "daily-stats-backfill");
+            thread.setDaemon(true);
+            thread.start();
+        } catch (Exception e) {
+            logger.error("检查每日统计汇总失败", e);
+        }
+    }
+
+    /**
+     * 将射击记录按汇总行分组合并为增量
+     *
+     * @param records 射击记录
+     * @param projectType 训练项目
+     * @return 每个汇总行一个增量，顺序与记录首次出现的顺序一致
+     */
+    static List<DailyDelta> aggregate(List<ShootingRecord> records, String projectType) {
+        String project = projectType != null ? projectType : "";
+        Map<String, DailyDelta> deltas = new LinkedHashMap<>();
+        for (ShootingRecord record : records) {
+            if (record.getScore() == null || record.getShotAt() == null) {
+                continue;
+            }
+            LocalDate statDate = record.getShotAt().toLocalDate();
+            long sessionId = sessionId(record);
+            String key = record.getAthleteId() + "|" + statDate + "|" + record.getRecordType() + "|" + sessionId;
+            DailyDelta delta = deltas.computeIfAbsent(key, k -> new DailyDelta(
+                    record.getAthleteId(), statDate, project, record.getRecordType(), sessionId));
+            delta.add(record);
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    /**
+     * 汇总行的场次，与重建汇总时 COALESCE(training_session_id, competition_id, 0) 一致
+     */
+    private static long sessionId(ShootingRecord record) {
+        if (record.getTrainingSessionId() != null) {
+            return record.getTrainingSessionId();
+        }
+        return record.getCompetitionId() != null ? record.getCompetitionId() : 0L;
+    }
+
+    /**
+     * 一个汇总行的增量
+     */
+    static class DailyDelta {
+
+        final AthleteDailyStats stats = new AthleteDailyStats();
+
+        DailyDelta(Long athleteId, LocalDate statDate, String projectType, String recordType, long sessionId) {
+            stats.setAthleteId(athleteId);
+            stats.setStatDate(statDate);
+            stats.setProjectType(projectType);
+            stats.setRecordType(recordType);
+            stats.setSessionId(sessionId);
+            stats.setScoreSum(BigDecimal.ZERO);
+            stats.setScoreSqSum(BigDecimal.ZERO);
+        }
+
+        void add(ShootingRecord record) {
+            BigDecimal score = record.getScore();
+            stats.setShotCount(stats.getShotCount() + 1);
+            stats.setScoreSum(stats.getScoreSum().add(score));
+            stats.setScoreSqSum(stats.getScoreSqSum().add(score.multiply(score)));
+            stats.setMinScore(stats.getMinScore() == null ? score : stats.getMinScore().min(score));
+            stats.setMaxScore(stats.getMaxScore() == null ? score : stats.getMaxScore().max(score));
+            if (score.compareTo(BigDecimal.TEN) == 0) {
+                stats.setPerfectCount(stats.getPerfectCount() + 1);
+            }
+            if (score.compareTo(NINE) >= 0) {
+                stats.setHighScoreCount(stats.getHighScoreCount() + 1);
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.aimlab.service;
 
+import com.aimlab.dto.AthleteExportDTO;
 import com.aimlab.dto.ExportFile;
 import com.aimlab.dto.ImportResult;
 import com.aimlab.entity.Athlete;
@@ -17,16 +18,12 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 运动员档案导入导出服务
@@ -44,68 +41,42 @@ public class AthleteImportExportService {
     @Autowired
     private UserMapper userMapper;
 
+    @Autowired
+    private PageTotalCache pageTotalCache;
+
     /**
-     * 导出运动员档案
+     * 导出运动员档案，数据在写出响应时逐行读取
      */
     public ExportFile exportAthletes(String format) {
-        List<Athlete> athletes = athleteMapper.findAll();
-        Map<Long, User> userMap = userMapper.findAll().stream()
-                .collect(Collectors.toMap(User::getId, u -> u));
-
         if ("xlsx".equalsIgnoreCase(format)) {
-            return exportAsExcel(athletes, userMap);
-        }
-        return exportAsCsv(athletes, userMap);
-    }
-
-    private ExportFile exportAsCsv(List<Athlete> athletes, Map<Long, User> userMap) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.join(",", HEADERS)).append("\n");
-        for (Athlete athlete : athletes) {
-            User user = userMap.get(athlete.getUserId());
-            sb.append(athlete.getUserId()).append(",");
-            sb.append(user != null ? safe(user.getUsername()) : "").append(",");
-            sb.append(safe(athlete.getName())).append(",");
-            sb.append(safe(athlete.getGender())).append(",");
-            sb.append(athlete.getBirthDate() != null ? athlete.getBirthDate() : "").append(",");
-            sb.append(safe(athlete.getLevel())).append(",");
-            sb.append(safe(athlete.getApprovalStatus())).append(",");
-            sb.append(athlete.getCreatedAt() != null ? athlete.getCreatedAt() : "").append(",");
-            sb.append(athlete.getUpdatedAt() != null ? athlete.getUpdatedAt() : "").append("\n");
-        }
-        byte[] data = sb.toString().getBytes(StandardCharsets.UTF_8);
-        return new ExportFile("athletes.csv", "text/csv;charset=UTF-8", data);
-    }
-
-    private ExportFile exportAsExcel(List<Athlete> athletes, Map<Long, User> userMap) {
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Athletes");
-            Row header = sheet.createRow(0);
-            for (int i = 0; i < HEADERS.length; i++) {
-                header.createCell(i).setCellValue(HEADERS[i]);
-            }
-
-            int rowIndex = 1;
-            for (Athlete athlete : athletes) {
-                Row row = sheet.createRow(rowIndex++);
-                int col = 0;
-                User user = userMap.get(athlete.getUserId());
-                row.createCell(col++).setCellValue(athlete.getUserId());
-                row.createCell(col++).setCellValue(user != null ? user.getUsername() : "");
-                row.createCell(col++).setCellValue(athlete.getName());
-                row.createCell(col++).setCellValue(athlete.getGender());
-                row.createCell(col++).setCellValue(athlete.getBirthDate() != null ? athlete.getBirthDate().toString() : "");
-                row.createCell(col++).setCellValue(athlete.getLevel());
-                row.createCell(col++).setCellValue(athlete.getApprovalStatus());
-                row.createCell(col++).setCellValue(athlete.getCreatedAt() != null ? athlete.getCreatedAt().toString() : "");
-                row.createCell(col).setCellValue(athlete.getUpdatedAt() != null ? athlete.getUpdatedAt().toString() : "");
-            }
-
-            workbook.write(bos);
-            return new ExportFile("athletes.xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", bos.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("导出Excel失败: " + e.getMessage(), e);
+            return StreamingExports.xlsx("athletes.xlsx", workbook -> {
+                Sheet sheet = StreamingExports.createSheet(workbook, "Athletes", HEADERS);
+                int[] rowIndex = {1};
+                athleteMapper.streamForExport(context -> {
+                    AthleteExportDTO athlete = context.getResultObject();
+                    Row row = sheet.createRow(rowIndex[0]++);
+                    int col = 0;
+                    row.createCell(col++).setCellValue(athlete.getUserId());
+                    row.createCell(col++).setCellValue(athlete.getUsername() != null ? athlete.getUsername() : "");
+                    row.createCell(col++).setCellValue(athlete.getName());
+                    row.createCell(col++).setCellValue(athlete.getGender());
+                    row.createCell(col++).setCellValue(athlete.getBirthDate() != null ? athlete.getBirthDate().toString() : "");
+                    row.createCell(col++).setCellValue(athlete.getLevel());
+                    row.createCell(col++).setCellValue(athlete.getApprovalStatus());
+                    row.createCell(col++).setCellValue(athlete.getCreatedAt() != null ? athlete.getCreatedAt().toString() : "");
+                    row.createCell(col).setCellValue(athlete.getUpdatedAt() != null ? athlete.getUpdatedAt().toString() : "");
+                });
+            });
         }
+        return StreamingExports.csv("athletes.csv", writer -> {
+            StreamingExports.writeCsvRow(writer, (Object[]) HEADERS);
+            athleteMapper.streamForExport(context -> {
+                AthleteExportDTO athlete = context.getResultObject();
+                StreamingExports.writeCsvRow(writer, athlete.getUserId(), athlete.getUsername(), athlete.getName(),
+                        athlete.getGender(), athlete.getBirthDate(), athlete.getLevel(), athlete.getApprovalStatus(),
+                        athlete.getCreatedAt(), athlete.getUpdatedAt());
+            });
+        });
     }
 
     /**
@@ -116,6 +87,7 @@ public class AthleteImportExportService {
         String originalFilename = file.getOriginalFilename();
         String format = originalFilename != null ? originalFilename.substring(originalFilename.lastIndexOf('.') + 1) : "csv";
         format = format.toLowerCase(Locale.ROOT);
+        pageTotalCache.invalidate(PageTotalCache.ATHLETES);
         try (InputStream is = file.getInputStream()) {
             if ("xlsx".equals(format) || "xls".equals(format)) {
                 return importFromExcel(is);
@@ -238,17 +210,6 @@ public class AthleteImportExportService {
         return true;
     }
 
-    private String safe(String value) {
-        if (value == null) {
-            return "";
-        }
-        String escaped = value.replace("\"", "\"\"");
-        if (escaped.contains(",") || escaped.contains("\"")) {
-            return "\"" + escaped + "\"";
-        }
-        return escaped;
-    }
-
     private String valueOrDefault(String[] parts, int index, String defaultValue) {
         if (index >= parts.length) {
             return defaultValue;
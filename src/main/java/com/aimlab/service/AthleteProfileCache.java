@@ -0,0 +1,71 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.AthleteProfileDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 运动员个人资料缓存
+ * 新的射击记录、比赛成绩、训练场次或档案变更时按运动员失效，过期时间兜底。
+ * 加载期间发生失效时不写入缓存，避免旧数据覆盖失效结果。
+ * 缓存中保存的是副本，读取时也返回副本，调用方修改返回的资料不会影响缓存
+ */
+@Component
+public class AthleteProfileCache {
+
+    /**
+     * 缓存有效期（秒），0表示不缓存
+     */
+    @Value("${aimlab.athlete.profile-cache-ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final LocalCache<Long, AthleteProfileDTO> profiles = new LocalCache<>(() -> ttlSeconds);
+
+    /**
+     * 获取未过期的缓存资料
+     *
+     * @param athleteId 运动员ID
+     * @return 缓存资料的副本，不存在或已过期时返回null
+     */
+    public AthleteProfileDTO get(Long athleteId) {
+        AthleteProfileDTO cached = profiles.getIfPresent(athleteId);
+        return cached != null ? cached.copy() : null;
+    }
+
+    /**
+     * 获取当前版本号，加载资料前调用，写入缓存时传回
+     *
+     * @param athleteId 运动员ID
+     * @return 版本号
+     */
+    public long version(Long athleteId) {
+        return profiles.version(athleteId);
+    }
+
+    /**
+     * 写入缓存，加载期间资料已失效时忽略
+     *
+     * @param athleteId 运动员ID
+     * @param version 加载前取得的版本号
+     * @param profile 个人资料
+     */
+    public void put(Long athleteId, long version, AthleteProfileDTO profile) {
+        profiles.put(athleteId, version, profile.copy());
+    }
+
+    /**
+     * 使运动员的缓存资料失效
+     *
+     * @param athleteId 运动员ID
+     */
+    public void invalidate(Long athleteId) {
+        profiles.invalidate(athleteId);
+    }
+
+    /**
+     * 使全部运动员的缓存资料失效，用于重建每日统计汇总等批量变更
+     */
+    public void invalidateAll() {
+        profiles.invalidateAll();
+    }
+}
@@ -1,17 +1,17 @@
 package com.aimlab.service;
 
+import com.aimlab.dto.AthleteCompetitionHistoryDTO;
 import com.aimlab.dto.AthleteHistoryItemDTO;
 import com.aimlab.dto.AthleteProfileDTO;
+import com.aimlab.dto.KeysetCursor;
+import com.aimlab.dto.PageResult;
+import com.aimlab.dto.SessionScoreSummaryDTO;
 import com.aimlab.entity.Athlete;
-import com.aimlab.entity.CompetitionAthlete;
-import com.aimlab.entity.CompetitionResult;
-import com.aimlab.entity.ShootingRecord;
 import com.aimlab.entity.TrainingSession;
 import com.aimlab.entity.User;
+import com.aimlab.mapper.AthleteDailyStatsMapper;
 import com.aimlab.mapper.AthleteMapper;
 import com.aimlab.mapper.CompetitionAthleteMapper;
-import com.aimlab.mapper.CompetitionMapper;
-import com.aimlab.mapper.CompetitionResultMapper;
 import com.aimlab.mapper.ShootingRecordMapper;
 import com.aimlab.mapper.TrainingSessionMapper;
 import com.aimlab.mapper.UserMapper;
@@ -52,16 +52,25 @@ public class AthleteService {
     private CompetitionAthleteMapper competitionAthleteMapper;
     
     @Autowired
-    private CompetitionMapper competitionMapper;
+    private ShootingRecordMapper shootingRecordMapper;
     
     @Autowired
-    private CompetitionResultMapper competitionResultMapper;
+    private AthleteDailyStatsMapper athleteDailyStatsMapper;
     
     @Autowired
-    private ShootingRecordMapper shootingRecordMapper;
+    private AthleteDailyStatsService athleteDailyStatsService;
+    
+    @Autowired
+    private AthleteProfileCache athleteProfileCache;
+
+    @Autowired
+    private RankingSnapshotService rankingSnapshotService;
     
     @Autowired
     private MessageService messageService;
+
+    @Autowired
+    private PageTotalCache pageTotalCache;
     
     /**
      * 获取所有运动员列表
@@ -108,6 +117,7 @@ public class AthleteService {
         
         // 保存运动员信息
         athleteMapper.insert(athlete);
+        pageTotalCache.invalidate(PageTotalCache.ATHLETES);
         
         // 通知管理员有新运动员注册待审核
         if ("PENDING".equals(athlete.getApprovalStatus())) {
@@ -151,6 +161,7 @@ public class AthleteService {
         if (existingAthlete == null) {
             throw new RuntimeException("运动员不存在");
         }
+        athleteProfileCache.invalidate(athlete.getId());
         
         // 如果审批状态为空，视为已审批档案，后续修改需要审批
         String existingApprovalStatus = existingAthlete.getApprovalStatus();
@@ -214,16 +225,24 @@ public class AthleteService {
      */
     @Transactional
     public boolean updateAvatar(Long athleteId, byte[] avatarData, String avatarType) {
+        athleteProfileCache.invalidate(athleteId);
         return athleteMapper.updateAvatar(athleteId, avatarData, avatarType) > 0;
     }
     
     /**
      * 获取运动员个人资料，包括历史记录和生涯统计
+     * 训练场次成绩、参赛历史和生涯统计各由一次汇总查询得到，查询次数与历史记录数量无关
      * 
      * @param athleteId 运动员ID
      * @return 运动员个人资料DTO
      */
     public AthleteProfileDTO getAthleteProfile(Long athleteId) {
+        AthleteProfileDTO cached = athleteProfileCache.get(athleteId);
+        if (cached != null) {
+            return cached;
+        }
+        long cacheVersion = athleteProfileCache.version(athleteId);
+        
         // 1. 查询基本信息
         Athlete athlete = athleteMapper.findById(athleteId);
         if (athlete == null) {
@@ -238,8 +257,11 @@ public class AthleteService {
         // 创建个人资料DTO并设置基本信息
         AthleteProfileDTO profileDTO = AthleteProfileDTO.fromAthlete(athlete);
         
-        // 2. 查询训练历史
+        // 2. 查询训练历史，各场次平均环数由一次分组查询得到
         List<TrainingSession> trainingSessions = trainingSessionMapper.findByAthleteId(athleteId);
+        Map<Long, SessionScoreSummaryDTO> sessionScores = shootingRecordMapper
+                .summarizeTrainingSessionsByAthleteId(athleteId).stream()
+                .collect(Collectors.toMap(SessionScoreSummaryDTO::getSessionId, summary -> summary));
         List<AthleteHistoryItemDTO> trainingHistory = new ArrayList<>();
         
         // 训练统计数据
@@ -259,14 +281,9 @@ public class AthleteService {
                 totalTrainingMinutes += durationMinutes;
             }
             
-            // 获取训练射击记录，计算平均分
-            List<ShootingRecord> records = shootingRecordMapper.findByTrainingSessionId(session.getId());
-            if (!records.isEmpty()) {
-                BigDecimal totalScore = records.stream()
-                        .map(ShootingRecord::getScore)
-                        .reduce(BigDecimal.ZERO, BigDecimal::add);
-                BigDecimal averageScore = totalScore.divide(new BigDecimal(records.size()), 2, RoundingMode.HALF_UP);
-                
+            SessionScoreSummaryDTO summary = sessionScores.get(session.getId());
+            if (summary != null && summary.getAverageScore() != null) {
+                BigDecimal averageScore = summary.getAverageScore().setScale(2, RoundingMode.HALF_UP);
                 historyItem.setResult("平均环数: " + averageScore);
                 historyItem.setResultValue(averageScore);
             } else {
@@ -277,43 +294,32 @@ public class AthleteService {
             trainingHistory.add(historyItem);
         }
         
-        // 3. 查询比赛历史
-        List<CompetitionAthlete> competitionAthletes = competitionAthleteMapper.findByAthleteId(athleteId);
+        // 3. 查询比赛历史，比赛信息和最终成绩由一次关联查询得到
+        List<AthleteCompetitionHistoryDTO> competitions = competitionAthleteMapper.findCompetitionHistoryByAthleteId(athleteId);
         List<AthleteHistoryItemDTO> competitionHistory = new ArrayList<>();
         
         // 比赛统计数据
-        int totalCompetitions = competitionAthletes.size();
+        int totalCompetitions = competitions.size();
         int competitionsWon = 0;
         int competitionsTopThree = 0;
         
-        for (CompetitionAthlete competitionAthlete : competitionAthletes) {
-            Integer competitionId = competitionAthlete.getCompetitionId();
-            
-            // 获取比赛信息
-            com.aimlab.entity.Competition competition = competitionMapper.findById(competitionId);
-            if (competition == null) {
-                continue;
-            }
-            
-            // 获取比赛结果
-            CompetitionResult result = competitionResultMapper.findByCompetitionIdAndAthleteId(competitionId, athleteId);
-            
+        for (AthleteCompetitionHistoryDTO competition : competitions) {
             AthleteHistoryItemDTO historyItem = new AthleteHistoryItemDTO();
             historyItem.setType("COMPETITION");
-            historyItem.setId(Long.valueOf(competitionId));
-            historyItem.setName(competition.getName());
+            historyItem.setId(Long.valueOf(competition.getCompetitionId()));
+            historyItem.setName(competition.getCompetitionName());
             historyItem.setDate(competition.getStartedAt());
             
-            if (result != null) {
-                historyItem.setRank(result.getFinalRank());
-                historyItem.setResult("排名: " + result.getFinalRank() + ", 得分: " + result.getFinalScore());
-                historyItem.setResultValue(result.getFinalScore());
+            if (competition.getFinalRank() != null) {
+                historyItem.setRank(competition.getFinalRank());
+                historyItem.setResult("排名: " + competition.getFinalRank() + ", 得分: " + competition.getFinalScore());
+                historyItem.setResultValue(competition.getFinalScore());
                 
                 // 统计获奖情况
-                if (result.getFinalRank() == 1) {
+                if (competition.getFinalRank() == 1) {
                     competitionsWon++;
                 }
-                if (result.getFinalRank() <= 3) {
+                if (competition.getFinalRank() <= 3) {
                     competitionsTopThree++;
                 }
             } else {
@@ -333,39 +339,25 @@ public class AthleteService {
         
         profileDTO.setHistoryItems(allHistory);
         
-        // 5. 计算生涯统计数据
-        // 查询所有射击记录
-        List<ShootingRecord> allRecords = shootingRecordMapper.findByAthleteId(athleteId, 10000); // 设置一个较大的限制
-        
-        int careerTotalShots = allRecords.size();
-        BigDecimal careerBestScore = BigDecimal.ZERO;
-        BigDecimal careerTotalScore = BigDecimal.ZERO;
-        
-        if (!allRecords.isEmpty()) {
-            careerTotalScore = allRecords.stream()
-                    .map(ShootingRecord::getScore)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-            careerBestScore = allRecords.stream()
-                    .map(ShootingRecord::getScore)
-                    .max(BigDecimal::compareTo)
-                    .orElse(BigDecimal.ZERO);
-        }
-        
-        BigDecimal careerAverageScore = careerTotalShots > 0 
-                ? careerTotalScore.divide(new BigDecimal(careerTotalShots), 2, RoundingMode.HALF_UP) 
-                : BigDecimal.ZERO;
+        // 5. 生涯统计数据，由每日统计汇总求出，与训练报告使用同一统计口径
+        ShotStatsAccumulator career = ShotStatsAccumulator.of(athleteDailyStatsMapper.sumByAthleteId(athleteId));
         
         // 设置生涯统计数据
-        profileDTO.setCareerTotalShots(careerTotalShots);
-        profileDTO.setCareerAverageScore(careerAverageScore);
-        profileDTO.setCareerBestScore(careerBestScore);
+        profileDTO.setCareerTotalShots((int) career.getCount());
+        profileDTO.setCareerAverageScore(career.getCount() > 0
+                ? ShotStatsAccumulator.toDecimal(career.getMean(), 2) : BigDecimal.ZERO);
+        profileDTO.setCareerBestScore(career.getCount() > 0
+                ? ShotStatsAccumulator.toDecimal(career.getMax(), 1) : BigDecimal.ZERO);
         profileDTO.setTotalCompetitions(totalCompetitions);
         profileDTO.setCompetitionsWon(competitionsWon);
         profileDTO.setCompetitionsTopThree(competitionsTopThree);
         profileDTO.setTotalTrainingSessions(totalTrainingSessions);
         profileDTO.setTotalTrainingMinutes(totalTrainingMinutes);
         
+        // 每日统计汇总回填或重建期间生涯统计不完整，只返回不缓存
+        if (!athleteDailyStatsService.isRebuilding()) {
+            athleteProfileCache.put(athleteId, cacheVersion, profileDTO);
+        }
         return profileDTO;
     }
 
@@ -396,6 +388,9 @@ public class AthleteService {
         athlete.setApprovalStatus(status);
         athlete.setUpdatedAt(LocalDateTime.now());
         athleteMapper.update(athlete);
+        pageTotalCache.invalidate(PageTotalCache.ATHLETES);
+        athleteProfileCache.invalidate(athleteId);
+        rankingSnapshotService.requestRefresh();
         
         // 发送站内信通知
         if ("APPROVED".equals(status)) {
@@ -406,23 +401,44 @@ public class AthleteService {
     }
 
     /**
-     * 获取待审批的运动员列表
+     * 获取待审批的运动员列表，按提交时间正序
      * 
+     * @param cursor 上一页返回的 nextCursor，为空时从第一行开始
      * @param limit 返回数量限制
      * @return 待审批运动员列表
      */
-    public List<Athlete> getPendingAthletes(Integer limit) {
-        return athleteMapper.findByApprovalStatus("PENDING", limit);
+    public PageResult<Athlete> getPendingAthletes(String cursor, Integer limit) {
+        return pageByApprovalStatus("PENDING", cursor, limit);
     }
 
     /**
-     * 获取已批准的运动员列表
+     * 获取已批准的运动员列表，按提交时间正序
      * 
+     * @param cursor 上一页返回的 nextCursor，为空时从第一行开始
      * @param limit 返回数量限制
      * @return 已批准运动员列表
      */
-    public List<Athlete> getApprovedAthletes(Integer limit) {
-        return athleteMapper.findByApprovalStatus("APPROVED", limit);
+    public PageResult<Athlete> getApprovedAthletes(String cursor, Integer limit) {
+        return pageByApprovalStatus("APPROVED", cursor, limit);
+    }
+
+    /**
+     * 按审批状态键集分页，多取一行判断是否还有下一页；不统计总数
+     */
+    private PageResult<Athlete> pageByApprovalStatus(String status, String cursor, Integer limit) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        List<Athlete> athletes = athleteMapper.findByApprovalStatus(status, after, limit != null ? limit + 1 : null);
+        boolean hasMore = limit != null && athletes.size() > limit;
+        if (hasMore) {
+            athletes = new ArrayList<>(athletes.subList(0, limit));
+        }
+        PageResult<Athlete> result = new PageResult<>(null, athletes);
+        result.setHasMore(hasMore);
+        if (hasMore && !athletes.isEmpty()) {
+            Athlete last = athletes.get(athletes.size() - 1);
+            result.setNextCursor(KeysetCursor.encode(last.getCreatedAt(), last.getId(), 0));
+        }
+        return result;
     }
 
     /**
@@ -455,6 +471,9 @@ public class AthleteService {
             throw new RuntimeException("运动员不存在");
         }
         athleteMapper.deleteById(athleteId);
+        pageTotalCache.invalidate(PageTotalCache.ATHLETES);
+        athleteProfileCache.invalidate(athleteId);
+        rankingSnapshotService.requestRefresh();
     }
     
     /**
@@ -576,6 +595,8 @@ public class AthleteService {
         athlete.setUpdatedAt(LocalDateTime.now());
 
         boolean success = athleteMapper.update(athlete) > 0;
+        athleteProfileCache.invalidate(athleteId);
+        rankingSnapshotService.requestRefresh();
         
         // 发送站内信通知
         if (success) {
@@ -622,6 +643,7 @@ public class AthleteService {
         athlete.setUpdatedAt(LocalDateTime.now());
 
         boolean success = athleteMapper.update(athlete) > 0;
+        athleteProfileCache.invalidate(athleteId);
         
         // 发送站内信通知
         if (success) {
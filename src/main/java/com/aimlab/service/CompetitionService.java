@@ -3,6 +3,7 @@ package com.aimlab.service;
 import cn.dev33.satoken.stp.StpUtil;
 import com.aimlab.dto.ExportFile;
 import com.aimlab.dto.RankingItemDTO;
+import com.aimlab.dto.RankingSnapshotDTO;
 import com.aimlab.entity.Competition;
 import com.aimlab.entity.CompetitionAthlete;
 import com.aimlab.entity.CompetitionResult;
@@ -15,25 +16,32 @@ import com.aimlab.mapper.CompetitionMapper;
 import com.aimlab.mapper.CompetitionResultMapper;
 import com.aimlab.mapper.ShootingRecordMapper;
 import com.aimlab.websocket.WebSocketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 /**
  * 比赛服务类
@@ -41,6 +49,13 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 @Service
 public class CompetitionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(CompetitionService.class);
+
+    /**
+     * 启动恢复比赛状态时的最大并行度
+     */
+    private static final int REHYDRATE_PARALLELISM = 8;
+
     @Autowired
     private CompetitionMapper competitionMapper;
     
@@ -62,11 +77,50 @@ public class CompetitionService {
     @Autowired
     private PdfGenerationService pdfGenerationService;
     
+    @Autowired
+    private ShotIngestionPipeline shotIngestionPipeline;
+    
+    @Autowired
+    private RankingBroadcaster rankingBroadcaster;
+    
+    @Autowired
+    private ScoringEngine scoringEngine;
+    
+    @Autowired
+    private AthleteDailyStatsService athleteDailyStatsService;
+    
+    @Autowired
+    private AthleteProfileCache athleteProfileCache;
+
+    @Autowired
+    private RankingSnapshotService rankingSnapshotService;
+    
+    /**
+     * 进行中比赛的运行时状态，是否持久化由 aimlab.competition.state-store 决定
+     */
+    @Autowired
+    private CompetitionStateStore competitionStateStore;
+
+    /**
+     * 实时排行榜缓存，比赛开始时从数据库初始化，之后按每次射击增量更新
+     * Key: 比赛ID, Value: 排行榜
+     */
+    private final Map<Long, LiveLeaderboard> liveLeaderboards = new ConcurrentHashMap<>();
+
+    /**
+     * 运动员ID到用户ID的缓存，供异步写入时补全分片字段
+     */
+    private final Map<Long, Long> athleteUserIds = new ConcurrentHashMap<>();
+
     /**
-     * 比赛状态缓存，使用内存存储当前正在进行的比赛状态
-     * Key: 比赛ID, Value: 比赛状态对象
+     * 进行中比赛的靶面配置缓存，赛制在比赛开始后不可修改
      */
-    private final Map<Long, CompetitionStatus> competitionStatusMap = new ConcurrentHashMap<>();
+    private final Map<Long, TargetProfile> targetProfiles = new ConcurrentHashMap<>();
+
+    /**
+     * 重新计分时单条批量更新语句的最大行数
+     */
+    private static final int RESCORE_BATCH_SIZE = 500;
 
     private static final Set<String> ALLOWED_ACCESS_LEVELS = Set.of("PUBLIC", "ADMIN_ONLY");
     private static final String DEFAULT_ACCESS_LEVEL = "PUBLIC";
@@ -316,6 +370,7 @@ public class CompetitionService {
         
         // 保存报名信息
         competitionAthleteMapper.insert(competitionAthlete);
+        athleteProfileCache.invalidate(competitionAthlete.getAthleteId());
         
         return competitionAthlete;
     }
@@ -350,6 +405,7 @@ public class CompetitionService {
         
         // 删除报名信息
         competitionAthleteMapper.delete(existingRegistration.getId());
+        athleteProfileCache.invalidate(athleteId);
     }
     
     /**
@@ -395,12 +451,17 @@ public class CompetitionService {
         competition.setStartedAt(LocalDateTime.now());
         competitionMapper.update(competition);
         
-        // 创建并存储比赛状态
+        // 初始化实时排行榜（开始前可能已有射击记录）
+        LiveLeaderboard leaderboard = buildLeaderboard(competitionId);
+        liveLeaderboards.put(competitionId.longValue(), leaderboard);
+        
+        // 创建并存储比赛状态，报名名单和已有射击次数用于后续射击的内存校验
         CompetitionStatus status = new CompetitionStatus();
         status.setCompetitionId(competitionId.longValue());
         status.setStartTime(competition.getStartedAt());
         status.setStatus("RUNNING");
-        competitionStatusMap.put(competitionId.longValue(), status);
+        status.initShotGuard(resolveShotQuota(competition), collectShotCounts(leaderboard));
+        competitionStateStore.save(status);
         
         // 通过WebSocket广播比赛开始消息
         try {
@@ -442,10 +503,11 @@ public class CompetitionService {
         competitionMapper.update(competition);
         
         // 更新内存中的比赛状态
-        CompetitionStatus status = competitionStatusMap.get(competitionId.longValue());
+        CompetitionStatus status = competitionStateStore.get(competitionId.longValue());
         if (status != null) {
             status.setStatus("PAUSED");
             status.setPauseTime(LocalDateTime.now());
+            competitionStateStore.save(status);
         }
         
         // 通过WebSocket广播比赛暂停消息
@@ -481,10 +543,11 @@ public class CompetitionService {
         competitionMapper.update(competition);
         
         // 更新内存中的比赛状态
-        CompetitionStatus status = competitionStatusMap.get(competitionId.longValue());
+        CompetitionStatus status = competitionStateStore.get(competitionId.longValue());
         if (status != null) {
             status.setStatus("RUNNING");
             status.setResumeTime(LocalDateTime.now());
+            competitionStateStore.save(status);
         }
         
         // 通过WebSocket广播比赛恢复消息
@@ -518,12 +581,18 @@ public class CompetitionService {
             throw new RuntimeException("比赛未开始，无法结束");
         }
         
+        // 停止接收新的射击，并写入尚未落库的射击记录
+        CompetitionStatus status = competitionStateStore.remove(competitionId.longValue());
+        drainPendingShots(competitionId, status);
+        if (status != null) {
+            status.setStatus("COMPLETED");
+        }
+        
         // 更新比赛状态
         competition.setStatus("COMPLETED");
         competition.setCompletedAt(LocalDateTime.now());
         
         // 计算比赛持续时间（秒）
-        CompetitionStatus status = competitionStatusMap.get(competitionId.longValue());
         if (status != null) {
             long durationSeconds = status.calculateTotalDuration();
             competition.setDurationSeconds((int) durationSeconds);
@@ -536,8 +605,9 @@ public class CompetitionService {
         
         competitionMapper.update(competition);
         
-        // 计算并保存最终成绩
+        // 计算并保存最终成绩，立即推送最终排名
         calculateAndSaveFinalResults(competitionId);
+        publishFinalRanking(competitionId);
         
         // 通过WebSocket广播比赛结束消息
         webSocketService.sendCompetitionStatusUpdate(
@@ -566,6 +636,9 @@ public class CompetitionService {
             return competition;
         }
 
+        // 停止接收新的射击，写入积压的射击记录后再结束比赛
+        drainPendingShots(competitionId, competitionStateStore.remove(competitionId.longValue()));
+
         LocalDateTime now = LocalDateTime.now();
         competition.setStatus("COMPLETED");
         competition.setEndedAt(now);
@@ -578,9 +651,9 @@ public class CompetitionService {
 
         competitionMapper.update(competition);
 
-        // 删除内存中的状态缓存并生成最终成绩
-        competitionStatusMap.remove(competitionId.longValue());
+        // 生成最终成绩
         calculateAndSaveFinalResults(competitionId);
+        publishFinalRanking(competitionId);
 
         String message = "比赛已被管理员强制结束";
         if (reason != null && !reason.trim().isEmpty()) {
@@ -599,6 +672,48 @@ public class CompetitionService {
         return competition;
     }
     
+    /**
+     * 按靶面配置重新计算比赛全部射击记录的成绩，已结束的比赛同时重新生成最终成绩
+     * 
+     * @param competitionId 比赛ID
+     * @param profileName 靶面配置名称，为空时使用比赛赛制对应的靶面
+     * @return 成绩发生变化的记录数
+     */
+    @Transactional
+    public int rescoreCompetition(Integer competitionId, String profileName) {
+        Competition competition = competitionMapper.findById(competitionId);
+        if (competition == null) {
+            throw new RuntimeException("比赛不存在");
+        }
+        if ("RUNNING".equals(competition.getStatus()) || "PAUSED".equals(competition.getStatus())) {
+            throw new RuntimeException("比赛进行中，无法重新计分");
+        }
+        
+        TargetProfile profile = TargetProfile.resolve(
+                profileName != null && !profileName.trim().isEmpty() ? profileName : competition.getFormatType());
+        List<ShootingRecord> changed = scoringEngine.rescore(profile,
+                shootingRecordMapper.findByCompetitionId(competitionId));
+        for (int from = 0; from < changed.size(); from += RESCORE_BATCH_SIZE) {
+            shootingRecordMapper.batchUpdateScore(changed.subList(from, Math.min(from + RESCORE_BATCH_SIZE, changed.size())));
+        }
+        if (!changed.isEmpty()) {
+            // 成绩变化后按涉及的日期重建每日统计汇总
+            LocalDate firstDay = null;
+            LocalDate lastDay = null;
+            for (ShootingRecord record : changed) {
+                LocalDate day = record.getShotAt().toLocalDate();
+                firstDay = firstDay == null || day.isBefore(firstDay) ? day : firstDay;
+                lastDay = lastDay == null || day.isAfter(lastDay) ? day : lastDay;
+            }
+            athleteDailyStatsService.rebuild(firstDay, lastDay);
+        }
+        
+        if (!changed.isEmpty() && "COMPLETED".equals(competition.getStatus())) {
+            calculateAndSaveFinalResults(competitionId);
+        }
+        return changed.size();
+    }
+    
     /**
      * 计算并保存最终比赛结果
      * 
@@ -612,6 +727,8 @@ public class CompetitionService {
             // 如果已经有结果记录，先删除
             competitionResultMapper.deleteByCompetitionId(competitionId);
         }
+        // 事务提交后重新计算排行榜快照
+        rankingSnapshotService.requestRefresh();
         
         // 获取最终排名数据
         List<RankingItemDTO> rankings = getLiveRanking(competitionId);
@@ -642,6 +759,9 @@ public class CompetitionService {
         // 批量保存结果记录
         if (!results.isEmpty()) {
             competitionResultMapper.batchInsert(results);
+            for (CompetitionResult result : results) {
+                athleteProfileCache.invalidate(result.getAthleteId());
+            }
         }
     }
     
@@ -656,12 +776,12 @@ public class CompetitionService {
     }
 
     /**
-     * 生成比赛结果PDF
+     * 查询可以生成结果报告的比赛
      *
      * @param competitionId 比赛ID
-     * @return PDF字节流
+     * @return 已结束的比赛
      */
-    public byte[] getCompetitionResultsAsPdf(Integer competitionId) {
+    public Competition getReportableCompetition(Integer competitionId) {
         Competition competition = competitionMapper.findById(competitionId);
         if (competition == null) {
             throw new RuntimeException("比赛不存在");
@@ -669,11 +789,24 @@ public class CompetitionService {
         if (!"COMPLETED".equals(competition.getStatus())) {
             throw new RuntimeException("比赛尚未结束，无法生成结果报告");
         }
+        return competition;
+    }
 
+    /**
+     * 生成比赛结果PDF
+     *
+     * @param competitionId 比赛ID
+     * @return PDF字节流
+     */
+    public byte[] getCompetitionResultsAsPdf(Integer competitionId) {
+        Competition competition = getReportableCompetition(competitionId);
         List<CompetitionResult> results = competitionResultMapper.findByCompetitionId(competitionId);
         return pdfGenerationService.generateCompetitionResultsPdf(competition, results);
     }
 
+    /**
+     * 导出比赛成绩，成绩在写出响应时按名次逐行读取
+     */
     public ExportFile exportCompetitionResults(Integer competitionId, String format) {
         Competition competition = competitionMapper.findById(competitionId);
         if (competition == null) {
@@ -682,60 +815,35 @@ public class CompetitionService {
         if (!"COMPLETED".equals(competition.getStatus())) {
             throw new RuntimeException("比赛尚未结束，无法导出成绩");
         }
-        List<CompetitionResult> results = competitionResultMapper.findByCompetitionId(competitionId);
         String normalizedFormat = format != null ? format.trim().toLowerCase() : "xlsx";
         if ("csv".equals(normalizedFormat)) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("Rank,Athlete ID,Athlete Name,Final Score,Total Shots\n");
-            for (CompetitionResult result : results) {
-                sb.append(result.getFinalRank()).append(',')
-                        .append(result.getAthleteId()).append(',')
-                        .append(escapeCsv(result.getAthleteName())).append(',')
-                        .append(result.getFinalScore()).append(',')
-                        .append(result.getTotalShots()).append('\n');
-            }
             String fileName = "competition-" + competitionId + "-results.csv";
-            return new ExportFile(fileName, "text/csv;charset=UTF-8", sb.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            return StreamingExports.csv(fileName, writer -> {
+                StreamingExports.writeCsvRow(writer, "Rank", "Athlete ID", "Athlete Name", "Final Score", "Total Shots");
+                competitionResultMapper.streamByCompetitionId(competitionId, context -> {
+                    CompetitionResult result = context.getResultObject();
+                    StreamingExports.writeCsvRow(writer, result.getFinalRank(), result.getAthleteId(),
+                            result.getAthleteName(), result.getFinalScore(), result.getTotalShots());
+                });
+            });
         }
 
-        try (Workbook workbook = new XSSFWorkbook(); ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            Sheet sheet = workbook.createSheet("Results");
-            Row header = sheet.createRow(0);
-            header.createCell(0).setCellValue("名次");
-            header.createCell(1).setCellValue("运动员ID");
-            header.createCell(2).setCellValue("运动员姓名");
-            header.createCell(3).setCellValue("总成绩");
-            header.createCell(4).setCellValue("射击次数");
-
-            int rowIndex = 1;
-            for (CompetitionResult result : results) {
-                Row row = sheet.createRow(rowIndex++);
+        String fileName = "competition-" + competitionId + "-results.xlsx";
+        return StreamingExports.xlsx(fileName, workbook -> {
+            Sheet sheet = StreamingExports.createSheet(workbook, "Results", "名次", "运动员ID", "运动员姓名", "总成绩", "射击次数");
+            int[] rowIndex = {1};
+            competitionResultMapper.streamByCompetitionId(competitionId, context -> {
+                CompetitionResult result = context.getResultObject();
+                Row row = sheet.createRow(rowIndex[0]++);
                 row.createCell(0).setCellValue(result.getFinalRank());
                 row.createCell(1).setCellValue(result.getAthleteId());
                 row.createCell(2).setCellValue(result.getAthleteName());
                 row.createCell(3).setCellValue(result.getFinalScore() == null ? 0.0 : result.getFinalScore().doubleValue());
                 row.createCell(4).setCellValue(result.getTotalShots());
-            }
-
-            workbook.write(bos);
-            String fileName = "competition-" + competitionId + "-results.xlsx";
-            return new ExportFile(fileName, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", bos.toByteArray());
-        } catch (Exception e) {
-            throw new RuntimeException("导出比赛成绩失败: " + e.getMessage(), e);
-        }
+            });
+        });
     }
 
-    private String escapeCsv(String value) {
-        if (value == null) {
-            return "";
-        }
-        String escaped = value.replace("\"", "\"\"");
-        if (escaped.contains(",") || escaped.contains("\"")) {
-            return '"' + escaped + '"';
-        }
-        return escaped;
-    }
-    
     /**
      * 获取运动员的比赛结果
      * 
@@ -747,12 +855,15 @@ public class CompetitionService {
     }
     
     /**
-     * 每位运动员在单场比赛中的最大射击次数
+     * 比赛未配置轮数和每轮射击次数时的默认值，与数据库列默认值一致
      */
-    private static final int MAX_SHOTS_PER_ATHLETE = 10;
+    private static final int DEFAULT_ROUNDS_COUNT = 1;
+    private static final int DEFAULT_SHOTS_PER_ROUND = 10;
 
     /**
      * 添加比赛射击记录
+     * 射击记录、比赛月份索引和每日统计汇总在同一事务中写入，失败时一起回滚；
+     * 进行中的比赛只做内存校验，不再查询比赛、报名和射击次数
      * 
      * @param record 射击记录对象
      * @return 添加的记录对象
@@ -763,6 +874,11 @@ public class CompetitionService {
             throw new RuntimeException("缺少比赛信息");
         }
         
+        CompetitionStatus status = competitionStateStore.get(record.getCompetitionId().longValue());
+        if (status != null && "RUNNING".equals(status.getStatus()) && status.isShotGuardReady()) {
+            return addGuardedCompetitionRecord(record, status);
+        }
+        
         // 检查比赛是否存在
         Competition competition = competitionMapper.findById(record.getCompetitionId());
         if (competition == null) {
@@ -774,28 +890,7 @@ public class CompetitionService {
             throw new RuntimeException("比赛已结束或已取消，无法记录成绩");
         }
         
-        // 如果未携带运动员ID，尝试通过 userId 或当前登录用户补全
-        if (record.getAthleteId() == null) {
-            Athlete currentAthlete = null;
-            
-            if (record.getUserId() != null) {
-                currentAthlete = athleteMapper.findByUserId(record.getUserId());
-            }
-            
-            if (currentAthlete == null && StpUtil.isLogin()) {
-                Long currentUserId = StpUtil.getLoginIdAsLong();
-                currentAthlete = athleteMapper.findByUserId(currentUserId);
-            }
-            
-            if (currentAthlete == null) {
-                throw new RuntimeException("无法获取运动员信息，请确认已登录或提供有效的 userId/athleteId");
-            }
-            
-            record.setAthleteId(currentAthlete.getId());
-            if (record.getUserId() == null) {
-                record.setUserId(currentAthlete.getUserId());
-            }
-        }
+        resolveRecordAthlete(record);
         
         // 校验运动员报名信息
         CompetitionAthlete competitionAthlete = competitionAthleteMapper.findByCompetitionIdAndAthleteId(
@@ -804,11 +899,12 @@ public class CompetitionService {
             throw new RuntimeException("您未报名参加该比赛");
         }
         
-        // 检查射击次数限制（每人最多10次）
+        // 检查射击次数限制（总轮数 × 每轮射击次数）
+        int shotQuota = resolveShotQuota(competition);
         int currentShotCount = shootingRecordMapper.countByCompetitionIdAndAthleteId(
                 record.getCompetitionId(), record.getAthleteId());
-        if (currentShotCount >= MAX_SHOTS_PER_ATHLETE) {
-            throw new RuntimeException("您已达到本场比赛的射击次数上限（" + MAX_SHOTS_PER_ATHLETE + "次），无法继续射击");
+        if (currentShotCount >= shotQuota) {
+            throw shotQuotaExceeded(shotQuota);
         }
         
         // 获取运动员信息补充 userId
@@ -817,13 +913,16 @@ public class CompetitionService {
             record.setUserId(athlete.getUserId());
         }
         
-        // 统一设置记录类型和时间
+        // 按赛制靶面由坐标计算成绩，统一设置记录类型和时间
+        scoringEngine.applyScore(TargetProfile.resolve(competition.getFormatType()), record);
         record.setRecordType("COMPETITION");
         if (record.getShotAt() == null) {
             record.setShotAt(LocalDateTime.now());
         }
         
         shootingRecordMapper.insert(record);
+        athleteDailyStatsService.recordShotsQuietly(Collections.singletonList(record), null);
+        athleteProfileCache.invalidate(record.getAthleteId());
         
         // 通过WebSocket广播射击记录给所有客户端
         webSocketService.sendShootingRecord(
@@ -832,11 +931,150 @@ public class CompetitionService {
         );
         
         // 更新排名并广播
-        updateAndBroadcastRankings(record.getCompetitionId().longValue());
+        updateAndBroadcastRankings(record);
+        
+        return record;
+    }
+    
+    /**
+     * 进行中比赛的射击：报名和射击次数由内存中的比赛状态校验，
+     * 射击名额以原子方式占用，同一运动员并发射击也不会超过上限。
+     * 异步写入模式下记录入队后立即确认，由写入管道批量落库
+     * 
+     * @param record 射击记录对象
+     * @param status 比赛状态
+     * @return 添加的记录对象（异步模式下尚未生成ID）
+     */
+    private ShootingRecord addGuardedCompetitionRecord(ShootingRecord record, CompetitionStatus status) {
+        resolveRecordAthlete(record);
+        TargetProfile profile = targetProfiles.computeIfAbsent(status.getCompetitionId(), competitionId -> {
+            Competition competition = competitionMapper.findById(competitionId.intValue());
+            return TargetProfile.resolve(competition != null ? competition.getFormatType() : null);
+        });
+        scoringEngine.applyScore(profile, record);
+        
+        if (!status.isEnrolled(record.getAthleteId())) {
+            throw new RuntimeException("您未报名参加该比赛");
+        }
+        if (!status.recordShot(record.getAthleteId())) {
+            throw shotQuotaExceeded(status.getShotQuota());
+        }
+        
+        try {
+            // 运动员的 userId 不会变化，缓存后无需每次查询
+            Long userId = athleteUserIds.computeIfAbsent(record.getAthleteId(), athleteId -> {
+                Athlete athlete = athleteMapper.findById(athleteId);
+                return athlete != null ? athlete.getUserId() : null;
+            });
+            if (userId != null) {
+                record.setUserId(userId);
+            }
+            
+            // 统一设置记录类型和时间（与数据库毫秒精度保持一致，便于崩溃回放时去重）
+            record.setRecordType("COMPETITION");
+            LocalDateTime shotAt = record.getShotAt() != null ? record.getShotAt() : LocalDateTime.now();
+            record.setShotAt(shotAt.truncatedTo(ChronoUnit.MILLIS));
+            
+            if (shotIngestionPipeline.isEnabled()) {
+                shotIngestionPipeline.submit(record);
+            } else {
+                shootingRecordMapper.insert(record);
+                athleteDailyStatsService.recordShotsQuietly(Collections.singletonList(record), null);
+            }
+            athleteProfileCache.invalidate(record.getAthleteId());
+        } catch (RuntimeException e) {
+            status.revokeShot(record.getAthleteId());
+            throw e;
+        }
+        
+        webSocketService.sendShootingRecord(
+            String.valueOf(record.getCompetitionId()), 
+            record
+        );
+        updateAndBroadcastRankings(record);
         
         return record;
     }
     
+    /**
+     * 写入比赛积压的射击记录，最终成绩必须包含全部已确认的射击。
+     * 超时仍未写完时恢复比赛状态并抛出异常，结束比赛失败，可稍后重试
+     *
+     * @param competitionId 比赛ID
+     * @param removed 已从状态存储中移除的比赛状态，可为null
+     */
+    private void drainPendingShots(Integer competitionId, CompetitionStatus removed) {
+        try {
+            shotIngestionPipeline.close(competitionId);
+        } catch (RuntimeException e) {
+            if (removed != null) {
+                competitionStateStore.save(removed);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * 计算每位运动员的射击次数上限
+     * 
+     * @param competition 比赛对象
+     * @return 总轮数 × 每轮射击次数
+     */
+    private int resolveShotQuota(Competition competition) {
+        int roundsCount = competition.getRoundsCount() != null ? competition.getRoundsCount() : DEFAULT_ROUNDS_COUNT;
+        int shotsPerRound = competition.getShotsPerRound() != null ? competition.getShotsPerRound() : DEFAULT_SHOTS_PER_ROUND;
+        return roundsCount * shotsPerRound;
+    }
+    
+    private RuntimeException shotQuotaExceeded(int shotQuota) {
+        return new RuntimeException("您已达到本场比赛的射击次数上限（" + shotQuota + "次），无法继续射击");
+    }
+    
+    /**
+     * 从排行榜中收集报名运动员及其已有射击次数
+     * 
+     * @param leaderboard 排行榜
+     * @return 运动员ID到射击次数的映射
+     */
+    private Map<Long, Integer> collectShotCounts(LiveLeaderboard leaderboard) {
+        Map<Long, Integer> shotCounts = new HashMap<>();
+        for (RankingItemDTO item : leaderboard.snapshot()) {
+            shotCounts.put(item.getAthleteId(), item.getTotalShots());
+        }
+        return shotCounts;
+    }
+    
+    /**
+     * 如果未携带运动员ID，尝试通过 userId 或当前登录用户补全
+     * 
+     * @param record 射击记录对象
+     */
+    private void resolveRecordAthlete(ShootingRecord record) {
+        if (record.getAthleteId() != null) {
+            return;
+        }
+        
+        Athlete currentAthlete = null;
+        
+        if (record.getUserId() != null) {
+            currentAthlete = athleteMapper.findByUserId(record.getUserId());
+        }
+        
+        if (currentAthlete == null && StpUtil.isLogin()) {
+            Long currentUserId = StpUtil.getLoginIdAsLong();
+            currentAthlete = athleteMapper.findByUserId(currentUserId);
+        }
+        
+        if (currentAthlete == null) {
+            throw new RuntimeException("无法获取运动员信息，请确认已登录或提供有效的 userId/athleteId");
+        }
+        
+        record.setAthleteId(currentAthlete.getId());
+        if (record.getUserId() == null) {
+            record.setUserId(currentAthlete.getUserId());
+        }
+    }
+    
     /**
      * 获取比赛的射击记录
      * 
@@ -865,66 +1103,165 @@ public class CompetitionService {
      * @return 排名列表
      */
     public List<RankingItemDTO> getLiveRanking(Integer competitionId) {
-        // 实现实时排名计算逻辑
-        // 根据比赛ID获取所有射击记录，计算每个运动员的总分和排名
+        // 进行中的比赛直接读取内存排行榜
+        LiveLeaderboard leaderboard = liveLeaderboards.get(competitionId.longValue());
+        if (leaderboard != null) {
+            return leaderboard.snapshot();
+        }
+        // 否则根据比赛ID获取所有射击记录，计算每个运动员的总分和排名
         return calculateRanking(competitionId);
     }
     
     /**
-     * 更新并广播比赛排名
+     * 获取带序列号的比赛排名快照，供客户端订阅或发现增量缺失时重新同步
      * 
      * @param competitionId 比赛ID
+     * @return 排名快照
+     */
+    public RankingSnapshotDTO getRankingSnapshot(Integer competitionId) {
+        LiveLeaderboard leaderboard = liveLeaderboards.get(competitionId.longValue());
+        if (leaderboard != null) {
+            return leaderboard.toSnapshot();
+        }
+        RankingSnapshotDTO snapshot = new RankingSnapshotDTO();
+        snapshot.setCompetitionId(competitionId.longValue());
+        snapshot.setEpoch(0L);
+        snapshot.setSequence(0L);
+        snapshot.setRankings(calculateRanking(competitionId));
+        return snapshot;
+    }
+    
+    /**
+     * 更新并广播比赛排名
+     * 进行中的比赛增量更新排行榜，变化的排名项按广播周期合并发布；否则广播全量快照
+     * 
+     * @param record 新增的射击记录
      */
-    private void updateAndBroadcastRankings(Long competitionId) {
-        // 计算最新排名
-        List<RankingItemDTO> rankings = calculateRanking(competitionId.intValue());
+    private void updateAndBroadcastRankings(ShootingRecord record) {
+        // 增量更新实时排行榜
+        LiveLeaderboard leaderboard = liveLeaderboards.get(record.getCompetitionId().longValue());
+        if (leaderboard != null) {
+            rankingBroadcaster.recordShot(leaderboard, record.getAthleteId(), record.getScore(), record.getShotAt());
+            return;
+        }
         
-        // 通过WebSocket广播最新排名
-        webSocketService.sendRankingUpdate(String.valueOf(competitionId), rankings);
+        webSocketService.sendRankingSnapshot(String.valueOf(record.getCompetitionId()),
+                getRankingSnapshot(record.getCompetitionId()));
     }
     
-    private List<RankingItemDTO> calculateRanking(Integer competitionId) {
-        // 获取比赛的所有参赛运动员
-        List<CompetitionAthlete> athletes = competitionAthleteMapper.findByCompetitionId(competitionId);
-        
-        // 获取比赛的所有射击记录
-        List<ShootingRecord> records = shootingRecordMapper.findByCompetitionId(competitionId);
-        
-        // 计算每个运动员的总分
-        Map<Long, RankingItemDTO> athleteScores = new HashMap<>();
-        
-        for (CompetitionAthlete athlete : athletes) {
-            RankingItemDTO rankingItem = new RankingItemDTO();
-            rankingItem.setAthleteId(athlete.getAthleteId());
-            rankingItem.setAthleteName(athlete.getAthleteName());
-            rankingItem.setTotalScore(BigDecimal.ZERO);
-            rankingItem.setTotalShots(0);
-            athleteScores.put(athlete.getAthleteId(), rankingItem);
-        }
-        
-        // 计算每个运动员的总分和排名
-        for (ShootingRecord record : records) {
-            RankingItemDTO rankingItem = athleteScores.get(record.getAthleteId());
-            if (rankingItem != null) {
-                rankingItem.setTotalScore(rankingItem.getTotalScore().add(record.getScore()));
-                rankingItem.setTotalShots(rankingItem.getTotalShots() + 1);
-                rankingItem.setLastShotTime(record.getShotAt());
+    /**
+     * 比赛结束时立即发布尚未广播的排名变化，并移除实时排行榜
+     * 
+     * @param competitionId 比赛ID
+     */
+    private void publishFinalRanking(Integer competitionId) {
+        targetProfiles.remove(competitionId.longValue());
+        LiveLeaderboard leaderboard = liveLeaderboards.remove(competitionId.longValue());
+        if (leaderboard != null) {
+            rankingBroadcaster.flush(leaderboard);
+        }
+    }
+    
+    /**
+     * 从数据库构建比赛的实时排行榜
+     * 
+     * @param competitionId 比赛ID
+     * @return 排行榜
+     */
+    private LiveLeaderboard buildLeaderboard(Integer competitionId) {
+        LiveLeaderboard leaderboard = new LiveLeaderboard(competitionId.longValue());
+        for (CompetitionAthlete athlete : competitionAthleteMapper.findByCompetitionId(competitionId)) {
+            leaderboard.register(athlete.getAthleteId(), athlete.getAthleteName());
+        }
+        for (ShootingRecord record : shootingRecordMapper.findByCompetitionId(competitionId)) {
+            leaderboard.load(record.getAthleteId(), record.getScore(), record.getShotAt());
+        }
+        return leaderboard;
+    }
+    
+    /**
+     * 启动后恢复进行中和已暂停的比赛
+     * 在所有组件初始化（包括写入管道回放本地日志）之后执行，多场比赛并行恢复
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rehydrateCompetitions() {
+        try {
+            List<Competition> competitions = new ArrayList<>(competitionMapper.findByStatus("RUNNING"));
+            competitions.addAll(competitionMapper.findByStatus("PAUSED"));
+            Map<Long, CompetitionStatus> snapshots = competitionStateStore.loadPersisted();
+            
+            // 清理已结束比赛遗留的状态快照
+            Set<Long> activeIds = competitions.stream()
+                    .map(competition -> competition.getId().longValue())
+                    .collect(Collectors.toSet());
+            for (Long competitionId : snapshots.keySet()) {
+                if (!activeIds.contains(competitionId)) {
+                    competitionStateStore.remove(competitionId);
+                }
             }
+            if (competitions.isEmpty()) {
+                return;
+            }
+            
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(competitions.size(), REHYDRATE_PARALLELISM));
+            try {
+                CompletableFuture<?>[] futures = competitions.stream()
+                        .map(competition -> CompletableFuture
+                                .runAsync(() -> rehydrateCompetition(competition,
+                                        snapshots.get(competition.getId().longValue())), executor)
+                                .exceptionally(e -> {
+                                    logger.error("恢复比赛状态失败，比赛ID: {}", competition.getId(), e);
+                                    return null;
+                                }))
+                        .toArray(CompletableFuture[]::new);
+                CompletableFuture.allOf(futures).join();
+            } finally {
+                executor.shutdown();
+            }
+            logger.info("已恢复{}场进行中的比赛，其中{}场使用持久化状态", competitions.size(),
+                    competitions.stream().filter(c -> snapshots.containsKey(c.getId().longValue())).count());
+        } catch (Exception e) {
+            logger.error("恢复进行中的比赛失败", e);
+        }
+    }
+    
+    /**
+     * 恢复单场比赛：状态优先取持久化快照以保留开始时间和累计暂停时长，
+     * 排行榜和射击校验由数据库中的报名和射击记录重建
+     * 
+     * @param competition 比赛对象
+     * @param snapshot 持久化的比赛状态，没有时为null
+     */
+    private void rehydrateCompetition(Competition competition, CompetitionStatus snapshot) {
+        Integer competitionId = competition.getId();
+        CompetitionStatus status = snapshot;
+        if (status == null) {
+            status = new CompetitionStatus();
+            status.setCompetitionId(competitionId.longValue());
+            status.setStartTime(competition.getStartedAt());
         }
         
-        // 将结果转换为RankingItemDTO列表
-        List<RankingItemDTO> rankings = new ArrayList<>(athleteScores.values());
-        
-        // 按总分降序排序
-        rankings.sort((r1, r2) -> r2.getTotalScore().compareTo(r1.getTotalScore()));
-        
-        // 添加排名信息
-        for (int i = 0; i < rankings.size(); i++) {
-            // 排名从1开始
-            rankings.get(i).setRank(i + 1);
+        // 以数据库中的比赛状态为准，补齐未闭合或缺失的暂停段
+        if ("PAUSED".equals(competition.getStatus()) && status.getPauseTime() == null) {
+            status.setPauseTime(LocalDateTime.now());
+        } else if ("RUNNING".equals(competition.getStatus()) && status.getPauseTime() != null) {
+            status.setResumeTime(LocalDateTime.now());
         }
+        status.setStatus(competition.getStatus());
         
-        return rankings;
+        LiveLeaderboard leaderboard = buildLeaderboard(competitionId);
+        status.initShotGuard(resolveShotQuota(competition), collectShotCounts(leaderboard));
+        liveLeaderboards.put(competitionId.longValue(), leaderboard);
+        competitionStateStore.save(status);
+    }
+    
+    /**
+     * 根据数据库中的射击记录计算排名
+     * 与实时排行榜使用同一排行榜结构和排序规则（总分、射击次数、最后射击时间、运动员ID），
+     * 同分运动员在实时排名和最终排名中的先后一致
+     */
+    private List<RankingItemDTO> calculateRanking(Integer competitionId) {
+        return buildLeaderboard(competitionId).snapshot();
     }
     
     /**
@@ -989,6 +1326,7 @@ public class CompetitionService {
             
             // 保存报名信息
             competitionAthleteMapper.insert(competitionAthlete);
+            athleteProfileCache.invalidate(athleteId);
             enrolledCount++;
         }
         
@@ -1019,7 +1357,16 @@ public class CompetitionService {
         competitionMapper.update(competition);
         
         // 如果比赛正在进行中，从内存中移除比赛状态
-        competitionStatusMap.remove(competitionId.longValue());
+        competitionStateStore.remove(competitionId.longValue());
+        try {
+            shotIngestionPipeline.close(competitionId);
+        } catch (RuntimeException e) {
+            // 已取消的比赛不生成成绩，积压的记录由写入管道继续写库
+            logger.warn("取消比赛时射击记录尚未全部写入，比赛ID: {}: {}", competitionId, e.getMessage());
+        }
+        liveLeaderboards.remove(competitionId.longValue());
+        targetProfiles.remove(competitionId.longValue());
+        rankingBroadcaster.discard(competitionId.longValue());
         
         // 通过WebSocket广播比赛取消消息
         webSocketService.sendCompetitionStatusUpdate(
@@ -1038,7 +1385,7 @@ public class CompetitionService {
      */
     public CompetitionStatus getCompetitionStatus(Integer competitionId) {
         // 先从内存中获取运行时状态
-        CompetitionStatus status = competitionStatusMap.get(competitionId.longValue());
+        CompetitionStatus status = competitionStateStore.get(competitionId.longValue());
         
         if (status != null) {
             return status;
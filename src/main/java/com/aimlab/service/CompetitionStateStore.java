@@ -0,0 +1,44 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.CompetitionStatus;
+
+import java.util.Map;
+
+/**
+ * 比赛运行时状态存储
+ * 进行中的比赛状态始终保存在内存中供射击校验等热路径读取，
+ * 实现类决定状态变更（开始、暂停、恢复、结束）是否同时持久化，以便重启后恢复。
+ * 射击次数不在此持久化，恢复时由射击记录重新统计。
+ */
+public interface CompetitionStateStore {
+
+    /**
+     * 获取内存中的比赛状态
+     *
+     * @param competitionId 比赛ID
+     * @return 比赛状态，不存在时返回null
+     */
+    CompetitionStatus get(Long competitionId);
+
+    /**
+     * 保存比赛状态，每次状态变更后调用
+     *
+     * @param status 比赛状态
+     */
+    void save(CompetitionStatus status);
+
+    /**
+     * 移除比赛状态
+     *
+     * @param competitionId 比赛ID
+     * @return 被移除的比赛状态，不存在时返回null
+     */
+    CompetitionStatus remove(Long competitionId);
+
+    /**
+     * 读取已持久化的比赛状态，用于启动时恢复
+     *
+     * @return 比赛ID到状态的映射，不持久化的实现返回空映射
+     */
+    Map<Long, CompetitionStatus> loadPersisted();
+}
@@ -0,0 +1,40 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.CompetitionStatus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 仅保存在内存中的比赛状态存储，重启后暂停时长等信息丢失，
+ * 比赛状态只能根据数据库中的比赛信息重建
+ */
+@Component
+@ConditionalOnProperty(name = "aimlab.competition.state-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCompetitionStateStore implements CompetitionStateStore {
+
+    private final Map<Long, CompetitionStatus> statuses = new ConcurrentHashMap<>();
+
+    @Override
+    public CompetitionStatus get(Long competitionId) {
+        return statuses.get(competitionId);
+    }
+
+    @Override
+    public void save(CompetitionStatus status) {
+        statuses.put(status.getCompetitionId(), status);
+    }
+
+    @Override
+    public CompetitionStatus remove(Long competitionId) {
+        return statuses.remove(competitionId);
+    }
+
+    @Override
+    public Map<Long, CompetitionStatus> loadPersisted() {
+        return Collections.emptyMap();
+    }
+}
@@ -0,0 +1,368 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.RankingDeltaDTO;
+import com.aimlab.dto.RankingItemDTO;
+import com.aimlab.dto.RankingSnapshotDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 比赛实时排行榜
+ * 使用按子树大小增强的 Treap（顺序统计树）维护排名，
+ * 单次射击的分数变化以 O(log n) 更新，名次查询同样为 O(log n)。
+ * 排序规则：总分降序、射击次数升序、最后射击时间升序、运动员ID升序。
+ * 射击可以立即产生增量，也可以先累积，按发布节奏合并为一个带序列号的增量，
+ * 客户端可据此只应用变化的排名项。
+ */
+public class LiveLeaderboard {
+
+    private static final Comparator<Standing> ORDER = Comparator
+            .comparing((Standing s) -> s.totalScore, Comparator.reverseOrder())
+            .thenComparingInt(s -> s.totalShots)
+            .thenComparing(s -> s.lastShotTime, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(s -> s.athleteId);
+
+    private final Long competitionId;
+
+    /**
+     * 排行榜纪元，用于让客户端识别排行榜重建
+     */
+    private final long epoch = System.currentTimeMillis();
+
+    /**
+     * 已发布增量的序列号
+     */
+    private long sequence;
+
+    /**
+     * 尚未发布的名次变化区间 [pendingFrom, pendingTo]，pendingFrom 为0表示没有未发布的变化
+     * 每次射击只影响其新旧名次之间的排名项，多次射击的影响范围合并为区间的并集外包
+     */
+    private int pendingFrom;
+
+    private int pendingTo;
+
+    /**
+     * 运动员ID到当前成绩的索引
+     */
+    private final Map<Long, Standing> standings = new HashMap<>();
+
+    private Node root;
+
+    public LiveLeaderboard(Long competitionId) {
+        this.competitionId = competitionId;
+    }
+
+    public Long getCompetitionId() {
+        return competitionId;
+    }
+
+    /**
+     * 登记参赛运动员，初始成绩为0
+     *
+     * @param athleteId 运动员ID
+     * @param athleteName 运动员姓名
+     */
+    public synchronized void register(Long athleteId, String athleteName) {
+        if (athleteId == null || standings.containsKey(athleteId)) {
+            return;
+        }
+        Standing standing = new Standing(athleteId, athleteName, BigDecimal.ZERO, 0, null);
+        standings.put(athleteId, standing);
+        root = insert(root, standing);
+    }
+
+    /**
+     * 载入历史射击记录，用于初始化排行榜，不产生增量
+     *
+     * @param athleteId 运动员ID
+     * @param score 本次得分
+     * @param shotAt 射击时间
+     */
+    public synchronized void load(Long athleteId, BigDecimal score, LocalDateTime shotAt) {
+        Standing current = standings.get(athleteId);
+        if (current != null) {
+            applyShot(current, score, shotAt);
+        }
+    }
+
+    /**
+     * 应用一次射击的分数变化并立即生成增量
+     * 增量包含该运动员以及因其名次上升而被挤后的运动员，连同此前未发布的变化
+     *
+     * @param athleteId 运动员ID
+     * @param score 本次得分
+     * @param shotAt 射击时间
+     * @return 排名增量；运动员未登记时返回null
+     */
+    public synchronized RankingDeltaDTO recordShot(Long athleteId, BigDecimal score, LocalDateTime shotAt) {
+        return markShot(athleteId, score, shotAt) ? drainDelta() : null;
+    }
+
+    /**
+     * 应用一次射击的分数变化，变化暂不发布，由 {@link #drainDelta()} 合并发布
+     *
+     * @param athleteId 运动员ID
+     * @param score 本次得分
+     * @param shotAt 射击时间
+     * @return 运动员未登记时返回false
+     */
+    public synchronized boolean markShot(Long athleteId, BigDecimal score, LocalDateTime shotAt) {
+        Standing current = standings.get(athleteId);
+        if (current == null) {
+            return false;
+        }
+        int oldRank = rankOf(current);
+        int newRank = rankOf(applyShot(current, score, shotAt));
+
+        int from = Math.min(oldRank, newRank);
+        int to = Math.max(oldRank, newRank);
+        pendingFrom = pendingFrom == 0 ? from : Math.min(pendingFrom, from);
+        pendingTo = Math.max(pendingTo, to);
+        return true;
+    }
+
+    /**
+     * 将未发布的变化合并为一个增量
+     *
+     * @return 排名增量；没有未发布的变化时返回null
+     */
+    public synchronized RankingDeltaDTO drainDelta() {
+        if (pendingFrom == 0) {
+            return null;
+        }
+        List<RankingItemDTO> changes = new ArrayList<>();
+        collectRange(root, 0, pendingFrom, pendingTo, changes);
+        pendingFrom = 0;
+        pendingTo = 0;
+
+        RankingDeltaDTO delta = new RankingDeltaDTO();
+        delta.setCompetitionId(competitionId);
+        delta.setEpoch(epoch);
+        delta.setSequence(++sequence);
+        delta.setTotalAthletes(standings.size());
+        delta.setChanges(changes);
+        return delta;
+    }
+
+    private Standing applyShot(Standing current, BigDecimal score, LocalDateTime shotAt) {
+        root = remove(root, current);
+
+        LocalDateTime lastShotTime = current.lastShotTime;
+        if (shotAt != null && (lastShotTime == null || shotAt.isAfter(lastShotTime))) {
+            lastShotTime = shotAt;
+        }
+        Standing updated = new Standing(
+                current.athleteId,
+                current.athleteName,
+                current.totalScore.add(score != null ? score : BigDecimal.ZERO),
+                current.totalShots + 1,
+                lastShotTime);
+        standings.put(updated.athleteId, updated);
+        root = insert(root, updated);
+        return updated;
+    }
+
+    /**
+     * 查询运动员当前名次
+     *
+     * @param athleteId 运动员ID
+     * @return 名次（从1开始）；运动员未登记时返回null
+     */
+    public synchronized Integer getRank(Long athleteId) {
+        Standing standing = standings.get(athleteId);
+        return standing != null ? rankOf(standing) : null;
+    }
+
+    /**
+     * 按名次顺序导出完整排名
+     *
+     * @return 排名列表
+     */
+    public synchronized List<RankingItemDTO> snapshot() {
+        List<RankingItemDTO> rankings = new ArrayList<>(standings.size());
+        collect(root, rankings);
+        return rankings;
+    }
+
+    /**
+     * 导出带序列号的全量快照
+     *
+     * @return 排名快照
+     */
+    public synchronized RankingSnapshotDTO toSnapshot() {
+        RankingSnapshotDTO snapshot = new RankingSnapshotDTO();
+        snapshot.setCompetitionId(competitionId);
+        snapshot.setEpoch(epoch);
+        snapshot.setSequence(sequence);
+        snapshot.setRankings(snapshot());
+        return snapshot;
+    }
+
+    public synchronized int size() {
+        return standings.size();
+    }
+
+    private int rankOf(Standing key) {
+        int rank = 1;
+        Node node = root;
+        while (node != null) {
+            int cmp = ORDER.compare(key, node.standing);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp == 0) {
+                return rank + size(node.left);
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        throw new IllegalStateException("排行榜数据不一致，运动员ID: " + key.athleteId);
+    }
+
+    private void collect(Node node, List<RankingItemDTO> rankings) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, rankings);
+        rankings.add(toRankingItem(node.standing, rankings.size() + 1));
+        collect(node.right, rankings);
+    }
+
+    /**
+     * 按名次区间 [from, to] 中序收集排名项
+     *
+     * @param offset 当前子树之前的节点数
+     */
+    private void collectRange(Node node, int offset, int from, int to, List<RankingItemDTO> rankings) {
+        if (node == null) {
+            return;
+        }
+        int rank = offset + size(node.left) + 1;
+        if (from < rank) {
+            collectRange(node.left, offset, from, to, rankings);
+        }
+        if (from <= rank && rank <= to) {
+            rankings.add(toRankingItem(node.standing, rank));
+        }
+        if (rank < to) {
+            collectRange(node.right, rank, from, to, rankings);
+        }
+    }
+
+    private Node insert(Node node, Standing standing) {
+        Node[] parts = split(node, standing);
+        return merge(merge(parts[0], new Node(standing)), parts[1]);
+    }
+
+    private Node remove(Node node, Standing standing) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = ORDER.compare(standing, node.standing);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, standing);
+        } else {
+            node.right = remove(node.right, standing);
+        }
+        node.resize();
+        return node;
+    }
+
+    /**
+     * 将子树拆分为 小于key 和 大于等于key 两部分
+     */
+    private Node[] split(Node node, Standing key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (ORDER.compare(node.standing, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.resize();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.resize();
+        return new Node[]{parts[0], node};
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.resize();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.resize();
+        return right;
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private static RankingItemDTO toRankingItem(Standing standing, int rank) {
+        RankingItemDTO item = new RankingItemDTO();
+        item.setRank(rank);
+        item.setAthleteId(standing.athleteId);
+        item.setAthleteName(standing.athleteName);
+        item.setTotalScore(standing.totalScore);
+        item.setTotalShots(standing.totalShots);
+        item.setLastShotTime(standing.lastShotTime);
+        return item;
+    }
+
+    /**
+     * 运动员成绩快照，放入树中后不可修改
+     */
+    private static final class Standing {
+        private final Long athleteId;
+        private final String athleteName;
+        private final BigDecimal totalScore;
+        private final int totalShots;
+        private final LocalDateTime lastShotTime;
+
+        private Standing(Long athleteId, String athleteName, BigDecimal totalScore,
+                         int totalShots, LocalDateTime lastShotTime) {
+            this.athleteId = athleteId;
+            this.athleteName = athleteName;
+            this.totalScore = totalScore;
+            this.totalShots = totalShots;
+            this.lastShotTime = lastShotTime;
+        }
+    }
+
+    private static final class Node {
+        private final Standing standing;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(Standing standing) {
+            this.standing = standing;
+        }
+
+        private void resize() {
+            size = 1 + LiveLeaderboard.size(left) + LiveLeaderboard.size(right);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.aimlab.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 节点内的过期缓存，各业务缓存共用的加载、失效流程
+ * 每个条目属于一个或多个失效范围，默认为键本身。失效时递增范围的版本号并移除条目，
+ * 加载前取得版本号、写入后再比较，加载期间发生失效时丢弃加载结果，避免旧数据覆盖失效结果。
+ * 版本号按范围的哈希分段计数，不随键的数量增长；不同范围落在同一分段时只会多一次未命中。
+ * 处于事务中时在事务结束后再失效一次，避免事务提交前并发加载的旧数据被缓存
+ *
+ * @param <K> 键
+ * @param <V> 值，可以为null
+ */
+public class LocalCache<K, V> {
+
+    private static final int VERSION_STRIPES = 64;
+
+    private final LongSupplier ttlSeconds;
+
+    private final IntSupplier maxEntries;
+
+    /**
+     * 条目所属的失效范围，为null时只属于键本身
+     */
+    private final Function<K, Collection<?>> scopes;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * 全部失效的次数，计入每个键的版本号
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param ttlSeconds 缓存有效期（秒），0表示不缓存；每次写入时读取，可以随配置变化
+     */
+    public LocalCache(LongSupplier ttlSeconds) {
+        this(ttlSeconds, () -> Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * @param ttlSeconds 缓存有效期（秒），0表示不缓存
+     * @param maxEntries 条目上限，超出时先清理过期条目，仍超出则全部清空
+     * @param scopes 条目所属的失效范围，为null时只属于键本身
+     */
+    public LocalCache(LongSupplier ttlSeconds, IntSupplier maxEntries, Function<K, Collection<?>> scopes) {
+        this.ttlSeconds = ttlSeconds;
+        this.maxEntries = maxEntries;
+        this.scopes = scopes;
+    }
+
+    /**
+     * 查询缓存，未缓存或已过期时加载
+     *
+     * @param key 键
+     * @param loader 加载值，结果为null时同样缓存
+     * @return 值
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> cached = entry(key);
+        if (cached != null) {
+            return cached.value;
+        }
+        long version = version(key);
+        V value = loader.apply(key);
+        put(key, version, value);
+        return value;
+    }
+
+    /**
+     * 获取未过期的缓存值
+     *
+     * @param key 键
+     * @return 缓存值，不存在或已过期时返回null
+     */
+    public V getIfPresent(K key) {
+        Entry<V> cached = entry(key);
+        return cached != null ? cached.value : null;
+    }
+
+    /**
+     * 获取当前版本号，加载前调用，写入缓存时传回
+     *
+     * @param key 键
+     * @return 版本号
+     */
+    public long version(K key) {
+        long version = generation.get();
+        for (Object scope : scopesOf(key)) {
+            version += versions.get(stripe(scope));
+        }
+        return version;
+    }
+
+    /**
+     * 写入缓存，加载期间已失效时忽略
+     *
+     * @param key 键
+     * @param version 加载前取得的版本号
+     * @param value 值
+     */
+    public void put(K key, long version, V value) {
+        long ttl = ttlSeconds.getAsLong();
+        if (ttl <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int limit = maxEntries.getAsInt();
+        if (entries.size() >= limit) {
+            purgeExpired(now);
+            if (entries.size() >= limit) {
+                entries.clear();
+            }
+        }
+        Entry<V> loaded = new Entry<>(value, now + ttl * 1000);
+        entries.put(key, loaded);
+        if (version(key) != version) {
+            entries.remove(key, loaded);
+        }
+    }
+
+    /**
+     * 在未过期的缓存值上修改，保留原有过期时间；同时递增版本号，丢弃并发加载的结果
+     *
+     * @param key 键
+     * @param updater 修改缓存值
+     * @return 修改后的值，未缓存时返回null
+     */
+    public V update(K key, UnaryOperator<V> updater) {
+        for (Object scope : scopesOf(key)) {
+            versions.incrementAndGet(stripe(scope));
+        }
+        long now = System.currentTimeMillis();
+        Entry<V> updated = entries.computeIfPresent(key, (k, cached) -> now < cached.expiresAt
+                ? new Entry<>(updater.apply(cached.value), cached.expiresAt) : null);
+        return updated != null ? updated.value : null;
+    }
+
+    /**
+     * 使失效范围内的条目失效，默认范围下即为单个键
+     *
+     * @param scope 失效范围
+     */
+    public void invalidate(Object scope) {
+        if (scope == null) {
+            return;
+        }
+        evict(scope);
+        afterCompletion(() -> evict(scope));
+    }
+
+    /**
+     * 使全部条目失效，用于批量变更
+     */
+    public void invalidateAll() {
+        evictAll();
+        afterCompletion(this::evictAll);
+    }
+
+    /**
+     * @return 未过期条目的键，同时清理已过期的条目
+     */
+    public Collection<K> keys() {
+        purgeExpired(System.currentTimeMillis());
+        return Collections.unmodifiableSet(entries.keySet());
+    }
+
+    private Entry<V> entry(K key) {
+        Entry<V> cached = entries.get(key);
+        if (cached == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= cached.expiresAt) {
+            entries.remove(key, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    private void evict(Object scope) {
+        versions.incrementAndGet(stripe(scope));
+        if (scopes == null) {
+            entries.remove(scope);
+        } else {
+            entries.keySet().removeIf(key -> scopes.apply(key).contains(scope));
+        }
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private void purgeExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private Collection<?> scopesOf(K key) {
+        return scopes != null ? scopes.apply(key) : Collections.singleton(key);
+    }
+
+    private static int stripe(Object scope) {
+        return Math.floorMod(Objects.hashCode(scope), VERSION_STRIPES);
+    }
+
+    private static void afterCompletion(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static class Entry<V> {
+
+        /**
+         * 可以为null，表示已加载但没有值
+         */
+        private final V value;
+
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
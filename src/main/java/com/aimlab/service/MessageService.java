@@ -1,28 +1,83 @@
 package com.aimlab.service;
 
+import com.aimlab.dto.KeysetCursor;
+import com.aimlab.entity.BroadcastMessage;
 import com.aimlab.entity.Message;
-import com.aimlab.entity.User;
+import com.aimlab.mapper.BroadcastMessageMapper;
 import com.aimlab.mapper.MessageMapper;
-import com.aimlab.mapper.UserMapper;
+import com.aimlab.websocket.WebSocketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 站内信消息服务
+ * 多个接收者的消息按批次多行插入；面向全体用户或某一角色的公告使用广播消息，
+ * 只存一行，用户读取收件箱时合并，阅读和删除只记录该用户的标记。
+ * 未读数缓存在内存中，消息变化提交后更新缓存并推送到用户的 /user/queue/messages。
+ * 收件箱按 (created_at, id) 键集分页，总数按需统计并缓存
  */
 @Service
 public class MessageService {
     
+    private static final Logger logger = LoggerFactory.getLogger(MessageService.class);
+    
     @Autowired
     private MessageMapper messageMapper;
     
     @Autowired
-    private UserMapper userMapper;
+    private BroadcastMessageMapper broadcastMessageMapper;
+    
+    @Autowired
+    private AdminRecipientCache adminRecipientCache;
+    
+    @Autowired
+    private UserRoleCache userRoleCache;
+    
+    @Autowired
+    private UnreadCountCache unreadCountCache;
+    
+    @Autowired
+    private WebSocketService webSocketService;
+    
+    @Autowired
+    private PageTotalCache pageTotalCache;
+    
+    /**
+     * 批量发送时单条INSERT语句的最大行数
+     */
+    @Value("${aimlab.message.insert-batch-size:500}")
+    private int insertBatchSize;
+    
+    /**
+     * 消息列表每页最大数量
+     */
+    @Value("${aimlab.pagination.max-size:100}")
+    private int maxPageSize;
+    
+    /**
+     * 收件箱排序：创建时间倒序，同一时间个人消息在前，再按ID倒序，与键集分页的游标比较一致
+     */
+    private static final Comparator<Message> INBOX_ORDER = Comparator
+            .comparing(Message::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(message -> Boolean.TRUE.equals(message.getBroadcast()))
+            .thenComparing(Message::getId, Comparator.nullsLast(Comparator.reverseOrder()));
     
     // 消息类型常量
     public static final String TYPE_SYSTEM = "SYSTEM";
@@ -49,6 +104,7 @@ public class MessageService {
         message.setIsRead(false);
         
         messageMapper.insert(message);
+        changeUnreadCount(Collections.singleton(receiverId), 1);
         return message.getId();
     }
     
@@ -74,13 +130,74 @@ public class MessageService {
     }
     
     /**
-     * 批量发送消息给多个用户
+     * 批量发送消息给多个用户，重复的接收者只发送一次
+     * @return 发送的消息数量
      */
     @Transactional
-    public void sendBatchMessage(Long senderId, List<Long> receiverIds, String title, String content, String type) {
-        for (Long receiverId : receiverIds) {
-            sendMessage(senderId, receiverId, title, content, type);
+    public int sendBatchMessage(Long senderId, Collection<Long> receiverIds, String title, String content, String type) {
+        if (receiverIds == null || receiverIds.isEmpty()) {
+            return 0;
         }
+        int batchSize = Math.max(insertBatchSize, 1);
+        List<Message> batch = new ArrayList<>(Math.min(receiverIds.size(), batchSize));
+        Set<Long> receivers = new LinkedHashSet<>(receiverIds);
+        int sent = 0;
+        for (Long receiverId : receivers) {
+            Message message = new Message();
+            message.setSenderId(senderId);
+            message.setReceiverId(receiverId);
+            message.setTitle(title);
+            message.setContent(content);
+            message.setType(type != null ? type : TYPE_SYSTEM);
+            batch.add(message);
+            if (batch.size() >= batchSize) {
+                sent += messageMapper.batchInsert(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sent += messageMapper.batchInsert(batch);
+        }
+        changeUnreadCount(receivers, 1);
+        return sent;
+    }
+    
+    /**
+     * 发送消息给全部启用的管理员
+     * @return 接收消息的管理员数量，没有管理员时为0
+     */
+    public int sendToAdmins(Long senderId, String title, String content, String type) {
+        return sendBatchMessage(senderId, adminRecipientCache.getAdminIds(), title, content, type);
+    }
+    
+    /**
+     * 发送广播消息，只写入一行，接收者读取收件箱时合并
+     * 受众在读取时判定：发送时已注册（创建时间不晚于广播）且当前角色匹配的用户可见，之后注册的用户看不到
+     * @param senderId 发送者ID（系统消息为null）
+     * @param targetRole 接收角色，null表示全体用户
+     * @return 广播消息ID
+     */
+    @Transactional
+    public Long sendBroadcast(Long senderId, String targetRole, String title, String content, String type) {
+        BroadcastMessage message = new BroadcastMessage();
+        message.setSenderId(senderId);
+        message.setTargetRole(targetRole);
+        message.setTitle(title);
+        message.setContent(content);
+        message.setType(type != null ? type : TYPE_SYSTEM);
+        broadcastMessageMapper.insert(message);
+        pageTotalCache.invalidate(PageTotalCache.INBOX);
+        afterCommit(() -> {
+            // 只需更新已缓存未读数或在线的用户，其余用户下次查询时从数据库加载
+            Set<Long> userIds = new HashSet<>(unreadCountCache.cachedUserIds());
+            userIds.addAll(webSocketService.getConnectedUserIds());
+            for (Long userId : userIds) {
+                if (targetRole == null || targetRole.equals(userRoleCache.getRole(userId))) {
+                    pushUnreadCount(userId, unreadCountCache.adjust(userId, 1));
+                }
+            }
+        });
+        return message.getId();
     }
     
     /**
@@ -91,27 +208,60 @@ public class MessageService {
     }
     
     /**
-     * 获取用户的消息列表（分页）
+     * 获取用户的消息列表
+     * 传入游标时个人消息与广播消息各按 (created_at, id) 倒序从游标处取一页后合并，与第一页开销相同；
+     * 不传游标时按页码跳页，兼容旧的分页方式，由数据库合并排序后只返回一页
+     * @param cursor 上一页返回的 nextCursor，为空时按页码查询
+     * @param withTotal 是否统计总数，为null时只在按页码查询时统计；总数会被缓存
      */
-    public Map<String, Object> getMessageList(Long receiverId, String type, Boolean isRead, int page, int size) {
-        int offset = (page - 1) * size;
-        List<Message> messages = messageMapper.findByReceiverId(receiverId, type, isRead, offset, size);
-        int total = messageMapper.countByReceiverId(receiverId, type, isRead);
+    public Map<String, Object> getMessageList(Long receiverId, String type, Boolean isRead,
+                                              String cursor, int page, int size, Boolean withTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        int pageSize = size <= 0 ? 10 : Math.min(size, maxPageSize);
+        int pageIndex = after == null ? Math.max(page, 1) : 1;
+        int offset = (pageIndex - 1) * pageSize;
+        String role = userRoleCache.getRole(receiverId);
+        
+        List<Message> fetched;
+        if (after == null) {
+            fetched = messageMapper.findInboxPage(receiverId, role, type, isRead, offset, pageSize + 1);
+        } else {
+            fetched = new ArrayList<>(messageMapper.findByReceiverId(receiverId, type, isRead, after, pageSize + 1));
+            fetched.addAll(broadcastMessageMapper.findPageForUser(receiverId, role, type, isRead, after, pageSize + 1));
+            fetched.sort(INBOX_ORDER);
+        }
+        List<Message> messages = new ArrayList<>(fetched.subList(0, Math.min(fetched.size(), pageSize)));
+        boolean hasMore = fetched.size() > pageSize;
         
         Map<String, Object> result = new HashMap<>();
         result.put("list", messages);
-        result.put("total", total);
-        result.put("page", page);
-        result.put("size", size);
-        result.put("pages", (total + size - 1) / size);
+        result.put("size", pageSize);
+        result.put("hasMore", hasMore);
+        String nextCursor = null;
+        if (hasMore && !messages.isEmpty()) {
+            Message last = messages.get(messages.size() - 1);
+            nextCursor = KeysetCursor.encode(last.getCreatedAt(), last.getId(),
+                    Boolean.TRUE.equals(last.getBroadcast()) ? 1 : 0);
+        }
+        result.put("nextCursor", nextCursor);
+        if (after == null) {
+            result.put("page", pageIndex);
+        }
+        if (withTotal != null ? withTotal : after == null) {
+            long total = pageTotalCache.get(inboxNamespace(receiverId), type + "|" + isRead,
+                    () -> messageMapper.countByReceiverId(receiverId, role, type, isRead));
+            result.put("total", total);
+            result.put("pages", (total + pageSize - 1) / pageSize);
+        }
         return result;
     }
     
     /**
-     * 获取用户未读消息数量
+     * 获取用户未读消息数量，优先使用缓存
      */
     public int getUnreadCount(Long receiverId) {
-        return messageMapper.countUnreadByReceiverId(receiverId);
+        return unreadCountCache.get(receiverId, () -> messageMapper.countUnreadByReceiverId(receiverId)
+                + broadcastMessageMapper.countUnread(receiverId, userRoleCache.getRole(receiverId)));
     }
     
     /**
@@ -123,7 +273,11 @@ public class MessageService {
         if (message == null || !message.getReceiverId().equals(userId)) {
             return false;
         }
-        return messageMapper.markAsRead(messageId) > 0;
+        boolean success = messageMapper.markAsRead(messageId) > 0;
+        if (success && !Boolean.TRUE.equals(message.getIsRead())) {
+            changeUnreadCount(Collections.singleton(userId), -1);
+        }
+        return success;
     }
     
     /**
@@ -131,7 +285,14 @@ public class MessageService {
      */
     @Transactional
     public int markAllAsRead(Long userId) {
-        return messageMapper.markAllAsRead(userId);
+        int count = messageMapper.markAllAsRead(userId)
+                + broadcastMessageMapper.markAllAsRead(userId, userRoleCache.getRole(userId));
+        pageTotalCache.invalidate(inboxNamespace(userId));
+        afterCommit(() -> {
+            unreadCountCache.set(userId, 0);
+            pushUnreadCount(userId, 0);
+        });
+        return count;
     }
     
     /**
@@ -143,7 +304,14 @@ public class MessageService {
         if (message == null || !message.getReceiverId().equals(userId)) {
             return false;
         }
-        return messageMapper.deleteById(messageId) > 0;
+        boolean success = messageMapper.deleteById(messageId) > 0;
+        if (success) {
+            pageTotalCache.invalidate(inboxNamespace(userId));
+        }
+        if (success && !Boolean.TRUE.equals(message.getIsRead())) {
+            changeUnreadCount(Collections.singleton(userId), -1);
+        }
+        return success;
     }
     
     /**
@@ -154,7 +322,113 @@ public class MessageService {
         if (messageIds == null || messageIds.isEmpty()) {
             return 0;
         }
-        return messageMapper.deleteByIds(messageIds, userId);
+        int count = messageMapper.deleteByIds(messageIds, userId);
+        if (count > 0) {
+            pageTotalCache.invalidate(inboxNamespace(userId));
+            // 删除的消息中未读的数量未知，重新加载
+            afterCommit(() -> {
+                unreadCountCache.evict(userId);
+                pushUnreadCount(userId, null);
+            });
+        }
+        return count;
+    }
+    
+    /**
+     * 获取用户可见的广播消息
+     * @return 广播消息，用户不可见或已删除时返回null
+     */
+    public Message getBroadcastForUser(Long broadcastId, Long userId) {
+        return broadcastMessageMapper.findForUser(broadcastId, userId, userRoleCache.getRole(userId));
+    }
+    
+    /**
+     * 标记广播消息为已读
+     */
+    @Transactional
+    public boolean markBroadcastAsRead(Long broadcastId, Long userId) {
+        Message message = getBroadcastForUser(broadcastId, userId);
+        if (message == null) {
+            return false;
+        }
+        broadcastMessageMapper.markAsRead(broadcastId, userId);
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            changeUnreadCount(Collections.singleton(userId), -1);
+        }
+        return true;
+    }
+    
+    /**
+     * 删除广播消息，只对当前用户隐藏
+     */
+    @Transactional
+    public boolean deleteBroadcast(Long broadcastId, Long userId) {
+        Message message = getBroadcastForUser(broadcastId, userId);
+        if (message == null) {
+            return false;
+        }
+        broadcastMessageMapper.markDeleted(broadcastId, userId);
+        pageTotalCache.invalidate(inboxNamespace(userId));
+        if (!Boolean.TRUE.equals(message.getIsRead())) {
+            changeUnreadCount(Collections.singleton(userId), -1);
+        }
+        return true;
+    }
+    
+    // ============ 未读数推送 ============
+    
+    /**
+     * 事务提交后增减用户的缓存未读数并推送给在线用户
+     */
+    private void changeUnreadCount(Collection<Long> userIds, int delta) {
+        List<String> inboxes = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            inboxes.add(inboxNamespace(userId));
+        }
+        pageTotalCache.invalidate(inboxes);
+        afterCommit(() -> {
+            for (Long userId : userIds) {
+                pushUnreadCount(userId, unreadCountCache.adjust(userId, delta));
+            }
+        });
+    }
+    
+    /**
+     * 用户收件箱总数缓存的命名空间
+     */
+    private static String inboxNamespace(Long userId) {
+        return PageTotalCache.INBOX + ":" + userId;
+    }
+    
+    /**
+     * 推送未读数，用户不在线时跳过
+     * @param count 未读数，为null时查询（优先使用缓存）
+     */
+    private void pushUnreadCount(Long userId, Integer count) {
+        try {
+            if (!webSocketService.isUserConnected(userId)) {
+                return;
+            }
+            webSocketService.sendUnreadCount(userId, count != null ? count : getUnreadCount(userId));
+        } catch (Exception e) {
+            logger.warn("推送未读消息数失败，用户ID: {}", userId, e);
+        }
+    }
+    
+    /**
+     * 处于事务中时在提交后执行，回滚的消息不会改变未读数
+     */
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+            return;
+        }
+        action.run();
     }
     
     // ============ 审核通知相关方法 ============
@@ -234,11 +508,6 @@ public class MessageService {
      * 通知所有管理员：新运动员注册待审核
      */
     public void notifyAdminsNewAthleteRegistration(String athleteName) {
-        List<User> admins = userMapper.findByRole("ADMIN");
-        if (admins == null || admins.isEmpty()) {
-            return;
-        }
-        
         String title = "新运动员注册待审核";
         String content = String.format(
             "有新的运动员注册申请需要审核：\n\n" +
@@ -248,20 +517,13 @@ public class MessageService {
             athleteName
         );
         
-        for (User admin : admins) {
-            sendApprovalNotification(admin.getId(), title, content);
-        }
+        sendToAdmins(null, title, content, TYPE_APPROVAL);
     }
     
     /**
      * 通知所有管理员：运动员档案修改待审核
      */
     public void notifyAdminsAthleteModification(String athleteName) {
-        List<User> admins = userMapper.findByRole("ADMIN");
-        if (admins == null || admins.isEmpty()) {
-            return;
-        }
-        
         String title = "运动员档案修改待审核";
         String content = String.format(
             "有运动员档案修改申请需要审核：\n\n" +
@@ -271,8 +533,6 @@ public class MessageService {
             athleteName
         );
         
-        for (User admin : admins) {
-            sendApprovalNotification(admin.getId(), title, content);
-        }
+        sendToAdmins(null, title, content, TYPE_APPROVAL);
     }
 }
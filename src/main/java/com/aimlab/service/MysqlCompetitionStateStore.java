@@ -0,0 +1,69 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.CompetitionStatus;
+import com.aimlab.mapper.CompetitionStateMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 以 competition_states 快照表持久化的比赛状态存储
+ * 读取只访问内存，状态变更时覆盖写入一行快照；
+ * 快照写入失败只记录日志，不影响比赛进行
+ */
+@Component
+@ConditionalOnProperty(name = "aimlab.competition.state-store", havingValue = "mysql")
+public class MysqlCompetitionStateStore implements CompetitionStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(MysqlCompetitionStateStore.class);
+
+    @Autowired
+    private CompetitionStateMapper competitionStateMapper;
+
+    private final Map<Long, CompetitionStatus> statuses = new ConcurrentHashMap<>();
+
+    @Override
+    public CompetitionStatus get(Long competitionId) {
+        return statuses.get(competitionId);
+    }
+
+    @Override
+    public void save(CompetitionStatus status) {
+        statuses.put(status.getCompetitionId(), status);
+        try {
+            competitionStateMapper.upsert(status);
+        } catch (Exception e) {
+            logger.error("保存比赛状态快照失败，比赛ID: {}", status.getCompetitionId(), e);
+        }
+    }
+
+    @Override
+    public CompetitionStatus remove(Long competitionId) {
+        CompetitionStatus removed = statuses.remove(competitionId);
+        try {
+            competitionStateMapper.deleteByCompetitionId(competitionId);
+        } catch (Exception e) {
+            logger.error("删除比赛状态快照失败，比赛ID: {}", competitionId, e);
+        }
+        return removed;
+    }
+
+    @Override
+    public Map<Long, CompetitionStatus> loadPersisted() {
+        Map<Long, CompetitionStatus> snapshots = new HashMap<>();
+        try {
+            for (CompetitionStatus status : competitionStateMapper.findAll()) {
+                snapshots.put(status.getCompetitionId(), status);
+            }
+        } catch (Exception e) {
+            logger.error("读取比赛状态快照失败", e);
+        }
+        return snapshots;
+    }
+}
@@ -0,0 +1,120 @@
+package com.aimlab.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+
+/**
+ * 分页总数缓存
+ * 列表接口只在客户端要求时返回精确总数，COUNT 结果按命名空间和筛选条件缓存，翻页时不再重复统计。
+ * 数据变化时按命名空间失效，过期时间兜底
+ */
+@Component
+public class PageTotalCache {
+
+    public static final String USERS = "users";
+
+    public static final String ATHLETES = "athletes";
+
+    /**
+     * 收件箱的命名空间，单个用户为 inbox:{userId}，使 inbox 失效时包含全部用户
+     */
+    public static final String INBOX = "inbox";
+
+    /**
+     * 缓存有效期（秒），0表示不缓存
+     */
+    @Value("${aimlab.pagination.total-cache-seconds:30}")
+    private long ttlSeconds;
+
+    /**
+     * 缓存的条目上限，超出时先清理过期条目，仍超出则全部清空
+     */
+    @Value("${aimlab.pagination.total-cache-max-entries:10000}")
+    private int maxEntries;
+
+    /**
+     * 条目属于所在命名空间及其各级上级命名空间，使上级命名空间失效时一并失效
+     */
+    private final LocalCache<TotalKey, Long> totals = new LocalCache<>(() -> ttlSeconds, () -> maxEntries, TotalKey::scopes);
+
+    /**
+     * 查询总数，未缓存或已过期时统计
+     *
+     * @param namespace 命名空间，失效时使用
+     * @param filters 筛选条件，同一命名空间下区分不同的统计
+     * @param loader 统计总数
+     * @return 总数
+     */
+    public long get(String namespace, String filters, LongSupplier loader) {
+        return totals.get(new TotalKey(namespace, filters), key -> loader.getAsLong());
+    }
+
+    /**
+     * 使命名空间及其下级命名空间的总数失效
+     *
+     * @param namespace 命名空间
+     */
+    public void invalidate(String namespace) {
+        totals.invalidate(namespace);
+    }
+
+    /**
+     * 使多个命名空间的总数失效
+     *
+     * @param namespaces 命名空间
+     */
+    public void invalidate(Collection<String> namespaces) {
+        for (String namespace : new HashSet<>(namespaces)) {
+            totals.invalidate(namespace);
+        }
+    }
+
+    private static class TotalKey {
+
+        private final String namespace;
+
+        private final String filters;
+
+        private TotalKey(String namespace, String filters) {
+            this.namespace = namespace;
+            this.filters = filters;
+        }
+
+        /**
+         * @return 命名空间自身及各级上级命名空间
+         */
+        private Collection<?> scopes() {
+            List<String> scopes = new ArrayList<>();
+            for (String current = namespace; ; current = current.substring(0, current.lastIndexOf(':'))) {
+                scopes.add(current);
+                if (current.indexOf(':') < 0) {
+                    return scopes;
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TotalKey)) {
+                return false;
+            }
+            TotalKey other = (TotalKey) o;
+            return namespace.equals(other.namespace) && Objects.equals(filters, other.filters);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(namespace, filters);
+        }
+    }
+}
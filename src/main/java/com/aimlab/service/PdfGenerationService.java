@@ -1,10 +1,9 @@
 package com.aimlab.service;
 
+import com.aimlab.dto.ShootingRecordDTO;
 import com.aimlab.dto.TrainingReportDTO;
 import com.aimlab.entity.Competition;
 import com.aimlab.entity.CompetitionResult;
-import com.aimlab.entity.ShootingRecord;
-import com.aimlab.mapper.ShootingRecordMapper;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfFontFactory;
@@ -17,7 +16,6 @@ import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
@@ -30,9 +28,6 @@ import java.util.List;
 @Service
 public class PdfGenerationService {
 
-    @Autowired
-    private ShootingRecordMapper shootingRecordMapper;
-    
     /**
      * 生成训练报告PDF
      * 
@@ -116,8 +111,8 @@ public class PdfGenerationService {
             document.add(new Paragraph("射击详细记录").setFontSize(16).setBold());
             document.add(new Paragraph("").setHeight(10));
             
-            // 获取该训练场次的所有射击记录
-            List<ShootingRecord> records = shootingRecordMapper.findByTrainingSessionId(reportDTO.getId());
+            // 训练报告中已按时间排序的射击记录
+            List<ShootingRecordDTO> records = reportDTO.getRecords();
             
             if (records != null && !records.isEmpty()) {
                 Table recordsTable = new Table(UnitValue.createPercentArray(new float[]{15, 25, 20, 20, 20}))
@@ -130,12 +125,12 @@ public class PdfGenerationService {
                 recordsTable.addHeaderCell(createHeaderCell("Y坐标"));
                 
                 int counter = 1;
-                for (ShootingRecord record : records) {
+                for (ShootingRecordDTO record : records) {
                     recordsTable.addCell(createCell(String.valueOf(counter++)));
                     recordsTable.addCell(createCell(record.getShotAt().format(formatter)));
-                    recordsTable.addCell(createCell(record.getScore().toString()));
-                    recordsTable.addCell(createCell(record.getX().toString()));
-                    recordsTable.addCell(createCell(record.getY().toString()));
+                    recordsTable.addCell(createCell(String.format("%.1f", record.getScore())));
+                    recordsTable.addCell(createCell(String.format("%.4f", record.getX())));
+                    recordsTable.addCell(createCell(String.format("%.4f", record.getY())));
                 }
                 
                 document.add(recordsTable);
@@ -0,0 +1,124 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.RankingDeltaDTO;
+import com.aimlab.websocket.WebSocketService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 实时排名广播节流
+ * 射击只标记排行榜有未发布的变化，后台按固定节奏将每场比赛的变化合并为一个增量发布，
+ * 同一场比赛每个周期最多广播一次排名，与同时射击的运动员数量无关
+ */
+@Component
+public class RankingBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingBroadcaster.class);
+
+    @Autowired
+    private WebSocketService webSocketService;
+
+    /**
+     * 排名广播周期（毫秒），0表示每次射击立即广播
+     */
+    @Value("${aimlab.competition.ranking.broadcast-interval-ms:100}")
+    private long broadcastIntervalMs;
+
+    /**
+     * 有未发布变化的排行榜
+     */
+    private final Map<Long, LiveLeaderboard> dirtyLeaderboards = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (broadcastIntervalMs <= 0) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ranking-broadcaster");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(this::publishDirty, broadcastIntervalMs, broadcastIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("实时排名按 {}ms 周期合并广播", broadcastIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 记录一次射击对排名的影响，并安排广播
+     *
+     * @param leaderboard 排行榜
+     * @param athleteId 运动员ID
+     * @param score 本次得分
+     * @param shotAt 射击时间
+     */
+    public void recordShot(LiveLeaderboard leaderboard, Long athleteId, BigDecimal score, LocalDateTime shotAt) {
+        if (scheduler == null) {
+            publish(leaderboard.recordShot(athleteId, score, shotAt));
+            return;
+        }
+        if (leaderboard.markShot(athleteId, score, shotAt)) {
+            dirtyLeaderboards.put(leaderboard.getCompetitionId(), leaderboard);
+        }
+    }
+
+    /**
+     * 立即发布排行榜尚未广播的变化，用于比赛结束时推送最终排名
+     *
+     * @param leaderboard 排行榜
+     */
+    public void flush(LiveLeaderboard leaderboard) {
+        dirtyLeaderboards.remove(leaderboard.getCompetitionId());
+        publish(leaderboard.drainDelta());
+    }
+
+    /**
+     * 丢弃比赛尚未广播的变化，用于比赛取消
+     *
+     * @param competitionId 比赛ID
+     */
+    public void discard(Long competitionId) {
+        dirtyLeaderboards.remove(competitionId);
+    }
+
+    private void publishDirty() {
+        for (Long competitionId : dirtyLeaderboards.keySet()) {
+            LiveLeaderboard leaderboard = dirtyLeaderboards.remove(competitionId);
+            if (leaderboard == null) {
+                continue;
+            }
+            try {
+                publish(leaderboard.drainDelta());
+            } catch (Exception e) {
+                logger.error("广播比赛排名失败，比赛ID: {}", competitionId, e);
+            }
+        }
+    }
+
+    private void publish(RankingDeltaDTO delta) {
+        if (delta != null) {
+            webSocketService.sendRankingDelta(String.valueOf(delta.getCompetitionId()), delta);
+        }
+    }
+}
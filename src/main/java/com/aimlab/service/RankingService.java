@@ -6,10 +6,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 排行榜服务类
+ * 全站、等级、月度及运动员排名读取内存快照，比赛和时间范围排行榜直接查询
  */
 @Service
 public class RankingService {
@@ -17,6 +19,9 @@ public class RankingService {
     @Autowired
     private RankingMapper rankingMapper;
     
+    @Autowired
+    private RankingSnapshotService rankingSnapshotService;
+    
     /**
      * 获取全站排行榜
      * @param limit 返回条数
@@ -26,7 +31,7 @@ public class RankingService {
         if (limit == null || limit <= 0) {
             limit = 100;
         }
-        return rankingMapper.getOverallRanking(limit);
+        return rankingSnapshotService.getOverallRanking(limit);
     }
     
     /**
@@ -39,7 +44,7 @@ public class RankingService {
         if (limit == null || limit <= 0) {
             limit = 100;
         }
-        return rankingMapper.getRankingByLevel(level, limit);
+        return rankingSnapshotService.getRankingByLevel(level, limit);
     }
     
     /**
@@ -53,7 +58,10 @@ public class RankingService {
         if (limit == null || limit <= 0) {
             limit = 100;
         }
-        return rankingMapper.getMonthlyRanking(year, month, limit);
+        if (month < 1 || month > 12) {
+            return Collections.emptyList();
+        }
+        return rankingSnapshotService.getMonthlyRanking(YearMonth.of(year, month), limit);
     }
     
     /**
@@ -95,7 +103,7 @@ public class RankingService {
      * @return 排名信息
      */
     public RankingDTO getAthleteRanking(Long athleteId) {
-        return rankingMapper.getAthleteRanking(athleteId);
+        return rankingSnapshotService.getAthleteRanking(athleteId);
     }
     
     /**
@@ -106,7 +114,10 @@ public class RankingService {
      * @return 排名信息
      */
     public RankingDTO getAthleteMonthlyRanking(Long athleteId, Integer year, Integer month) {
-        return rankingMapper.getAthleteMonthlyRanking(athleteId, year, month);
+        if (month < 1 || month > 12) {
+            return null;
+        }
+        return rankingSnapshotService.getAthleteMonthlyRanking(athleteId, YearMonth.of(year, month));
     }
     
     /**
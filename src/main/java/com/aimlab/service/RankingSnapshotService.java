@@ -0,0 +1,329 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.AthleteMonthlyResultDTO;
+import com.aimlab.dto.RankingDTO;
+import com.aimlab.mapper.RankingMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 排行榜快照
+ * 全站、按等级、按月的排行榜及运动员到排名的索引保存在内存中，公开排行榜查询只读快照，不访问数据库。
+ * 比赛生成最终成绩或运动员审核、档案变更后在后台重新计算并整体替换快照，定时刷新兜底
+ */
+@Component
+public class RankingSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RankingSnapshotService.class);
+
+    private static final Comparator<RankingDTO> RANKING_ORDER = Comparator
+            .comparing(RankingDTO::getAverageScore, Comparator.reverseOrder())
+            .thenComparing(RankingDTO::getTotalScore, Comparator.reverseOrder())
+            .thenComparing(RankingDTO::getAthleteId);
+
+    @Autowired
+    private RankingMapper rankingMapper;
+
+    /**
+     * 定时刷新周期（秒），0表示只在成绩或运动员变更时刷新
+     */
+    @Value("${aimlab.ranking.snapshot-refresh-seconds:300}")
+    private long refreshSeconds;
+
+    private volatile Snapshot snapshot;
+
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ranking-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (refreshSeconds > 0) {
+            scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 启动后在后台生成第一份快照
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        requestRefresh();
+    }
+
+    /**
+     * 安排后台重新计算快照，处于事务中时在事务提交后执行；
+     * 尚未执行的刷新请求会合并为一次
+     */
+    public void requestRefresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRefresh();
+                }
+            });
+            return;
+        }
+        scheduleRefresh();
+    }
+
+    /**
+     * 立即重新计算快照
+     */
+    public synchronized void refresh() {
+        long start = System.currentTimeMillis();
+        snapshot = Snapshot.build(rankingMapper.findMonthlyResultSummaries());
+        logger.info("排行榜快照已更新，运动员 {} 名，耗时 {}ms",
+                snapshot.overall.size(), System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @param limit 返回条数
+     * @return 全站排行榜前 limit 名
+     */
+    public List<RankingDTO> getOverallRanking(int limit) {
+        return top(current().overall, limit);
+    }
+
+    /**
+     * @param level 运动员等级
+     * @param limit 返回条数
+     * @return 该等级排行榜前 limit 名
+     */
+    public List<RankingDTO> getRankingByLevel(String level, int limit) {
+        return top(current().byLevel.getOrDefault(level, Collections.emptyList()), limit);
+    }
+
+    /**
+     * @param month 月份
+     * @param limit 返回条数
+     * @return 月度排行榜前 limit 名，只包含当月有比赛成绩的运动员
+     */
+    public List<RankingDTO> getMonthlyRanking(YearMonth month, int limit) {
+        return top(current().monthly.getOrDefault(month, Collections.emptyList()), limit);
+    }
+
+    /**
+     * @param athleteId 运动员ID
+     * @return 运动员的全站排名，未审核或不存在时返回null
+     */
+    public RankingDTO getAthleteRanking(Long athleteId) {
+        return current().overallIndex.get(athleteId);
+    }
+
+    /**
+     * @param athleteId 运动员ID
+     * @param month 月份
+     * @return 运动员的月度排名；当月没有比赛成绩时名次为1、各项成绩为0，与原有接口一致；未审核或不存在时返回null
+     */
+    public RankingDTO getAthleteMonthlyRanking(Long athleteId, YearMonth month) {
+        Snapshot current = current();
+        RankingDTO ranking = current.monthlyIndex.getOrDefault(month, Collections.emptyMap()).get(athleteId);
+        if (ranking != null) {
+            return ranking;
+        }
+        RankingDTO overall = current.overallIndex.get(athleteId);
+        if (overall == null) {
+            return null;
+        }
+        return new RankingDTO(1, overall.getAthleteId(), overall.getAthleteName(),
+                overall.getAthleteLevel(), overall.getGender(), BigDecimal.ZERO, BigDecimal.ZERO,
+                0, BigDecimal.ZERO, BigDecimal.ZERO);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                refresh();
+            }
+            return snapshot;
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            scheduler.execute(() -> {
+                refreshPending.set(false);
+                refreshQuietly();
+            });
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            logger.error("更新排行榜快照失败，继续使用旧快照", e);
+        }
+    }
+
+    private static List<RankingDTO> top(List<RankingDTO> ranking, int limit) {
+        return new ArrayList<>(ranking.subList(0, Math.min(limit, ranking.size())));
+    }
+
+    /**
+     * 不可变的排行榜快照
+     */
+    static class Snapshot {
+
+        final List<RankingDTO> overall;
+
+        final Map<Long, RankingDTO> overallIndex;
+
+        final Map<String, List<RankingDTO>> byLevel;
+
+        final Map<YearMonth, List<RankingDTO>> monthly;
+
+        final Map<YearMonth, Map<Long, RankingDTO>> monthlyIndex;
+
+        private Snapshot(List<RankingDTO> overall, Map<String, List<RankingDTO>> byLevel,
+                         Map<YearMonth, List<RankingDTO>> monthly) {
+            this.overall = overall;
+            this.overallIndex = index(overall);
+            this.byLevel = byLevel;
+            this.monthly = monthly;
+            this.monthlyIndex = new HashMap<>();
+            monthly.forEach((month, ranking) -> monthlyIndex.put(month, index(ranking)));
+        }
+
+        /**
+         * 由按月汇总的成绩计算全部排行榜，排序规则为平均成绩、总成绩降序
+         *
+         * @param rows 数据源
+         * @return 快照
+         */
+        static Snapshot build(List<AthleteMonthlyResultDTO> rows) {
+            Map<Long, Totals> careers = new HashMap<>();
+            Map<YearMonth, List<RankingDTO>> monthly = new HashMap<>();
+            for (AthleteMonthlyResultDTO row : rows) {
+                Totals career = careers.computeIfAbsent(row.getAthleteId(), id -> new Totals(row));
+                if (row.getResultYear() == null || row.getResultCount() == null || row.getResultCount() == 0) {
+                    continue;
+                }
+                Totals month = new Totals(row).add(row);
+                career.add(row);
+                monthly.computeIfAbsent(YearMonth.of(row.getResultYear(), row.getResultMonth()), m -> new ArrayList<>())
+                        .add(month.toRanking());
+            }
+
+            List<RankingDTO> overall = new ArrayList<>(careers.size());
+            for (Totals career : careers.values()) {
+                overall.add(career.toRanking());
+            }
+            rank(overall);
+
+            Map<String, List<RankingDTO>> byLevel = new HashMap<>();
+            for (RankingDTO ranking : overall) {
+                if (ranking.getAthleteLevel() != null) {
+                    byLevel.computeIfAbsent(ranking.getAthleteLevel(), level -> new ArrayList<>()).add(copy(ranking));
+                }
+            }
+            byLevel.values().forEach(Snapshot::rank);
+            monthly.values().forEach(Snapshot::rank);
+            return new Snapshot(overall, byLevel, monthly);
+        }
+
+        private static void rank(List<RankingDTO> ranking) {
+            ranking.sort(RANKING_ORDER);
+            for (int i = 0; i < ranking.size(); i++) {
+                ranking.get(i).setRank(i + 1);
+            }
+        }
+
+        private static Map<Long, RankingDTO> index(List<RankingDTO> ranking) {
+            Map<Long, RankingDTO> index = new HashMap<>(ranking.size() * 2);
+            for (RankingDTO item : ranking) {
+                index.put(item.getAthleteId(), item);
+            }
+            return index;
+        }
+
+        private static RankingDTO copy(RankingDTO source) {
+            return new RankingDTO(source.getRank(), source.getAthleteId(), source.getAthleteName(),
+                    source.getAthleteLevel(), source.getGender(), source.getAverageScore(), source.getMaxScore(),
+                    source.getParticipationCount(), source.getTotalScore(), source.getWinRate());
+        }
+    }
+
+    /**
+     * 运动员在某个范围内的成绩累计
+     */
+    private static class Totals {
+
+        private final AthleteMonthlyResultDTO athlete;
+        private int resultCount;
+        private int competitionCount;
+        private int winCount;
+        private BigDecimal scoreSum = BigDecimal.ZERO;
+        private BigDecimal maxScore = BigDecimal.ZERO;
+
+        private Totals(AthleteMonthlyResultDTO athlete) {
+            this.athlete = athlete;
+        }
+
+        private Totals add(AthleteMonthlyResultDTO row) {
+            resultCount += row.getResultCount();
+            competitionCount += row.getCompetitionCount() != null ? row.getCompetitionCount() : 0;
+            winCount += row.getWinCount() != null ? row.getWinCount() : 0;
+            if (row.getScoreSum() != null) {
+                scoreSum = scoreSum.add(row.getScoreSum());
+            }
+            if (row.getMaxScore() != null && row.getMaxScore().compareTo(maxScore) > 0) {
+                maxScore = row.getMaxScore();
+            }
+            return this;
+        }
+
+        private RankingDTO toRanking() {
+            BigDecimal averageScore = resultCount > 0
+                    ? scoreSum.divide(BigDecimal.valueOf(resultCount), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO.setScale(2);
+            BigDecimal winRate = competitionCount > 0
+                    ? BigDecimal.valueOf(winCount * 100L).divide(BigDecimal.valueOf(competitionCount), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO.setScale(2);
+            return new RankingDTO(null, athlete.getAthleteId(), athlete.getAthleteName(), athlete.getAthleteLevel(),
+                    athlete.getGender(), averageScore, maxScore, competitionCount,
+                    scoreSum.setScale(2, RoundingMode.HALF_UP), winRate);
+        }
+    }
+}
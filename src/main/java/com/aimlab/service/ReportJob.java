@@ -0,0 +1,135 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.ReportJobDTO;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 报告生成任务
+ * 相同内容的报告同时只生成一次，后提交的用户加入已有任务
+ */
+public class ReportJob {
+
+    public static final String TYPE_TRAINING = "TRAINING";
+    public static final String TYPE_COMPETITION = "COMPETITION";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    private final String id = UUID.randomUUID().toString();
+    private final String reportType;
+    private final Long targetId;
+    private final String cacheKey;
+    private final String fileName;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    /**
+     * 可以查看和下载该任务的用户
+     */
+    private final Set<Long> viewers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 完成后需要站内信通知的用户
+     */
+    private final Set<Long> notifyUsers = ConcurrentHashMap.newKeySet();
+
+    private final CompletableFuture<Path> result = new CompletableFuture<>();
+
+    private volatile String status = STATUS_PENDING;
+    private volatile String errorMessage;
+    private volatile LocalDateTime completedAt;
+
+    ReportJob(String reportType, Long targetId, String cacheKey, String fileName) {
+        this.reportType = reportType;
+        this.targetId = targetId;
+        this.cacheKey = cacheKey;
+        this.fileName = fileName;
+    }
+
+    void addViewer(Long userId, boolean notify) {
+        viewers.add(userId);
+        if (notify) {
+            notifyUsers.add(userId);
+        }
+    }
+
+    void markRunning() {
+        status = STATUS_RUNNING;
+    }
+
+    void complete(Path file) {
+        completedAt = LocalDateTime.now();
+        status = STATUS_COMPLETED;
+        result.complete(file);
+    }
+
+    void fail(String message) {
+        completedAt = LocalDateTime.now();
+        errorMessage = message;
+        status = STATUS_FAILED;
+        result.completeExceptionally(new RuntimeException(message));
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getReportType() {
+        return reportType;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public boolean isViewer(Long userId) {
+        return viewers.contains(userId);
+    }
+
+    Set<Long> getNotifyUsers() {
+        return notifyUsers;
+    }
+
+    /**
+     * @return 报告文件，生成失败时异常完成
+     */
+    public CompletableFuture<Path> getResult() {
+        return result;
+    }
+
+    public ReportJobDTO toDTO() {
+        ReportJobDTO dto = new ReportJobDTO();
+        dto.setJobId(id);
+        dto.setReportType(reportType);
+        dto.setTargetId(targetId);
+        dto.setStatus(status);
+        dto.setFileName(fileName);
+        dto.setErrorMessage(errorMessage);
+        dto.setCreatedAt(createdAt);
+        dto.setCompletedAt(completedAt);
+        return dto;
+    }
+}
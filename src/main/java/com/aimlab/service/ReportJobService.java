@@ -0,0 +1,322 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.TrainingSession;
+import com.aimlab.mapper.CompetitionResultMapper;
+import com.aimlab.mapper.ShootingRecordMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * PDF报告生成任务服务
+ * 报告在固定大小的工作线程池中生成，请求线程只负责提交任务；队列满时拒绝提交，
+ * 比赛结束后的集中下载不会占满 Tomcat 线程。
+ * 生成的PDF按内容键（对象ID加最后数据时间）缓存在本地磁盘，数据未变化时直接复用
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private TrainingService trainingService;
+
+    @Autowired
+    private CompetitionService competitionService;
+
+    @Autowired
+    private ShootingRecordMapper shootingRecordMapper;
+
+    @Autowired
+    private CompetitionResultMapper competitionResultMapper;
+
+    @Autowired
+    private MessageService messageService;
+
+    /**
+     * 报告生成工作线程数
+     */
+    @Value("${aimlab.report.workers:2}")
+    private int workers;
+
+    /**
+     * 等待生成的任务上限
+     */
+    @Value("${aimlab.report.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * 报告缓存目录
+     */
+    @Value("${aimlab.report.cache-dir:${java.io.tmpdir}/aimlab-reports}")
+    private String cacheDir;
+
+    /**
+     * 报告缓存占用磁盘上限（MB），超出时删除最久未使用的报告
+     */
+    @Value("${aimlab.report.cache-max-mb:512}")
+    private long cacheMaxMb;
+
+    /**
+     * 任务完成后保留的时间（分钟）
+     */
+    @Value("${aimlab.report.job-retention-minutes:60}")
+    private long jobRetentionMinutes;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * 正在生成的任务，按内容键索引
+     */
+    private final Map<String, ReportJob> inFlight = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private Path cacheRoot;
+
+    /**
+     * PDF渲染
+     */
+    @FunctionalInterface
+    interface Renderer {
+        byte[] render();
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        cacheRoot = Paths.get(cacheDir);
+        Files.createDirectories(cacheRoot);
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "report-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 提交训练报告任务，调用方负责校验训练场次的访问权限
+     *
+     * @param sessionId 训练场次ID
+     * @param userId 提交用户ID
+     * @param notify 完成后是否发送站内信通知
+     * @return 报告任务
+     */
+    public ReportJob submitTrainingReport(Long sessionId, Long userId, boolean notify) {
+        TrainingSession session = trainingService.getSessionById(sessionId);
+        if (session == null) {
+            throw new RuntimeException("训练场次不存在");
+        }
+        LocalDateTime lastShotAt = shootingRecordMapper.findLastShotAtByTrainingSessionId(sessionId);
+        String cacheKey = "training-" + sessionId + "-" + epochMillis(lastShotAt) + "-" + epochMillis(session.getEndTime());
+        ReportJob job = submit(ReportJob.TYPE_TRAINING, sessionId, cacheKey, "Training-Report-" + sessionId + ".pdf",
+                userId, notify, () -> trainingService.getTrainingReportAsPdf(sessionId));
+        if (ReportJob.STATUS_COMPLETED.equals(job.getStatus())) {
+            // 直接复用磁盘缓存时不会渲染，在这里记录报告生成时间
+            trainingService.recordReportGenerated(sessionId);
+        }
+        return job;
+    }
+
+    /**
+     * 提交比赛结果报告任务，调用方负责校验权限
+     *
+     * @param competitionId 比赛ID
+     * @param userId 提交用户ID
+     * @param notify 完成后是否发送站内信通知
+     * @return 报告任务
+     */
+    public ReportJob submitCompetitionReport(Integer competitionId, Long userId, boolean notify) {
+        competitionService.getReportableCompetition(competitionId);
+        LocalDateTime resultsAt = competitionResultMapper.findLastCreatedAtByCompetitionId(competitionId);
+        String cacheKey = "competition-" + competitionId + "-" + epochMillis(resultsAt);
+        return submit(ReportJob.TYPE_COMPETITION, competitionId.longValue(), cacheKey,
+                "Competition-Results-" + competitionId + ".pdf",
+                userId, notify, () -> competitionService.getCompetitionResultsAsPdf(competitionId));
+    }
+
+    /**
+     * 查询报告任务，只有提交过该任务的用户可以查看
+     *
+     * @param jobId 任务ID
+     * @param userId 当前用户ID
+     * @return 报告任务
+     */
+    public ReportJob getJob(String jobId, Long userId) {
+        ReportJob job = jobs.get(jobId);
+        if (job == null || !job.isViewer(userId)) {
+            throw new RuntimeException("报告任务不存在或已过期");
+        }
+        return job;
+    }
+
+    /**
+     * 读取已完成任务的报告文件
+     *
+     * @param job 报告任务
+     * @return PDF文件内容
+     */
+    public byte[] readReport(ReportJob job) {
+        if (!ReportJob.STATUS_COMPLETED.equals(job.getStatus())) {
+            throw new RuntimeException("报告尚未生成完成");
+        }
+        try {
+            return Files.readAllBytes(job.getResult().join());
+        } catch (IOException e) {
+            throw new RuntimeException("报告文件已过期，请重新提交生成任务");
+        }
+    }
+
+    synchronized ReportJob submit(String reportType, Long targetId, String cacheKey, String fileName,
+                                  Long userId, boolean notify, Renderer renderer) {
+        purgeExpiredJobs();
+        Path file = cacheRoot.resolve(cacheKey + ".pdf");
+        if (Files.exists(file)) {
+            touch(file);
+            ReportJob job = new ReportJob(reportType, targetId, cacheKey, fileName);
+            job.addViewer(userId, false);
+            job.complete(file);
+            jobs.put(job.getId(), job);
+            return job;
+        }
+        ReportJob running = inFlight.get(cacheKey);
+        if (running != null) {
+            running.addViewer(userId, notify);
+            return running;
+        }
+        ReportJob job = new ReportJob(reportType, targetId, cacheKey, fileName);
+        job.addViewer(userId, notify);
+        jobs.put(job.getId(), job);
+        inFlight.put(cacheKey, job);
+        try {
+            executor.execute(() -> run(job, file, renderer));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            inFlight.remove(cacheKey);
+            throw new RuntimeException("报告生成任务较多，请稍后再试");
+        }
+        return job;
+    }
+
+    private void run(ReportJob job, Path file, Renderer renderer) {
+        job.markRunning();
+        try {
+            byte[] pdf = renderer.render();
+            Path temp = Files.createTempFile(cacheRoot, job.getCacheKey(), ".tmp");
+            Files.write(temp, pdf);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.complete(file);
+            evictCache();
+        } catch (Exception e) {
+            logger.error("报告生成失败: {}", job.getCacheKey(), e);
+            job.fail(e.getMessage() != null ? e.getMessage() : "报告生成失败");
+        } finally {
+            synchronized (this) {
+                inFlight.remove(job.getCacheKey(), job);
+            }
+        }
+        notifyUsers(job);
+    }
+
+    private void notifyUsers(ReportJob job) {
+        boolean completed = ReportJob.STATUS_COMPLETED.equals(job.getStatus());
+        for (Long userId : job.getNotifyUsers()) {
+            try {
+                if (completed) {
+                    messageService.sendSystemNotification(userId, "报告已生成",
+                            "报告 " + job.getFileName() + " 已生成，请在报告任务 " + job.getId() + " 中下载。");
+                } else {
+                    messageService.sendSystemNotification(userId, "报告生成失败",
+                            "报告 " + job.getFileName() + " 生成失败：" + job.getErrorMessage());
+                }
+            } catch (Exception e) {
+                logger.warn("发送报告通知失败，用户ID: {}", userId, e);
+            }
+        }
+    }
+
+    private void purgeExpiredJobs() {
+        LocalDateTime expireBefore = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(expireBefore));
+    }
+
+    /**
+     * 缓存超过上限时按最后使用时间删除最旧的报告
+     */
+    private void evictCache() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(cacheRoot)) {
+            stream.filter(path -> path.getFileName().toString().endsWith(".pdf")).forEach(files::add);
+        }
+        long total = 0;
+        for (Path path : files) {
+            total += Files.size(path);
+        }
+        long limit = cacheMaxMb * 1024 * 1024;
+        if (total <= limit) {
+            return;
+        }
+        files.sort(Comparator.comparing(ReportJobService::lastModified));
+        for (Path path : files) {
+            if (total <= limit) {
+                break;
+            }
+            long size = Files.size(path);
+            if (Files.deleteIfExists(path)) {
+                total -= size;
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            logger.debug("更新报告缓存时间失败: {}", file, e);
+        }
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time != null ? time.toInstant(ZoneOffset.UTC).toEpochMilli() : 0L;
+    }
+}
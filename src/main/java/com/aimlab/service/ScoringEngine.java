@@ -0,0 +1,121 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.ShootingRecord;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * 射击计分引擎
+ * 根据归一化坐标和靶面配置在服务端计算环数，不再信任客户端上报的成绩。
+ * 单发计分只使用 double 运算，不产生任何对象分配
+ */
+@Component
+public class ScoringEngine {
+
+    /**
+     * 消除浮点误差，保证恰好压线的弹孔计入内环
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * 坐标入库精度，与 shooting_records.x/y 的 DECIMAL(5,4) 一致
+     */
+    private static final int COORDINATE_SCALE = 4;
+
+    /**
+     * 计算单发射击的环数
+     *
+     * @param profile 靶面配置
+     * @param x 归一化X坐标
+     * @param y 归一化Y坐标
+     * @return 环数，脱靶为0
+     */
+    public double score(TargetProfile profile, double x, double y) {
+        double dx = x - 0.5;
+        double dy = y - 0.5;
+        double edgeDistance = Math.sqrt(dx * dx + dy * dy) * profile.getScale() - profile.getPelletRadius();
+
+        // 压在10环外沿时为10.0，每向外一个环宽减1
+        double value = 10.0 + (profile.getTenRingRadius() - edgeDistance) / profile.getRingWidth();
+        if (value < 1.0 - EPSILON) {
+            return 0.0;
+        }
+        if (profile.isDecimal()) {
+            return Math.min(Math.floor(value * 10.0 + EPSILON) / 10.0, 10.9);
+        }
+        return Math.min(Math.floor(value + EPSILON), 10.0);
+    }
+
+    /**
+     * 根据射击记录的坐标计算并写入环数
+     * 坐标先按入库精度四舍五入并写回记录，实时成绩与按库中坐标重新计分的结果一致
+     *
+     * @param profile 靶面配置
+     * @param record 射击记录
+     */
+    public void applyScore(TargetProfile profile, ShootingRecord record) {
+        if (record.getX() == null || record.getY() == null) {
+            throw new RuntimeException("缺少射击坐标，无法计分");
+        }
+        BigDecimal x = record.getX().setScale(COORDINATE_SCALE, RoundingMode.HALF_UP);
+        BigDecimal y = record.getY().setScale(COORDINATE_SCALE, RoundingMode.HALF_UP);
+        record.setX(x);
+        record.setY(y);
+        double score = score(profile, x.doubleValue(), y.doubleValue());
+        record.setScore(BigDecimal.valueOf(score).setScale(1, RoundingMode.HALF_UP));
+    }
+
+    /**
+     * 批量计分，并行计算，用于规则变更后重新计分历史记录
+     *
+     * @param profile 靶面配置
+     * @param xs 归一化X坐标
+     * @param ys 归一化Y坐标
+     * @return 与坐标一一对应的环数
+     */
+    public double[] scoreBatch(TargetProfile profile, double[] xs, double[] ys) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("坐标数组长度不一致");
+        }
+        double[] scores = new double[xs.length];
+        IntStream.range(0, xs.length).parallel().forEach(i -> scores[i] = score(profile, xs[i], ys[i]));
+        return scores;
+    }
+
+    /**
+     * 批量重新计分射击记录，缺少坐标的记录保持原成绩
+     *
+     * @param profile 靶面配置
+     * @param records 射击记录，成绩直接写回记录对象
+     * @return 成绩发生变化的记录
+     */
+    public List<ShootingRecord> rescore(TargetProfile profile, List<ShootingRecord> records) {
+        double[] xs = new double[records.size()];
+        double[] ys = new double[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            ShootingRecord record = records.get(i);
+            xs[i] = record.getX() != null ? record.getX().doubleValue() : Double.NaN;
+            ys[i] = record.getY() != null ? record.getY().doubleValue() : Double.NaN;
+        }
+        double[] scores = scoreBatch(profile, xs, ys);
+
+        List<ShootingRecord> changed = new ArrayList<>();
+        for (int i = 0; i < records.size(); i++) {
+            if (Double.isNaN(xs[i]) || Double.isNaN(ys[i])) {
+                continue;
+            }
+            ShootingRecord record = records.get(i);
+            BigDecimal score = BigDecimal.valueOf(scores[i]).setScale(1, RoundingMode.HALF_UP);
+            if (record.getScore() == null || record.getScore().compareTo(score) != 0) {
+                record.setScore(score);
+                changed.add(record);
+            }
+        }
+        return changed;
+    }
+}
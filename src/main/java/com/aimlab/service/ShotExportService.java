@@ -0,0 +1,264 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.ExportFile;
+import com.aimlab.dto.ShotExportQuery;
+import com.aimlab.dto.ShotExportRowDTO;
+import com.aimlab.dto.ShotTimeWindow;
+import com.aimlab.mapper.ShootingRecordMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 原始射击记录批量导出服务
+ * 按月份分表逐个时间窗口流式读取，记录按 (射击时间, ID) 顺序写出。
+ * 每行都包含射击时间和ID，导出中断后以最后收到的一行作为续传位置重新请求即可
+ */
+@Service
+public class ShotExportService {
+
+    static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+
+    static final String BINARY_CONTENT_TYPE = "application/octet-stream";
+
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    private static final String[] CSV_HEADERS = {
+            "id", "recordType", "athleteId", "competitionId", "trainingSessionId", "projectType",
+            "roundNumber", "shotNumber", "x", "y", "score", "shotAt"
+    };
+
+    @Autowired
+    private ShootingRecordMapper shootingRecordMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * 单次导出允许指定的运动员数量上限
+     */
+    @Value("${aimlab.export.shots.max-athletes:1000}")
+    private int maxAthletes;
+
+    /**
+     * 导出射击记录，数据在写出响应时逐个月份读取
+     *
+     * @param query 导出条件
+     * @param format 导出格式：ndjson, csv, bin
+     * @return 导出文件
+     */
+    public ExportFile exportShots(ShotExportQuery query, String format) {
+        validate(query);
+        List<ShotTimeWindow> windows = monthWindows(resumeFrom(query), query.getEndTime());
+        String normalizedFormat = format != null ? format.trim().toLowerCase(Locale.ROOT) : "ndjson";
+        String baseName = "shots-" + query.getStartTime().format(FILE_TIME_FORMAT)
+                + "-" + query.getEndTime().format(FILE_TIME_FORMAT);
+        switch (normalizedFormat) {
+            case "ndjson":
+                return new ExportFile(baseName + ".ndjson", NDJSON_CONTENT_TYPE, out -> {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    stream(query, windows, row -> {
+                        try {
+                            writer.write(objectMapper.writeValueAsString(row));
+                            writer.write('\n');
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    writer.flush();
+                });
+            case "csv":
+                return StreamingExports.csv(baseName + ".csv", writer -> {
+                    StreamingExports.writeCsvRow(writer, (Object[]) CSV_HEADERS);
+                    stream(query, windows, row -> StreamingExports.writeCsvRow(writer,
+                            row.getId(), row.getRecordType(), row.getAthleteId(), row.getCompetitionId(),
+                            row.getTrainingSessionId(), row.getProjectType(), row.getRoundNumber(),
+                            row.getShotNumber(), row.getX(), row.getY(), row.getScore(), row.getShotAt()));
+                });
+            case "bin":
+                return new ExportFile(baseName + ".bin", BINARY_CONTENT_TYPE, out -> {
+                    ColumnarWriter writer = new ColumnarWriter(out);
+                    stream(query, windows, writer::add);
+                    writer.finish();
+                });
+            default:
+                throw new IllegalArgumentException("不支持的导出格式: " + format + "，可选 ndjson、csv、bin");
+        }
+    }
+
+    private void stream(ShotExportQuery query, List<ShotTimeWindow> windows, RowConsumer consumer) {
+        for (ShotTimeWindow window : windows) {
+            shootingRecordMapper.streamForExport(query, window, context -> consumer.accept(context.getResultObject()));
+        }
+    }
+
+    private void validate(ShotExportQuery query) {
+        if (query.getStartTime() == null || query.getEndTime() == null) {
+            throw new IllegalArgumentException("请指定导出的开始时间和结束时间");
+        }
+        if (!query.getStartTime().isBefore(query.getEndTime())) {
+            throw new IllegalArgumentException("开始时间必须早于结束时间");
+        }
+        if (query.getAthleteIds() != null && query.getAthleteIds().size() > maxAthletes) {
+            throw new IllegalArgumentException("单次导出最多指定 " + maxAthletes + " 名运动员");
+        }
+        if (query.getAfterShotAt() != null && query.getAfterId() == null) {
+            query.setAfterId(0L);
+        }
+    }
+
+    /**
+     * 续传时从续传位置所在的月份开始读取
+     */
+    private static LocalDateTime resumeFrom(ShotExportQuery query) {
+        LocalDateTime after = query.getAfterShotAt();
+        return after != null && after.isAfter(query.getStartTime()) ? after : query.getStartTime();
+    }
+
+    /**
+     * 将 [start, end) 按自然月切分为时间窗口，每个窗口只对应一张月份分表
+     */
+    static List<ShotTimeWindow> monthWindows(LocalDateTime start, LocalDateTime end) {
+        List<ShotTimeWindow> windows = new ArrayList<>();
+        LocalDateTime from = start;
+        while (from.isBefore(end)) {
+            LocalDateTime nextMonth = from.toLocalDate().withDayOfMonth(1).plusMonths(1).atStartOfDay();
+            LocalDateTime to = nextMonth.isBefore(end) ? nextMonth : end;
+            windows.add(new ShotTimeWindow(from, to));
+            from = to;
+        }
+        return windows;
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ShotExportRowDTO row);
+    }
+
+    /**
+     * 列式二进制格式写出器（大端字节序，可直接按列读入 numpy 等工具）
+     * <pre>
+     * 文件头  8字节魔数 "AIMSHOT1"
+     * 数据块  int 行数 n (&gt;0)，随后依次为各列的 n 个值：
+     *         id long | athleteId long | shotAt long（本地时间按UTC计算的毫秒数）
+     *         recordType byte（0训练 1比赛）| competitionId int | trainingSessionId long
+     *         roundNumber int | shotNumber int（以上空值为-1）
+     *         x float | y float | score float
+     *         projectType（每个值为 short 字节数 + UTF-8 字节，空值长度为0）
+     * 文件尾  int 0
+     * </pre>
+     * 每块最多 {@link #BLOCK_ROWS} 行，只缓存当前块，内存占用与导出总量无关
+     */
+    static final class ColumnarWriter {
+
+        static final byte[] MAGIC = "AIMSHOT1".getBytes(StandardCharsets.US_ASCII);
+
+        static final int BLOCK_ROWS = 4096;
+
+        private final DataOutputStream out;
+
+        private final List<ShotExportRowDTO> block = new ArrayList<>(BLOCK_ROWS);
+
+        private boolean headerWritten;
+
+        ColumnarWriter(OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out));
+        }
+
+        void add(ShotExportRowDTO row) {
+            block.add(row);
+            if (block.size() >= BLOCK_ROWS) {
+                try {
+                    writeBlock();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        void finish() throws IOException {
+            writeBlock();
+            writeHeader();
+            out.writeInt(0);
+            out.flush();
+        }
+
+        private void writeHeader() throws IOException {
+            if (!headerWritten) {
+                out.write(MAGIC);
+                headerWritten = true;
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            if (block.isEmpty()) {
+                return;
+            }
+            writeHeader();
+            out.writeInt(block.size());
+            for (ShotExportRowDTO row : block) {
+                out.writeLong(row.getId());
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeLong(row.getAthleteId());
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeLong(row.getShotAt().truncatedTo(ChronoUnit.MILLIS).toInstant(ZoneOffset.UTC).toEpochMilli());
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeByte("COMPETITION".equals(row.getRecordType()) ? 1 : 0);
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeInt(row.getCompetitionId() != null ? row.getCompetitionId() : -1);
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeLong(row.getTrainingSessionId() != null ? row.getTrainingSessionId() : -1L);
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeInt(row.getRoundNumber() != null ? row.getRoundNumber() : -1);
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeInt(row.getShotNumber() != null ? row.getShotNumber() : -1);
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeFloat(toFloat(row.getX()));
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeFloat(toFloat(row.getY()));
+            }
+            for (ShotExportRowDTO row : block) {
+                out.writeFloat(toFloat(row.getScore()));
+            }
+            for (ShotExportRowDTO row : block) {
+                byte[] projectType = row.getProjectType() != null
+                        ? row.getProjectType().getBytes(StandardCharsets.UTF_8) : new byte[0];
+                out.writeShort(projectType.length);
+                out.write(projectType);
+            }
+            block.clear();
+        }
+
+        private static float toFloat(BigDecimal value) {
+            return value != null ? value.floatValue() : 0f;
+        }
+    }
+}
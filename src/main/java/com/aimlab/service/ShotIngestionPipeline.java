@@ -0,0 +1,434 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.ShootingRecord;
+import com.aimlab.mapper.ShootingRecordMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 比赛射击记录异步写入管道
+ * 射击记录先追加到本地日志并进入按比赛划分的有界队列，随即确认；
+ * 后台线程按固定间隔或攒够一批后批量写入 shooting_records。
+ * 写库成功后删除对应日志段，进程崩溃后重启时回放未写入的日志段。
+ */
+@Component
+public class ShotIngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShotIngestionPipeline.class);
+
+    private static final String JOURNAL_SUFFIX = ".journal";
+
+    @Autowired
+    private ShootingRecordMapper shootingRecordMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AthleteDailyStatsService athleteDailyStatsService;
+
+    /**
+     * 写入模式：sync（同步写库）或 async（异步批量写库）
+     */
+    @Value("${aimlab.competition.ingestion.mode:sync}")
+    private String mode;
+
+    /**
+     * 每场比赛允许积压（已确认但未写库）的最大射击记录数
+     */
+    @Value("${aimlab.competition.ingestion.queue-capacity:1024}")
+    private int queueCapacity;
+
+    /**
+     * 单条批量插入语句的最大行数，队列积压达到该值时立即触发写库
+     */
+    @Value("${aimlab.competition.ingestion.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * 定时写库间隔（毫秒）
+     */
+    @Value("${aimlab.competition.ingestion.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    /**
+     * 队列已满时等待空位的最长时间（毫秒），超时后拒绝射击
+     */
+    @Value("${aimlab.competition.ingestion.offer-timeout-ms:100}")
+    private long offerTimeoutMs;
+
+    /**
+     * 比赛结束时等待积压记录写库的最长时间（毫秒），超时后拒绝结束比赛
+     */
+    @Value("${aimlab.competition.ingestion.close-timeout-ms:10000}")
+    private long closeTimeoutMs;
+
+    /**
+     * 本地日志目录
+     */
+    @Value("${aimlab.competition.ingestion.journal-dir:data/shot-journal}")
+    private String journalDir;
+
+    private final Map<Integer, CompetitionShotQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 已关闭的比赛，入队时在 appendLock 内检查，关闭后提交的记录一律拒绝。
+     * 关闭后队列会被移除，不能只在队列上做标记，否则随后的提交会建出新队列
+     */
+    private final Set<Integer> closedCompetitions = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong segmentSequence = new AtomicLong(System.currentTimeMillis());
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void init() {
+        if (!isEnabled()) {
+            return;
+        }
+        try {
+            Files.createDirectories(Paths.get(journalDir));
+            replayJournals();
+        } catch (Exception e) {
+            logger.error("回放射击记录日志失败，未写入的日志段将保留到下次启动: {}", e.getMessage(), e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "shot-ingestion-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flushAll, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("射击记录异步写入已启用，队列容量: {}, 批大小: {}, 写库间隔: {}ms, 日志目录: {}",
+                queueCapacity, batchSize, flushIntervalMs, journalDir);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushAll();
+        for (CompetitionShotQueue queue : queues.values()) {
+            queue.closeJournal();
+        }
+    }
+
+    /**
+     * 是否启用异步写入
+     */
+    public boolean isEnabled() {
+        return "async".equalsIgnoreCase(mode);
+    }
+
+    /**
+     * 提交射击记录：写入本地日志并入队，队列已满时短暂等待，仍无空位则拒绝
+     *
+     * @param record 已通过校验的射击记录
+     * @throws RuntimeException 比赛已关闭或队列繁忙
+     */
+    public void submit(ShootingRecord record) {
+        CompetitionShotQueue queue = queues.computeIfAbsent(record.getCompetitionId(), CompetitionShotQueue::new);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(offerTimeoutMs);
+        while (!queue.offer(record)) {
+            requestFlush(queue);
+            if (System.nanoTime() >= deadline) {
+                throw new RuntimeException("射击记录提交繁忙，请稍后重试");
+            }
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("射击记录提交被中断");
+            }
+        }
+        if (queue.buffered() >= batchSize) {
+            requestFlush(queue);
+        }
+    }
+
+    /**
+     * 停止接收指定比赛的射击，同步写入积压的记录并释放其队列，用于比赛结束前。
+     * 关闭前已入队的记录都会写入，之后提交的记录被拒绝。
+     * 写库失败时重试，直到全部写入；超时仍未写完则重新开放提交并抛出异常，
+     * 队列和日志段保留，由后台线程继续写库
+     *
+     * @param competitionId 比赛ID
+     * @throws RuntimeException 超时仍有未写库的记录
+     */
+    public void close(Integer competitionId) {
+        // 先标记关闭再取队列：此后入队的记录会被拒绝，此前入队的记录都在取到的队列中
+        closedCompetitions.add(competitionId);
+        CompetitionShotQueue queue = queues.get(competitionId);
+        if (queue == null) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeTimeoutMs);
+        while (!flush(queue) || queue.inFlight.get() > 0) {
+            if (System.nanoTime() >= deadline) {
+                closedCompetitions.remove(competitionId);
+                throw new RuntimeException("仍有 " + queue.inFlight.get() + " 条射击记录未写入数据库，请稍后重试");
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                closedCompetitions.remove(competitionId);
+                throw new RuntimeException("等待射击记录写入被中断");
+            }
+        }
+        queues.remove(competitionId, queue);
+        queue.closeJournal();
+    }
+
+    /**
+     * 获取指定比赛已确认但尚未写库的射击记录数
+     *
+     * @param competitionId 比赛ID
+     * @return 积压数量
+     */
+    public int getBacklog(Integer competitionId) {
+        CompetitionShotQueue queue = queues.get(competitionId);
+        return queue != null ? queue.inFlight.get() : 0;
+    }
+
+    private void requestFlush(CompetitionShotQueue queue) {
+        if (scheduler != null && !scheduler.isShutdown()) {
+            scheduler.execute(() -> flush(queue));
+        }
+    }
+
+    private void flushAll() {
+        for (CompetitionShotQueue queue : queues.values()) {
+            flush(queue);
+        }
+    }
+
+    /**
+     * 将队列中的记录批量写库，成功后删除对应日志段
+     *
+     * @return 是否已全部写入
+     */
+    private boolean flush(CompetitionShotQueue queue) {
+        synchronized (queue.flushLock) {
+            queue.drainToPending();
+            if (queue.pendingRecords.isEmpty()) {
+                return true;
+            }
+            try {
+                while (!queue.pendingRecords.isEmpty()) {
+                    List<ShootingRecord> chunk = queue.pendingRecords.subList(
+                            0, Math.min(batchSize, queue.pendingRecords.size()));
+                    List<ShootingRecord> batch = new ArrayList<>(chunk);
+                    shootingRecordMapper.batchInsert(batch);
+                    athleteDailyStatsService.recordShotsQuietly(batch, null);
+                    queue.inFlight.addAndGet(-chunk.size());
+                    chunk.clear();
+                }
+            } catch (Exception e) {
+                logger.error("批量写入射击记录失败，比赛ID: {}, 待写入: {} 条，将在下次写库时重试: {}",
+                        queue.competitionId, queue.pendingRecords.size(), e.getMessage());
+                return false;
+            }
+            for (Path segment : queue.pendingSegments) {
+                deleteQuietly(segment);
+            }
+            queue.pendingSegments.clear();
+            return true;
+        }
+    }
+
+    /**
+     * 回放上次运行遗留的日志段，跳过已写入数据库的记录
+     */
+    private void replayJournals() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(Paths.get(journalDir), "*" + JOURNAL_SUFFIX)) {
+            stream.forEach(segments::add);
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        segments.sort(null);
+
+        Map<Integer, List<ShootingRecord>> recordsByCompetition = new LinkedHashMap<>();
+        for (Path segment : segments) {
+            for (String line : Files.readAllLines(segment, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ShootingRecord record = objectMapper.readValue(line, ShootingRecord.class);
+                    recordsByCompetition.computeIfAbsent(record.getCompetitionId(), k -> new ArrayList<>()).add(record);
+                } catch (IOException e) {
+                    // 崩溃时最后一行可能只写了一半
+                    logger.warn("跳过无法解析的日志行，文件: {}", segment.getFileName());
+                }
+            }
+        }
+
+        int replayed = 0;
+        for (Map.Entry<Integer, List<ShootingRecord>> entry : recordsByCompetition.entrySet()) {
+            Set<String> persisted = new HashSet<>();
+            for (ShootingRecord existing : shootingRecordMapper.findByCompetitionId(entry.getKey())) {
+                persisted.add(replayKey(existing.getAthleteId(), existing.getShotAt()));
+            }
+            List<ShootingRecord> missing = new ArrayList<>();
+            for (ShootingRecord record : entry.getValue()) {
+                if (persisted.add(replayKey(record.getAthleteId(), record.getShotAt()))) {
+                    missing.add(record);
+                }
+            }
+            for (int from = 0; from < missing.size(); from += batchSize) {
+                List<ShootingRecord> batch = missing.subList(from, Math.min(from + batchSize, missing.size()));
+                shootingRecordMapper.batchInsert(batch);
+                athleteDailyStatsService.recordShotsQuietly(batch, null);
+            }
+            replayed += missing.size();
+        }
+        for (Path segment : segments) {
+            deleteQuietly(segment);
+        }
+        logger.info("射击记录日志回放完成，日志段: {} 个，补写记录: {} 条", segments.size(), replayed);
+    }
+
+    private static String replayKey(Long athleteId, LocalDateTime shotAt) {
+        return athleteId + "@" + shotAt;
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("删除日志段失败: {}", path, e);
+        }
+    }
+
+    /**
+     * 单场比赛的写入队列及其日志段
+     */
+    private final class CompetitionShotQueue {
+        private final Integer competitionId;
+        private final Object appendLock = new Object();
+        private final Object flushLock = new Object();
+
+        /**
+         * 已确认但尚未写库的记录数（含队列中和写库失败待重试的）
+         */
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        /**
+         * 已写入当前日志段、等待写库的记录，受 appendLock 保护
+         */
+        private final Deque<ShootingRecord> buffer = new ArrayDeque<>();
+
+        /**
+         * 已从队列取出、尚未写库成功的记录及其日志段，受 flushLock 保护
+         */
+        private final List<ShootingRecord> pendingRecords = new ArrayList<>();
+        private final List<Path> pendingSegments = new ArrayList<>();
+
+        private Path journalPath;
+        private BufferedWriter journal;
+
+        private CompetitionShotQueue(Integer competitionId) {
+            this.competitionId = competitionId;
+        }
+
+        private boolean offer(ShootingRecord record) {
+            synchronized (appendLock) {
+                if (closedCompetitions.contains(competitionId)) {
+                    throw new RuntimeException("比赛已结束，无法继续射击");
+                }
+                if (inFlight.get() >= queueCapacity) {
+                    return false;
+                }
+                try {
+                    if (journal == null) {
+                        journalPath = Paths.get(journalDir, "competition-" + competitionId + "-"
+                                + segmentSequence.incrementAndGet() + JOURNAL_SUFFIX);
+                        journal = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8);
+                    }
+                    journal.write(objectMapper.writeValueAsString(record));
+                    journal.newLine();
+                    journal.flush();
+                } catch (IOException e) {
+                    throw new RuntimeException("射击记录日志写入失败: " + e.getMessage(), e);
+                }
+                buffer.add(record);
+                inFlight.incrementAndGet();
+                return true;
+            }
+        }
+
+        private int buffered() {
+            synchronized (appendLock) {
+                return buffer.size();
+            }
+        }
+
+        /**
+         * 切换日志段并将队列中的记录移入待写库列表
+         */
+        private void drainToPending() {
+            synchronized (appendLock) {
+                if (buffer.isEmpty()) {
+                    return;
+                }
+                pendingRecords.addAll(buffer);
+                buffer.clear();
+                pendingSegments.add(journalPath);
+                closeJournal();
+            }
+        }
+
+        private void closeJournal() {
+            synchronized (appendLock) {
+                if (journal == null) {
+                    return;
+                }
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    logger.warn("关闭日志段失败: {}", journalPath, e);
+                }
+                journal = null;
+                journalPath = null;
+            }
+        }
+    }
+}
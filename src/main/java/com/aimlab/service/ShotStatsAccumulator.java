@@ -0,0 +1,206 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.AthleteDailyStats;
+import com.aimlab.entity.ShootingRecord;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 射击成绩单遍统计
+ * 一次遍历得到次数、均值、方差（Welford 算法）、最值和按环数分桶的直方图，
+ * 全程使用 double 运算，仅在写入 DTO 时转换为 BigDecimal。
+ * 不同分区（场次、分片）的统计结果可以合并，合并结果与整体遍历一致
+ */
+public class ShotStatsAccumulator {
+
+    /**
+     * 环数分桶：0~10环，10.x 计入10环
+     */
+    private static final int RING_BUCKETS = 11;
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double sum;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+    private final long[] ringCounts = new long[RING_BUCKETS];
+
+    /**
+     * 由射击记录构建统计，跳过没有成绩的记录
+     *
+     * @param records 射击记录
+     * @return 统计结果
+     */
+    public static ShotStatsAccumulator of(Iterable<ShootingRecord> records) {
+        ShotStatsAccumulator accumulator = new ShotStatsAccumulator();
+        for (ShootingRecord record : records) {
+            if (record.getScore() != null) {
+                accumulator.add(record.getScore().doubleValue());
+            }
+        }
+        return accumulator;
+    }
+
+    /**
+     * 由每日统计汇总的累加列构建统计，用于不再逐发读取射击记录的生涯、区间统计。
+     * 汇总行没有逐环次数，结果不含环数分布
+     *
+     * @param totals 汇总行（次数、环数和、平方和、最值）
+     * @return 统计结果，汇总为空时与空统计相同
+     */
+    public static ShotStatsAccumulator of(AthleteDailyStats totals) {
+        ShotStatsAccumulator accumulator = new ShotStatsAccumulator();
+        if (totals == null || totals.getShotCount() <= 0) {
+            return accumulator;
+        }
+        accumulator.count = totals.getShotCount();
+        accumulator.sum = totals.getScoreSum() != null ? totals.getScoreSum().doubleValue() : 0.0;
+        accumulator.mean = accumulator.sum / accumulator.count;
+        double sumSq = totals.getScoreSqSum() != null ? totals.getScoreSqSum().doubleValue() : 0.0;
+        accumulator.m2 = Math.max(sumSq - accumulator.sum * accumulator.mean, 0.0);
+        accumulator.min = totals.getMinScore() != null ? totals.getMinScore().doubleValue() : accumulator.mean;
+        accumulator.max = totals.getMaxScore() != null ? totals.getMaxScore().doubleValue() : accumulator.mean;
+        return accumulator;
+    }
+
+    /**
+     * 累加一发成绩
+     *
+     * @param score 环数
+     */
+    public void add(double score) {
+        count++;
+        double delta = score - mean;
+        mean += delta / count;
+        m2 += delta * (score - mean);
+        sum += score;
+        if (count == 1) {
+            min = score;
+            max = score;
+        } else {
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+        ringCounts[ring(score)]++;
+    }
+
+    /**
+     * 合并另一分区的统计结果
+     *
+     * @param other 另一分区的统计
+     * @return 当前对象
+     */
+    public ShotStatsAccumulator merge(ShotStatsAccumulator other) {
+        if (other.count == 0) {
+            return this;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            sum = other.sum;
+            min = other.min;
+            max = other.max;
+            System.arraycopy(other.ringCounts, 0, ringCounts, 0, RING_BUCKETS);
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * count * other.count / total;
+        count = total;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int i = 0; i < RING_BUCKETS; i++) {
+            ringCounts[i] += other.ringCounts[i];
+        }
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    /**
+     * @return 平均环数，没有成绩时为0
+     */
+    public double getMean() {
+        return count > 0 ? mean : 0.0;
+    }
+
+    /**
+     * @return 总体方差，没有成绩时为0
+     */
+    public double getVariance() {
+        return count > 0 ? m2 / count : 0.0;
+    }
+
+    /**
+     * @return 总体标准差（稳定性指数），没有成绩时为0
+     */
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return 最低环数，没有成绩时为0
+     */
+    public double getMin() {
+        return count > 0 ? min : 0.0;
+    }
+
+    /**
+     * @return 最高环数，没有成绩时为0
+     */
+    public double getMax() {
+        return count > 0 ? max : 0.0;
+    }
+
+    /**
+     * @param ring 环数（0~10）
+     * @return 该环的射击次数
+     */
+    public long getRingCount(int ring) {
+        return ringCounts[ring];
+    }
+
+    /**
+     * 环数分布，只包含出现过的环数
+     *
+     * @return 环数到次数的映射
+     */
+    public Map<Integer, Integer> getRingDistribution() {
+        Map<Integer, Integer> distribution = new LinkedHashMap<>();
+        for (int i = 0; i < RING_BUCKETS; i++) {
+            if (ringCounts[i] > 0) {
+                distribution.put(i, (int) ringCounts[i]);
+            }
+        }
+        return distribution;
+    }
+
+    /**
+     * 转换为 DTO 使用的 BigDecimal
+     *
+     * @param value 统计值
+     * @param scale 小数位数
+     * @return 四舍五入后的数值
+     */
+    public static BigDecimal toDecimal(double value, int scale) {
+        return BigDecimal.valueOf(value).setScale(scale, RoundingMode.HALF_UP);
+    }
+
+    private static int ring(double score) {
+        int ring = (int) score;
+        return ring < 0 ? 0 : Math.min(ring, RING_BUCKETS - 1);
+    }
+}
@@ -1,6 +1,7 @@
 package com.aimlab.service;
 
 import com.aimlab.dto.StatisticsReportDTO;
+import com.aimlab.dto.StatisticsTimeRange;
 import com.aimlab.mapper.StatisticsMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,6 +11,7 @@ import java.time.temporal.ChronoField;
 
 /**
  * 统计报表服务类
+ * 年、季度、月统计均转换为左闭右开的时间范围查询
  */
 @Service
 public class StatisticsService {
@@ -24,7 +26,8 @@ public class StatisticsService {
      * @return 统计报表
      */
     public StatisticsReportDTO getMonthlyTrainingStatistics(Integer year, Integer month) {
-        return statisticsMapper.getMonthlyTrainingStatistics(year, month);
+        validateMonth(month);
+        return statisticsMapper.getStatistics(StatisticsTimeRange.ofMonth(year, month), "TRAINING");
     }
     
     /**
@@ -43,7 +46,8 @@ public class StatisticsService {
      * @return 统计报表
      */
     public StatisticsReportDTO getMonthlyCompetitionStatistics(Integer year, Integer month) {
-        return statisticsMapper.getMonthlyCompetitionStatistics(year, month);
+        validateMonth(month);
+        return statisticsMapper.getStatistics(StatisticsTimeRange.ofMonth(year, month), "COMPETITION");
     }
     
     /**
@@ -67,7 +71,7 @@ public class StatisticsService {
         if (reportType == null) {
             reportType = "OVERALL";
         }
-        return statisticsMapper.getQuarterlyStatistics(year, quarter, reportType);
+        return statisticsMapper.getStatistics(StatisticsTimeRange.ofQuarter(year, quarter), reportType);
     }
     
     /**
@@ -92,7 +96,7 @@ public class StatisticsService {
         if (reportType == null) {
             reportType = "OVERALL";
         }
-        return statisticsMapper.getYearlyStatistics(year, reportType);
+        return statisticsMapper.getStatistics(StatisticsTimeRange.ofYear(year), reportType);
     }
     
     /**
@@ -122,7 +126,7 @@ public class StatisticsService {
         if (reportType == null) {
             reportType = "OVERALL";
         }
-        return statisticsMapper.getCustomStatistics(startDate, endDate, reportType);
+        return statisticsMapper.getStatistics(StatisticsTimeRange.ofCustom(startDate, endDate), reportType);
     }
     
     /**
@@ -133,7 +137,8 @@ public class StatisticsService {
      * @return 统计报表
      */
     public StatisticsReportDTO getAthleteMonthlyStatistics(Long athleteId, Integer year, Integer month) {
-        return statisticsMapper.getAthleteMonthlyStatistics(athleteId, year, month);
+        validateMonth(month);
+        return statisticsMapper.getAthleteStatistics(athleteId, StatisticsTimeRange.ofMonth(year, month));
     }
     
     /**
@@ -153,7 +158,7 @@ public class StatisticsService {
      * @return 统计报表
      */
     public StatisticsReportDTO getAthleteYearlyStatistics(Long athleteId, Integer year) {
-        return statisticsMapper.getAthleteYearlyStatistics(athleteId, year);
+        return statisticsMapper.getAthleteStatistics(athleteId, StatisticsTimeRange.ofYear(year));
     }
     
     /**
@@ -166,6 +171,15 @@ public class StatisticsService {
         return getAthleteYearlyStatistics(athleteId, year);
     }
     
+    /**
+     * 验证月份是否有效
+     */
+    private void validateMonth(Integer month) {
+        if (month == null || month < 1 || month > 12) {
+            throw new IllegalArgumentException("月份必须为1-12之间的数字");
+        }
+    }
+    
     /**
      * 验证季度是否有效
      */
@@ -0,0 +1,130 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.ExportFile;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 流式导出
+ * CSV 逐行写入响应输出流；Excel 使用 SXSSF，内存中只保留最近 {@link #ROW_WINDOW} 行，
+ * 其余行写入临时文件，导出内存占用与数据量无关
+ */
+public final class StreamingExports {
+
+    /**
+     * SXSSF 内存中保留的行数
+     */
+    static final int ROW_WINDOW = 100;
+
+    private StreamingExports() {
+    }
+
+    /**
+     * CSV 内容
+     */
+    @FunctionalInterface
+    public interface CsvBody {
+        void write(Writer writer) throws IOException;
+    }
+
+    /**
+     * Excel 内容
+     */
+    @FunctionalInterface
+    public interface WorkbookBody {
+        void write(SXSSFWorkbook workbook) throws IOException;
+    }
+
+    /**
+     * @param fileName 文件名
+     * @param body 逐行写入的 CSV 内容
+     * @return 导出文件
+     */
+    public static ExportFile csv(String fileName, CsvBody body) {
+        return new ExportFile(fileName, ExportFile.CSV_CONTENT_TYPE, out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            body.write(writer);
+            writer.flush();
+        });
+    }
+
+    /**
+     * @param fileName 文件名
+     * @param body 填充工作簿
+     * @return 导出文件
+     */
+    public static ExportFile xlsx(String fileName, WorkbookBody body) {
+        return new ExportFile(fileName, ExportFile.XLSX_CONTENT_TYPE, out -> writeWorkbook(body, out));
+    }
+
+    /**
+     * 创建带表头的工作表
+     *
+     * @param workbook 工作簿
+     * @param name 工作表名
+     * @param headers 表头
+     * @return 工作表
+     */
+    public static Sheet createSheet(SXSSFWorkbook workbook, String name, String... headers) {
+        Sheet sheet = workbook.createSheet(name);
+        Row header = sheet.createRow(0);
+        for (int i = 0; i < headers.length; i++) {
+            header.createCell(i).setCellValue(headers[i]);
+        }
+        return sheet;
+    }
+
+    /**
+     * 写入一行 CSV。行通常在 MyBatis 结果处理器中写出，写入失败以 UncheckedIOException 抛出
+     *
+     * @param writer 输出
+     * @param values 各列的值，为空时输出空列
+     */
+    public static void writeCsvRow(Writer writer, Object... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(escapeCsv(values[i]));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 转义 CSV 字段：包含逗号、引号或换行时加引号，引号双写
+     */
+    static String escapeCsv(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static void writeWorkbook(WorkbookBody body, OutputStream out) throws IOException {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        try {
+            body.write(workbook);
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+}
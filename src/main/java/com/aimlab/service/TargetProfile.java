@@ -0,0 +1,95 @@
+package com.aimlab.service;
+
+/**
+ * 靶面几何配置
+ * 射击坐标为归一化坐标（靶面左上角(0,0)、右下角(1,1)，靶心(0.5,0.5)），
+ * 靶面半径0.5对应1环外沿半径。弹孔按外沿计分：弹孔中心到靶心距离减去弹丸半径。
+ */
+public enum TargetProfile {
+
+    /**
+     * 系统默认靶面，与前端靶面一致：10个等宽环，整数计分
+     */
+    STANDARD(10.0, 10.0, 0.0, false),
+
+    /**
+     * 10米气步枪：10环直径0.5mm，环宽2.5mm，弹丸直径4.5mm，十分位计分
+     */
+    AIR_RIFLE_10M(0.25, 2.5, 2.25, true),
+
+    /**
+     * 10米气手枪：10环直径11.5mm，环宽8mm，弹丸直径4.5mm，十分位计分
+     */
+    AIR_PISTOL_10M(5.75, 8.0, 2.25, true);
+
+    /**
+     * 10环外沿半径（与环宽同一长度单位）
+     */
+    private final double tenRingRadius;
+
+    /**
+     * 环宽
+     */
+    private final double ringWidth;
+
+    /**
+     * 弹丸半径
+     */
+    private final double pelletRadius;
+
+    /**
+     * 是否十分位计分（最高10.9），否则为整数环数（最高10）
+     */
+    private final boolean decimal;
+
+    /**
+     * 归一化距离到靶面长度单位的换算系数：靶面半径0.5对应1环外沿半径
+     */
+    private final double scale;
+
+    TargetProfile(double tenRingRadius, double ringWidth, double pelletRadius, boolean decimal) {
+        this.tenRingRadius = tenRingRadius;
+        this.ringWidth = ringWidth;
+        this.pelletRadius = pelletRadius;
+        this.decimal = decimal;
+        this.scale = (tenRingRadius + 9 * ringWidth) / 0.5;
+    }
+
+    public double getTenRingRadius() {
+        return tenRingRadius;
+    }
+
+    public double getRingWidth() {
+        return ringWidth;
+    }
+
+    public double getPelletRadius() {
+        return pelletRadius;
+    }
+
+    public boolean isDecimal() {
+        return decimal;
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * 按名称解析靶面配置（比赛赛制或训练项目），无法识别时使用默认靶面
+     *
+     * @param name 配置名称
+     * @return 靶面配置
+     */
+    public static TargetProfile resolve(String name) {
+        if (name != null) {
+            String normalized = name.trim().toUpperCase();
+            for (TargetProfile profile : values()) {
+                if (profile.name().equals(normalized)) {
+                    return profile;
+                }
+            }
+        }
+        return STANDARD;
+    }
+}
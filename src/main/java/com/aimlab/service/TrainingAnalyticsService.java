@@ -1,5 +1,6 @@
 package com.aimlab.service;
 
+import com.aimlab.dto.DailyStatsRange;
 import com.aimlab.dto.ExportFile;
 import com.aimlab.dto.TrainingAthleteStatsDTO;
 import com.aimlab.dto.TrainingProjectStatsDTO;
@@ -8,11 +9,9 @@ import com.aimlab.mapper.TrainingAnalyticsMapper;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -33,27 +32,27 @@ public class TrainingAnalyticsService {
                                                    LocalDateTime endTime,
                                                    Long athleteId,
                                                    String projectType) {
-        LocalDateTime[] range = normalizeRange(startTime, endTime);
+        DailyStatsRange range = normalizeRange(startTime, endTime);
         String normalizedGranularity = normalizeGranularity(granularity);
         String normalizedProject = normalizeText(projectType);
-        return trainingAnalyticsMapper.aggregateByTime(normalizedGranularity, range[0], range[1], athleteId, normalizedProject);
+        return trainingAnalyticsMapper.aggregateByTime(normalizedGranularity, range, athleteId, normalizedProject);
     }
 
     public List<TrainingAthleteStatsDTO> getAthleteStats(LocalDateTime startTime,
                                                          LocalDateTime endTime,
                                                          String projectType,
                                                          String keyword) {
-        LocalDateTime[] range = normalizeRange(startTime, endTime);
+        DailyStatsRange range = normalizeRange(startTime, endTime);
         String normalizedProject = normalizeText(projectType);
         String normalizedKeyword = normalizeText(keyword);
-        return trainingAnalyticsMapper.aggregateByAthlete(range[0], range[1], normalizedProject, normalizedKeyword);
+        return trainingAnalyticsMapper.aggregateByAthlete(range, normalizedProject, normalizedKeyword);
     }
 
     public List<TrainingProjectStatsDTO> getProjectStats(LocalDateTime startTime,
                                                          LocalDateTime endTime,
                                                          Long athleteId) {
-        LocalDateTime[] range = normalizeRange(startTime, endTime);
-        return trainingAnalyticsMapper.aggregateByProject(range[0], range[1], athleteId);
+        DailyStatsRange range = normalizeRange(startTime, endTime);
+        return trainingAnalyticsMapper.aggregateByProject(range, athleteId);
     }
 
     public ExportFile exportAnalytics(String dimension,
@@ -64,30 +63,19 @@ public class TrainingAnalyticsService {
                                       String projectType,
                                       String keyword) {
         String normalizedDimension = dimension != null ? dimension.trim().toUpperCase() : "TIME";
-        try (Workbook workbook = new XSSFWorkbook()) {
-            switch (normalizedDimension) {
-                case "ATHLETE":
-                    List<TrainingAthleteStatsDTO> athleteStats = getAthleteStats(startTime, endTime, projectType, keyword);
-                    writeAthleteSheet(workbook, athleteStats);
-                    break;
-                case "PROJECT":
-                    List<TrainingProjectStatsDTO> projectStats = getProjectStats(startTime, endTime, athleteId);
-                    writeProjectSheet(workbook, projectStats);
-                    break;
-                case "TIME":
-                default:
-                    List<TrainingTimeStatsDTO> timeStats = getTimeStats(granularity, startTime, endTime, athleteId, projectType);
-                    writeTimeSheet(workbook, timeStats, normalizeGranularity(granularity));
-                    break;
-            }
-
-            try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                workbook.write(bos);
-                String fileName = "training-analytics-" + normalizedDimension.toLowerCase() + ".xlsx";
-                return new ExportFile(fileName, "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", bos.toByteArray());
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("导出训练统计失败: " + e.getMessage(), e);
+        String fileName = "training-analytics-" + normalizedDimension.toLowerCase() + ".xlsx";
+        switch (normalizedDimension) {
+            case "ATHLETE":
+                List<TrainingAthleteStatsDTO> athleteStats = getAthleteStats(startTime, endTime, projectType, keyword);
+                return StreamingExports.xlsx(fileName, workbook -> writeAthleteSheet(workbook, athleteStats));
+            case "PROJECT":
+                List<TrainingProjectStatsDTO> projectStats = getProjectStats(startTime, endTime, athleteId);
+                return StreamingExports.xlsx(fileName, workbook -> writeProjectSheet(workbook, projectStats));
+            case "TIME":
+            default:
+                List<TrainingTimeStatsDTO> timeStats = getTimeStats(granularity, startTime, endTime, athleteId, projectType);
+                String normalizedGranularity = normalizeGranularity(granularity);
+                return StreamingExports.xlsx(fileName, workbook -> writeTimeSheet(workbook, timeStats, normalizedGranularity));
         }
     }
 
@@ -192,7 +180,7 @@ public class TrainingAnalyticsService {
         return trimmed.isEmpty() ? null : trimmed;
     }
 
-    private LocalDateTime[] normalizeRange(LocalDateTime startTime, LocalDateTime endTime) {
+    private DailyStatsRange normalizeRange(LocalDateTime startTime, LocalDateTime endTime) {
         LocalDateTime end = endTime != null ? endTime : LocalDateTime.now();
         LocalDateTime start = startTime != null ? startTime : end.minusDays(30);
         if (start.isAfter(end)) {
@@ -200,6 +188,6 @@ public class TrainingAnalyticsService {
             start = end;
             end = tmp;
         }
-        return new LocalDateTime[]{start, end};
+        return DailyStatsRange.ofInclusive(start, end);
     }
 }
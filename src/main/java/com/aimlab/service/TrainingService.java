@@ -17,10 +17,9 @@ import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * 训练服务类
@@ -40,6 +39,15 @@ public class TrainingService {
      @Autowired
     private PdfGenerationService pdfGenerationService;
     
+    @Autowired
+    private ScoringEngine scoringEngine;
+    
+    @Autowired
+    private AthleteDailyStatsService athleteDailyStatsService;
+    
+    @Autowired
+    private AthleteProfileCache athleteProfileCache;
+    
     /**
      * 开始新的训练场次
      * 
@@ -69,6 +77,7 @@ public class TrainingService {
         
         // 保存训练场次
         trainingSessionMapper.insert(session);
+        athleteProfileCache.invalidate(athleteId);
         
         return session;
     }
@@ -95,6 +104,7 @@ public class TrainingService {
         
         // 更新训练场次
         trainingSessionMapper.update(session);
+        athleteProfileCache.invalidate(session.getAthleteId());
         
         return session;
     }
@@ -143,6 +153,9 @@ public class TrainingService {
             throw new RuntimeException("训练场次已结束，不能添加记录");
         }
         
+        // 按训练项目的靶面由坐标计算成绩
+        scoringEngine.applyScore(TargetProfile.resolve(session.getProjectType()), record);
+        
         // 设置记录类型和射击时间
         record.setRecordType("TRAINING");
         record.setShotAt(LocalDateTime.now());
@@ -150,8 +163,10 @@ public class TrainingService {
         // 设置用户ID（用于分片）
         record.setUserId(session.getAthleteId());
         
-        // 保存射击记录
+        // 保存射击记录，并在同一事务中累加每日统计汇总
         shootingRecordMapper.insert(record);
+        athleteDailyStatsService.recordShot(record, session.getProjectType());
+        athleteProfileCache.invalidate(record.getAthleteId());
         
         return record;
     }
@@ -199,42 +214,16 @@ public class TrainingService {
             return report;
         }
         
-        // 计算统计数据
-        int totalShots = records.size();
+        // 单次遍历计算次数、均值、标准差、最值和环数分布
+        ShotStatsAccumulator stats = ShotStatsAccumulator.of(records);
+        int totalShots = (int) stats.getCount();
         report.setTotalShots(totalShots);
+        report.setAverageScore(ShotStatsAccumulator.toDecimal(stats.getMean(), 2));
+        report.setBestScore(ShotStatsAccumulator.toDecimal(stats.getMax(), 1));
+        report.setWorstScore(ShotStatsAccumulator.toDecimal(stats.getMin(), 1));
         
-        // 计算平均环数
-        BigDecimal totalScore = records.stream()
-                .map(ShootingRecord::getScore)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal averageScore = totalScore.divide(new BigDecimal(totalShots), 2, RoundingMode.HALF_UP);
-        report.setAverageScore(averageScore);
-        
-        // 计算最高环数
-        BigDecimal bestScore = records.stream()
-                .map(ShootingRecord::getScore)
-                .max(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        report.setBestScore(bestScore);
-        
-        // 计算最低环数
-        BigDecimal worstScore = records.stream()
-                .map(ShootingRecord::getScore)
-                .min(BigDecimal::compareTo)
-                .orElse(BigDecimal.ZERO);
-        report.setWorstScore(worstScore);
-        
-        // 计算稳定性指数（环数的标准差）
-        BigDecimal sumOfSquaredDifferences = records.stream()
-                .map(record -> {
-                    BigDecimal diff = record.getScore().subtract(averageScore);
-                    return diff.multiply(diff);
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal variance = sumOfSquaredDifferences.divide(new BigDecimal(totalShots), 4, RoundingMode.HALF_UP);
-        BigDecimal stabilityIndex = new BigDecimal(Math.sqrt(variance.doubleValue()))
-                .setScale(2, RoundingMode.HALF_UP);
-        report.setStabilityIndex(stabilityIndex);
+        // 稳定性指数（环数的总体标准差）
+        report.setStabilityIndex(ShotStatsAccumulator.toDecimal(stats.getStdDev(), 2));
         
         // 计算射击频率（每分钟射击次数）
         if (report.getDurationMinutes() != null && report.getDurationMinutes() > 0) {
@@ -245,26 +234,19 @@ public class TrainingService {
             report.setShotsPerMinute(BigDecimal.ZERO);
         }
         
-        // 计算各环数的分布统计
-        Map<Integer, Integer> scoreDistribution = new HashMap<>();
-        records.forEach(record -> {
-            int scoreInt = record.getScore().intValue();
-            scoreDistribution.put(scoreInt, scoreDistribution.getOrDefault(scoreInt, 0) + 1);
-        });
-        report.setScoreDistribution(scoreDistribution);
+        // 各环数的分布统计
+        report.setScoreDistribution(stats.getRingDistribution());
         
-        // 按时间顺序的环数变化趋势
-        List<BigDecimal> scoreTimeline = records.stream()
-                .sorted((r1, r2) -> r1.getShotAt().compareTo(r2.getShotAt()))
-                .map(ShootingRecord::getScore)
-                .collect(Collectors.toList());
+        // 按时间排序一次，同时生成环数变化趋势和射击记录列表
+        List<ShootingRecord> ordered = new ArrayList<>(records);
+        ordered.sort(Comparator.comparing(ShootingRecord::getShotAt));
+        List<BigDecimal> scoreTimeline = new ArrayList<>(ordered.size());
+        List<ShootingRecordDTO> recordDtos = new ArrayList<>(ordered.size());
+        for (ShootingRecord record : ordered) {
+            scoreTimeline.add(record.getScore());
+            recordDtos.add(ShootingRecordDTO.fromEntity(record));
+        }
         report.setScoreTimeline(scoreTimeline);
-
-        // 构建射击记录列表
-        List<ShootingRecordDTO> recordDtos = records.stream()
-                .sorted((r1, r2) -> r1.getShotAt().compareTo(r2.getShotAt()))
-                .map(ShootingRecordDTO::fromEntity)
-                .collect(Collectors.toList());
         report.setRecords(recordDtos);
         
         return report;
@@ -284,11 +266,19 @@ public class TrainingService {
         // 然后生成PDF
         byte[] pdfBytes = pdfGenerationService.generateTrainingReportPdf(reportDTO);
 
-        // 记录报告生成时间，便于后台统计
-        trainingSessionMapper.updateReportGeneratedAt(trainingSessionId, LocalDateTime.now());
+        recordReportGenerated(trainingSessionId);
 
         return pdfBytes;
     }
+
+    /**
+     * 记录报告生成时间，便于后台统计；复用已缓存的报告时同样记录
+     *
+     * @param trainingSessionId 训练场次ID
+     */
+    public void recordReportGenerated(long trainingSessionId) {
+        trainingSessionMapper.updateReportGeneratedAt(trainingSessionId, LocalDateTime.now());
+    }
     
     /**
      * 更新训练场次信息
@@ -299,6 +289,7 @@ public class TrainingService {
     @Transactional
     public TrainingSession updateSession(TrainingSession session) {
         trainingSessionMapper.update(session);
+        athleteProfileCache.invalidate(session.getAthleteId());
         return session;
     }
 } 
@@ -0,0 +1,83 @@
+package com.aimlab.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.function.IntSupplier;
+
+/**
+ * 用户未读消息数缓存
+ * 首次查询时从数据库加载，之后发送、阅读、删除消息时在缓存上增减，前端轮询未读数不再查询消息表。
+ * 增减与加载并发时丢弃加载结果，过期时间兜底纠正偏差。
+ * 增减只作用于本节点，relay 模式下多节点部署时各节点的计数会互相偏离，因此不缓存，每次查询数据库
+ */
+@Component
+public class UnreadCountCache {
+
+    /**
+     * 缓存有效期（秒），0表示不缓存
+     */
+    @Value("${aimlab.message.unread-count-ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${aimlab.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    private final LocalCache<Long, Integer> counts = new LocalCache<>(this::effectiveTtlSeconds);
+
+    /**
+     * 查询未读数，未缓存或已过期时加载
+     *
+     * @param userId 用户ID
+     * @param loader 从数据库加载未读数
+     * @return 未读数
+     */
+    public int get(Long userId, IntSupplier loader) {
+        return counts.get(userId, id -> loader.getAsInt());
+    }
+
+    /**
+     * 在缓存的未读数上增减
+     *
+     * @param userId 用户ID
+     * @param delta 变化量
+     * @return 变化后的未读数，未缓存时返回null
+     */
+    public Integer adjust(Long userId, int delta) {
+        return counts.update(userId, count -> Math.max(count + delta, 0));
+    }
+
+    /**
+     * 已缓存时将未读数设为指定值
+     *
+     * @param userId 用户ID
+     * @param count 未读数
+     */
+    public void set(Long userId, int count) {
+        counts.update(userId, cached -> count);
+    }
+
+    /**
+     * 使用户的缓存失效，下次查询时重新加载
+     *
+     * @param userId 用户ID
+     */
+    public void evict(Long userId) {
+        counts.invalidate(userId);
+    }
+
+    /**
+     * @return 当前缓存了未过期未读数的用户ID
+     */
+    public Collection<Long> cachedUserIds() {
+        return counts.keys();
+    }
+
+    /**
+     * @return 当前生效的缓存有效期（秒），relay 模式下为0
+     */
+    long effectiveTtlSeconds() {
+        return "relay".equalsIgnoreCase(brokerMode) ? 0 : ttlSeconds;
+    }
+}
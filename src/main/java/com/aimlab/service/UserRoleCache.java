@@ -0,0 +1,96 @@
+package com.aimlab.service;
+
+import cn.dev33.satoken.listener.SaTokenListenerForSimple;
+import com.aimlab.entity.User;
+import com.aimlab.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户角色缓存
+ * Sa-Token 每次权限、角色校验都需要用户角色，按登录ID缓存，避免每次校验查询数据库。
+ * 管理员修改角色、状态或删除用户时失效，账号注销、被踢下线、被顶替或封禁时也会失效，过期时间兜底。
+ * 失效只作用于本节点，relay 模式下多节点部署时其他节点只能等待过期，因此有效期缩短到 aimlab.auth.role-cache-relay-ttl-seconds
+ */
+@Component
+public class UserRoleCache extends SaTokenListenerForSimple {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    /**
+     * 缓存有效期（秒），0表示不缓存
+     */
+    @Value("${aimlab.auth.role-cache-ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * relay 模式下的缓存有效期（秒），即角色变更后其他节点最长沿用旧角色的时间
+     */
+    @Value("${aimlab.auth.role-cache-relay-ttl-seconds:5}")
+    private long relayTtlSeconds;
+
+    @Value("${aimlab.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    private final LocalCache<Long, String> roles = new LocalCache<>(this::effectiveTtlSeconds);
+
+    /**
+     * 查询用户角色
+     *
+     * @param loginId 登录ID（用户ID）
+     * @return 角色，用户不存在或没有角色时返回null
+     */
+    public String getRole(Object loginId) {
+        return roles.get(Long.parseLong(loginId.toString()), userId -> {
+            User user = userMapper.findById(userId);
+            return user != null ? user.getRole() : null;
+        });
+    }
+
+    /**
+     * 使用户的缓存角色失效
+     *
+     * @param userId 用户ID
+     */
+    public void invalidate(Long userId) {
+        roles.invalidate(userId);
+    }
+
+    @Override
+    public void doLogout(String loginType, Object loginId, String tokenValue) {
+        invalidate(loginId);
+    }
+
+    @Override
+    public void doKickout(String loginType, Object loginId, String tokenValue) {
+        invalidate(loginId);
+    }
+
+    @Override
+    public void doReplaced(String loginType, Object loginId, String tokenValue) {
+        invalidate(loginId);
+    }
+
+    @Override
+    public void doDisable(String loginType, Object loginId, String service, int level, long disableTime) {
+        invalidate(loginId);
+    }
+
+    /**
+     * @return 当前生效的缓存有效期（秒）
+     */
+    long effectiveTtlSeconds() {
+        if ("relay".equalsIgnoreCase(brokerMode)) {
+            return Math.min(ttlSeconds, relayTtlSeconds);
+        }
+        return ttlSeconds;
+    }
+
+    private void invalidate(Object loginId) {
+        if (loginId != null) {
+            invalidate(Long.parseLong(loginId.toString()));
+        }
+    }
+}
@@ -28,6 +28,12 @@ public class UserService {
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
     
+    @Autowired
+    private AdminRecipientCache adminRecipientCache;
+
+    @Autowired
+    private PageTotalCache pageTotalCache;
+    
     /**
      * 用户注册
      * 
@@ -82,6 +88,10 @@ public class UserService {
         
         // 保存用户
         userMapper.insert(user);
+        pageTotalCache.invalidate(PageTotalCache.USERS);
+        if ("ADMIN".equals(user.getRole())) {
+            adminRecipientCache.invalidate();
+        }
         
         return user.getId();
     }
@@ -0,0 +1,40 @@
+package com.aimlab.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * CBOR二进制编码
+ * 以 application/octet-stream 发送，STOMP 才会使用二进制帧；
+ * SockJS 不支持二进制帧，启用后客户端需使用原生 WebSocket 连接
+ */
+@Component
+@ConditionalOnProperty(name = "aimlab.websocket.encoding", havingValue = "cbor")
+public class CborWebSocketMessageCodec implements WebSocketMessageCodec {
+
+    private final ObjectMapper cborMapper = CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Override
+    public byte[] encode(Object message) {
+        try {
+            return cborMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("WebSocket消息序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public MimeType getContentType() {
+        return MimeTypeUtils.APPLICATION_OCTET_STREAM;
+    }
+}
@@ -7,14 +7,18 @@ import org.springframework.stereotype.Component;
 import javax.websocket.*;
 import javax.websocket.server.PathParam;
 import javax.websocket.server.ServerEndpoint;
-import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 比赛WebSocket服务端点
+ * 每个会话拥有独立的有界发送队列并使用异步发送，
+ * 广播只负责入队，不会因某个接收缓慢的客户端阻塞其他客户端
  */
 @ServerEndpoint("/ws/competition/{competitionId}")
 @Component
@@ -23,57 +27,90 @@ public class CompetitionWebSocketServer {
     private static final Logger logger = LoggerFactory.getLogger(CompetitionWebSocketServer.class);
     
     /**
-     * 存储比赛ID和对应的客户端会话集合
-     * 一个比赛可能对应多个客户端会话
+     * 每个会话最多积压的待发送消息数，超出后视为慢客户端并断开
      */
-    private static final Map<String, Set<Session>> competitionSessions = new ConcurrentHashMap<>();
+    static final int MAX_QUEUED_FRAMES = 64;
+    
+    /**
+     * 单条消息异步发送的超时时间（毫秒）
+     */
+    private static final long SEND_TIMEOUT_MS = 5000;
+    
+    /**
+     * 存储比赛ID和对应的客户端会话
+     * 一个比赛可能对应多个客户端会话，Key为会话ID
+     */
+    private static final Map<String, Map<String, SessionOutbox>> competitionSessions = new ConcurrentHashMap<>();
+    
+    /**
+     * 因被合并或会话断开而丢弃的消息数
+     */
+    private static final AtomicLong droppedFrames = new AtomicLong();
+    
+    /**
+     * 因接收过慢或发送失败而被断开的会话数
+     */
+    private static final AtomicLong evictedSessions = new AtomicLong();
+    
+    /**
+     * 关闭慢客户端可能阻塞，放到独立线程执行
+     */
+    private static final ExecutorService evictionExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "competition-ws-eviction");
+        thread.setDaemon(true);
+        return thread;
+    });
     
     /**
      * 当客户端连接建立时调用
-     * 
+     *
      * @param session 客户端会话
      * @param competitionId 比赛ID
      */
     @OnOpen
     public void onOpen(Session session, @PathParam("competitionId") String competitionId) {
         // 获取该比赛ID对应的会话集合，如果不存在则创建新的集合
-        Set<Session> sessions = competitionSessions.computeIfAbsent(competitionId, k -> new CopyOnWriteArraySet<>());
+        Map<String, SessionOutbox> sessions = competitionSessions.computeIfAbsent(competitionId, k -> new ConcurrentHashMap<>());
         
         // 将新的会话添加到集合中
-        sessions.add(session);
+        session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MS);
+        sessions.put(session.getId(), new SessionOutbox(session));
         
-        logger.info("新的WebSocket连接已建立，比赛ID: {}, 会话ID: {}, 当前连接数: {}", 
+        logger.info("新的WebSocket连接已建立，比赛ID: {}, 会话ID: {}, 当前连接数: {}",
                 competitionId, session.getId(), sessions.size());
     }
     
     /**
      * 当客户端连接关闭时调用
-     * 
+     *
      * @param session 客户端会话
      * @param competitionId 比赛ID
      */
     @OnClose
     public void onClose(Session session, @PathParam("competitionId") String competitionId) {
         // 获取该比赛ID对应的会话集合
-        Set<Session> sessions = competitionSessions.get(competitionId);
+        Map<String, SessionOutbox> sessions = competitionSessions.get(competitionId);
         
         if (sessions != null) {
-            // 从集合中移除关闭的会话
-            sessions.remove(session);
+            // 从集合中移除关闭的会话，并丢弃其未发送的消息
+            SessionOutbox outbox = sessions.remove(session.getId());
+            if (outbox != null) {
+                outbox.discard();
+            }
             
             // 如果集合为空，从Map中移除该比赛ID的条目
             if (sessions.isEmpty()) {
-                competitionSessions.remove(competitionId);
+                competitionSessions.remove(competitionId, sessions);
             }
             
-            logger.info("WebSocket连接已关闭，比赛ID: {}, 会话ID: {}, 剩余连接数: {}", 
+            logger.info("WebSocket连接已关闭，比赛ID: {}, 会话ID: {}, 剩余连接数: {}",
                     competitionId, session.getId(), sessions.size());
         }
     }
     
     /**
      * 当收到客户端消息时调用
-     * 
+     *
      * @param message 客户端发送的消息
      * @param session 客户端会话
      * @param competitionId 比赛ID
@@ -86,7 +123,7 @@ public class CompetitionWebSocketServer {
     
     /**
      * 当发生错误时调用
-     * 
+     *
      * @param session 客户端会话
      * @param error 异常
      */
@@ -97,24 +134,30 @@ public class CompetitionWebSocketServer {
     
     /**
      * 向指定比赛的所有连接客户端广播消息
-     * 
+     *
      * @param competitionId 比赛ID
      * @param message 要广播的消息
      */
     public void broadcastToCompetition(String competitionId, String message) {
-        Set<Session> sessions = competitionSessions.get(competitionId);
+        broadcastToCompetition(competitionId, message, null);
+    }
+    
+    /**
+     * 向指定比赛的所有连接客户端广播消息
+     * 携带合并键的消息只代表最新状态（如排名快照），若同键的旧消息仍在队列中则直接被替换
+     *
+     * @param competitionId 比赛ID
+     * @param message 要广播的消息
+     * @param coalesceKey 合并键，为null时不合并
+     */
+    public void broadcastToCompetition(String competitionId, String message, String coalesceKey) {
+        Map<String, SessionOutbox> sessions = competitionSessions.get(competitionId);
         
         if (sessions != null && !sessions.isEmpty()) {
             logger.debug("向比赛ID: {} 的 {} 个客户端广播消息", competitionId, sessions.size());
             
-            for (Session session : sessions) {
-                try {
-                    if (session.isOpen()) {
-                        session.getBasicRemote().sendText(message);
-                    }
-                } catch (IOException e) {
-                    logger.error("向会话ID: {} 发送消息失败: {}", session.getId(), e.getMessage(), e);
-                }
+            for (SessionOutbox outbox : sessions.values()) {
+                outbox.enqueue(message, coalesceKey);
             }
         } else {
             logger.debug("比赛ID: {} 没有活跃的WebSocket连接", competitionId);
@@ -123,25 +166,166 @@ public class CompetitionWebSocketServer {
     
     /**
      * 获取指定比赛的连接数量
-     * 
+     *
      * @param competitionId 比赛ID
      * @return 连接数量
      */
     public int getConnectionCount(String competitionId) {
-        Set<Session> sessions = competitionSessions.get(competitionId);
+        Map<String, SessionOutbox> sessions = competitionSessions.get(competitionId);
         return sessions != null ? sessions.size() : 0;
     }
     
     /**
      * 获取所有比赛的连接总数
-     * 
+     *
      * @return 连接总数
      */
     public int getTotalConnectionCount() {
         int count = 0;
-        for (Set<Session> sessions : competitionSessions.values()) {
+        for (Map<String, SessionOutbox> sessions : competitionSessions.values()) {
             count += sessions.size();
         }
         return count;
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 获取被丢弃的消息总数（被新消息合并替换或随会话断开丢弃）
+     *
+     * @return 丢弃的消息数
+     */
+    public long getDroppedFrameCount() {
+        return droppedFrames.get();
+    }
+    
+    /**
+     * 获取因接收过慢或发送失败而被断开的会话总数
+     *
+     * @return 断开的会话数
+     */
+    public long getEvictedSessionCount() {
+        return evictedSessions.get();
+    }
+    
+    /**
+     * 单个会话的发送队列
+     * 同一时刻只有一条异步发送在途，发送完成回调中继续发送队列中的下一条
+     */
+    private static final class SessionOutbox {
+        
+        private final Session session;
+        
+        private final Deque<Frame> queue = new ArrayDeque<>();
+        
+        private boolean sending;
+        
+        private boolean closed;
+        
+        private SessionOutbox(Session session) {
+            this.session = session;
+        }
+        
+        private void enqueue(String message, String coalesceKey) {
+            Frame frame = new Frame(message, coalesceKey);
+            boolean overflow = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (coalesceKey != null) {
+                    for (Frame queued : queue) {
+                        if (coalesceKey.equals(queued.coalesceKey)) {
+                            queued.message = message;
+                            droppedFrames.incrementAndGet();
+                            return;
+                        }
+                    }
+                }
+                if (sending) {
+                    if (queue.size() < MAX_QUEUED_FRAMES) {
+                        queue.addLast(frame);
+                        return;
+                    }
+                    droppedFrames.addAndGet(queue.size() + 1L);
+                    queue.clear();
+                    closed = true;
+                    overflow = true;
+                } else {
+                    sending = true;
+                }
+            }
+            if (overflow) {
+                evict("发送队列已满");
+            } else {
+                send(frame);
+            }
+        }
+        
+        private void send(Frame frame) {
+            try {
+                session.getAsyncRemote().sendText(frame.message, this::onSent);
+            } catch (RuntimeException e) {
+                onSent(new SendResult(e));
+            }
+        }
+        
+        private void onSent(SendResult result) {
+            Frame next;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (!result.isOK()) {
+                    droppedFrames.addAndGet(queue.size());
+                    queue.clear();
+                    closed = true;
+                    next = null;
+                } else {
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        sending = false;
+                        return;
+                    }
+                }
+            }
+            if (next == null) {
+                logger.warn("向会话ID: {} 发送消息失败: {}", session.getId(),
+                        result.getException() != null ? result.getException().getMessage() : "未知错误");
+                evict("发送失败");
+            } else {
+                send(next);
+            }
+        }
+        
+        private void discard() {
+            synchronized (this) {
+                closed = true;
+                droppedFrames.addAndGet(queue.size());
+                queue.clear();
+            }
+        }
+        
+        private void evict(String reason) {
+            evictedSessions.incrementAndGet();
+            logger.warn("断开接收过慢的WebSocket会话，会话ID: {}, 原因: {}", session.getId(), reason);
+            evictionExecutor.execute(() -> {
+                try {
+                    session.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER, "slow consumer"));
+                } catch (Exception e) {
+                    logger.debug("关闭会话ID: {} 失败: {}", session.getId(), e.getMessage());
+                }
+            });
+        }
+    }
+    
+    private static final class Frame {
+        
+        private String message;
+        
+        private final String coalesceKey;
+        
+        private Frame(String message, String coalesceKey) {
+            this.message = message;
+            this.coalesceKey = coalesceKey;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.aimlab.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 紧凑JSON编码（默认），兼容 SockJS 等仅支持文本帧的客户端
+ */
+@Component
+@ConditionalOnProperty(name = "aimlab.websocket.encoding", havingValue = "json", matchIfMissing = true)
+public class JsonWebSocketMessageCodec implements WebSocketMessageCodec {
+
+    private static final MimeType CONTENT_TYPE = new MimeType("application", "json", StandardCharsets.UTF_8);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Override
+    public byte[] encode(Object message) {
+        try {
+            return objectMapper.writeValueAsBytes(message);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("WebSocket消息序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public MimeType getContentType() {
+        return CONTENT_TYPE;
+    }
+}
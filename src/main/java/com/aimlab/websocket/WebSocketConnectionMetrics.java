@@ -0,0 +1,141 @@
+package com.aimlab.websocket;
+
+import com.aimlab.dto.WebSocketMetricsDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.config.WebSocketMessageBrokerStats;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.net.InetAddress;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 本节点STOMP连接指标
+ * 代理中继模式下每个节点只统计连接到自身的会话，汇总各节点即为全局观众数
+ */
+@Component
+public class WebSocketConnectionMetrics {
+
+    private static final String COMPETITION_TOPIC_PREFIX = "/topic/competition/";
+
+    @Autowired
+    private WebSocketMessageBrokerStats webSocketMessageBrokerStats;
+
+    @Autowired
+    private CompetitionWebSocketServer competitionWebSocketServer;
+
+    @Value("${aimlab.websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${aimlab.websocket.node-id:}")
+    private String nodeId;
+
+    /**
+     * 会话ID到其订阅（订阅ID -> 目的地）的映射，断开时据此回收订阅计数
+     */
+    private final Map<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+
+    private final AtomicLong totalConnections = new AtomicLong();
+
+    private final AtomicLong totalDisconnections = new AtomicLong();
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (sessionId != null) {
+            sessionSubscriptions.putIfAbsent(sessionId, new ConcurrentHashMap<>());
+            totalConnections.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        // 同一会话可能收到多次断开事件，只统计第一次
+        if (sessionSubscriptions.remove(event.getSessionId()) != null) {
+            totalDisconnections.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() != null
+                ? sessionSubscriptions.get(accessor.getSessionId()) : null;
+        if (subscriptions != null && accessor.getSubscriptionId() != null && accessor.getDestination() != null) {
+            subscriptions.put(accessor.getSubscriptionId(), accessor.getDestination());
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = accessor.getSessionId() != null
+                ? sessionSubscriptions.get(accessor.getSessionId()) : null;
+        if (subscriptions != null && accessor.getSubscriptionId() != null) {
+            subscriptions.remove(accessor.getSubscriptionId());
+        }
+    }
+
+    /**
+     * 导出本节点连接指标
+     *
+     * @return 连接指标
+     */
+    public WebSocketMetricsDTO snapshot() {
+        Map<Long, Integer> competitionSubscribers = new TreeMap<>();
+        for (Map<String, String> subscriptions : sessionSubscriptions.values()) {
+            for (String destination : subscriptions.values()) {
+                Long competitionId = parseCompetitionId(destination);
+                if (competitionId != null) {
+                    competitionSubscribers.merge(competitionId, 1, Integer::sum);
+                }
+            }
+        }
+
+        WebSocketMetricsDTO metrics = new WebSocketMetricsDTO();
+        metrics.setNodeId(resolveNodeId());
+        metrics.setBrokerMode(brokerMode);
+        metrics.setActiveSessions(sessionSubscriptions.size());
+        metrics.setTotalConnections(totalConnections.get());
+        metrics.setTotalDisconnections(totalDisconnections.get());
+        metrics.setCompetitionSubscribers(competitionSubscribers);
+        metrics.setRawSessions(competitionWebSocketServer.getTotalConnectionCount());
+        metrics.setRawDroppedFrames(competitionWebSocketServer.getDroppedFrameCount());
+        metrics.setRawEvictedSessions(competitionWebSocketServer.getEvictedSessionCount());
+        metrics.setBrokerStats(webSocketMessageBrokerStats.toString());
+        return metrics;
+    }
+
+    private Long parseCompetitionId(String destination) {
+        if (!destination.startsWith(COMPETITION_TOPIC_PREFIX)) {
+            return null;
+        }
+        String rest = destination.substring(COMPETITION_TOPIC_PREFIX.length());
+        int slash = rest.indexOf('/');
+        try {
+            return Long.parseLong(slash >= 0 ? rest.substring(0, slash) : rest);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String resolveNodeId() {
+        if (nodeId != null && !nodeId.isEmpty()) {
+            return nodeId;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.aimlab.websocket;
+
+import org.springframework.util.MimeType;
+
+/**
+ * WebSocket广播消息编码器
+ * 每条广播只编码一次，编码结果作为消息体直接分发给所有订阅者
+ */
+public interface WebSocketMessageCodec {
+
+    /**
+     * 编码消息
+     *
+     * @param message 消息对象
+     * @return 编码后的字节
+     */
+    byte[] encode(Object message);
+
+    /**
+     * 编码结果对应的STOMP content-type
+     *
+     * @return 内容类型
+     */
+    MimeType getContentType();
+}
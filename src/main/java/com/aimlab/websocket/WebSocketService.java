@@ -1,18 +1,33 @@
 package com.aimlab.websocket;
 
+import com.aimlab.dto.RankingDeltaDTO;
+import com.aimlab.dto.RankingSnapshotDTO;
+import com.aimlab.dto.WebSocketEnvelope;
 import com.aimlab.entity.ShootingRecord;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * WebSocket服务类，提供WebSocket消息发送的业务接口
+ * 每条广播封装为类型化信封并只编码一次，编码后的消息体由消息代理原样分发给所有订阅者。
+ * 比赛消息同时转发给原生比赛端点（/ws/competition/{id}）上的会话，排名快照和状态更新只保留最新一条
  */
 @Service
 public class WebSocketService {
@@ -22,6 +37,15 @@ public class WebSocketService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
     
+    @Autowired
+    private WebSocketMessageCodec messageCodec;
+    
+    @Autowired
+    private SimpUserRegistry simpUserRegistry;
+    
+    @Autowired
+    private CompetitionWebSocketServer competitionWebSocketServer;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
@@ -33,14 +57,9 @@ public class WebSocketService {
      */
     public void sendShootingRecord(String competitionId, ShootingRecord record) {
         try {
-            // 创建消息对象
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "SHOOTING_RECORD");
-            message.put("data", record);
-            
             // 发送消息到指定主题
             String destination = "/topic/competition/" + competitionId;
-            messagingTemplate.convertAndSend(destination, message);
+            publishToCompetition(competitionId, destination, new WebSocketEnvelope<>("SHOOTING_RECORD", record), null);
             
             logger.info("✓ 广播射击记录 - 比赛ID: {}, 运动员ID: {}, 得分: {}, 目标主题: {}", 
                        competitionId, record.getAthleteId(), record.getScore(), destination);
@@ -58,19 +77,14 @@ public class WebSocketService {
      */
     public void sendCompetitionStatusUpdate(String competitionId, String status, String message) {
         try {
-            // 创建消息对象
-            Map<String, Object> messageObj = new HashMap<>();
-            messageObj.put("type", "COMPETITION_STATUS");
-            
             Map<String, String> data = new HashMap<>();
             data.put("status", status);
             data.put("message", message);
             
-            messageObj.put("data", data);
-            
             // 发送消息到指定主题
             String destination = "/topic/competition/" + competitionId + "/status";
-            messagingTemplate.convertAndSend(destination, messageObj);
+            publishToCompetition(competitionId, destination, new WebSocketEnvelope<>("COMPETITION_STATUS", data),
+                    "COMPETITION_STATUS");
             
             logger.debug("已向比赛ID: {} 发送状态更新, 状态: {}", competitionId, status);
         } catch (Exception e) {
@@ -79,25 +93,40 @@ public class WebSocketService {
     }
     
     /**
-     * 发送排名更新消息
+     * 发送排名增量消息，仅包含发生变化的排名项
      * 
      * @param competitionId 比赛ID
-     * @param rankings 排名数据
+     * @param delta 排名增量
      */
-    public void sendRankingUpdate(String competitionId, Object rankings) {
+    public void sendRankingDelta(String competitionId, RankingDeltaDTO delta) {
         try {
-            // 创建消息对象
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", "RANKING_UPDATE");
-            message.put("data", rankings);
+            // 发送消息到指定主题
+            String destination = "/topic/competition/" + competitionId;
+            publishToCompetition(competitionId, destination, new WebSocketEnvelope<>("RANKING_DELTA", delta), null);
             
+            logger.debug("广播排名增量 - 比赛ID: {}, 序列号: {}, 变化条数: {}", 
+                       competitionId, delta.getSequence(), delta.getChanges().size());
+        } catch (Exception e) {
+            logger.error("❌ 发送排名增量失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 发送排名全量快照消息
+     * 
+     * @param competitionId 比赛ID
+     * @param snapshot 排名快照
+     */
+    public void sendRankingSnapshot(String competitionId, RankingSnapshotDTO snapshot) {
+        try {
             // 发送消息到指定主题
             String destination = "/topic/competition/" + competitionId;
-            messagingTemplate.convertAndSend(destination, message);
+            publishToCompetition(competitionId, destination, new WebSocketEnvelope<>("RANKING_SNAPSHOT", snapshot),
+                    "RANKING_SNAPSHOT");
             
-            logger.info("✓ 广播排名更新 - 比赛ID: {}, 目标主题: {}", competitionId, destination);
+            logger.info("✓ 广播排名快照 - 比赛ID: {}, 目标主题: {}", competitionId, destination);
         } catch (Exception e) {
-            logger.error("❌ 发送排名更新失败: {}", e.getMessage(), e);
+            logger.error("❌ 发送排名快照失败: {}", e.getMessage(), e);
         }
     }
     
@@ -110,18 +139,104 @@ public class WebSocketService {
      */
     public void sendCustomMessage(String competitionId, String type, Object data) {
         try {
-            // 创建消息对象
-            Map<String, Object> message = new HashMap<>();
-            message.put("type", type);
-            message.put("data", data);
-            
             // 发送消息到指定主题
             String destination = "/topic/competition/" + competitionId;
-            messagingTemplate.convertAndSend(destination, message);
+            publishToCompetition(competitionId, destination, new WebSocketEnvelope<>(type, data), null);
             
             logger.debug("已向比赛ID: {} 发送自定义消息, 类型: {}", competitionId, type);
         } catch (Exception e) {
             logger.error("发送自定义消息失败: {}", e.getMessage(), e);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 推送用户的未读消息数，客户端订阅 /user/queue/messages 接收
+     * 
+     * @param userId 用户ID
+     * @param unreadCount 未读消息数
+     */
+    public void sendUnreadCount(Long userId, int unreadCount) {
+        try {
+            Map<String, Object> data = new HashMap<>();
+            data.put("unreadCount", unreadCount);
+            publish("/user/" + userId + "/queue/messages", new WebSocketEnvelope<>("UNREAD_COUNT", data));
+            
+            logger.debug("已向用户ID: {} 推送未读消息数: {}", userId, unreadCount);
+        } catch (Exception e) {
+            logger.error("推送未读消息数失败: {}", e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * 用户是否有已登录的WebSocket连接（本节点）
+     * 
+     * @param userId 用户ID
+     * @return 是否在线
+     */
+    public boolean isUserConnected(Long userId) {
+        return simpUserRegistry.getUser(userId.toString()) != null;
+    }
+    
+    /**
+     * @return 本节点有已登录WebSocket连接的用户ID
+     */
+    public Set<Long> getConnectedUserIds() {
+        Set<Long> userIds = new HashSet<>();
+        for (SimpUser user : simpUserRegistry.getUsers()) {
+            try {
+                userIds.add(Long.valueOf(user.getName()));
+            } catch (NumberFormatException e) {
+                logger.debug("忽略非用户ID的连接身份: {}", user.getName());
+            }
+        }
+        return userIds;
+    }
+    
+    /**
+     * 发送比赛消息到STOMP主题，并转发给原生比赛端点上的会话
+     * 增量类消息（射击记录、排名增量）不可合并；携带完整状态的消息以消息类型为合并键，
+     * 慢客户端队列中尚未发出的旧快照会被新快照替换
+     * 
+     * @param competitionId 比赛ID
+     * @param destination 目标主题
+     * @param envelope 消息信封
+     * @param coalesceKey 合并键，为null时不合并
+     */
+    private void publishToCompetition(String competitionId, String destination, WebSocketEnvelope<?> envelope,
+                                      String coalesceKey) {
+        byte[] payload = publish(destination, envelope);
+        if (competitionWebSocketServer.getConnectionCount(competitionId) == 0) {
+            return;
+        }
+        // 原生端点只发送文本帧，非JSON编码时单独序列化为JSON
+        String text;
+        if (MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(messageCodec.getContentType())) {
+            text = new String(payload, StandardCharsets.UTF_8);
+        } else {
+            try {
+                text = objectMapper.writeValueAsString(envelope);
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("WebSocket消息序列化失败: " + e.getMessage(), e);
+            }
+        }
+        competitionWebSocketServer.broadcastToCompetition(competitionId, text, coalesceKey);
+    }
+    
+    /**
+     * 编码信封并发送到指定主题，用户目的地（/user/{用户ID}/...）由用户目的地处理器解析到该用户的会话
+     * 消息体为已编码的字节，消息代理不会再经过消息转换器序列化
+     * 
+     * @param destination 目标主题
+     * @param envelope 消息信封
+     * @return 编码后的消息体
+     */
+    private byte[] publish(String destination, WebSocketEnvelope<?> envelope) {
+        byte[] payload = messageCodec.encode(envelope);
+        
+        SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        headers.setContentType(messageCodec.getContentType());
+        headers.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+        return payload;
+    }
+}
@@ -14,7 +14,8 @@ CREATE TABLE IF NOT EXISTS users (
     role VARCHAR(20) NOT NULL DEFAULT 'ATHLETE',
     status TINYINT NOT NULL DEFAULT 1,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_created_at (created_at)
 ) COMMENT '系统用户表';
 
 -- 运动员信息表
@@ -26,7 +27,8 @@ CREATE TABLE IF NOT EXISTS athletes (
     birth_date DATE,
     level VARCHAR(20),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_created_at (created_at)
 ) COMMENT '运动员详细信息表';
 
 -- 训练场次表
@@ -82,6 +84,7 @@ CREATE TABLE IF NOT EXISTS shooting_records (
     shot_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '射击时间(毫秒精度)',
     user_id BIGINT NOT NULL COMMENT '冗余用户ID，用于分片',
     INDEX idx_athlete_time (athlete_id, shot_at),
+    INDEX idx_shot_at (shot_at),
     INDEX idx_competition (competition_id),
     INDEX idx_training (training_session_id)
 ) COMMENT '射击记录总表';
@@ -100,6 +103,58 @@ CREATE TABLE IF NOT EXISTS competition_results (
     INDEX idx_athlete_id (athlete_id)
 ) COMMENT '比赛结果表';
 
+-- 比赛运行时状态快照表（进行中比赛的暂停时长等，重启后据此恢复）
+CREATE TABLE IF NOT EXISTS competition_states (
+    competition_id INT PRIMARY KEY,
+    status VARCHAR(20) NOT NULL COMMENT '运行时状态',
+    start_time TIMESTAMP(3) NULL COMMENT '开始时间',
+    pause_time TIMESTAMP(3) NULL COMMENT '当前暂停段开始时间',
+    resume_time TIMESTAMP(3) NULL COMMENT '最近恢复时间',
+    current_round INT NOT NULL DEFAULT 1 COMMENT '当前轮次',
+    total_pause_duration_seconds BIGINT NOT NULL DEFAULT 0 COMMENT '累计暂停时长(秒)',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+) COMMENT '比赛运行时状态快照表';
+
+-- 运动员每日射击统计汇总表（按日期和场次分行，射击写库时增量累加，统计分析读取范围内的整天）
+CREATE TABLE IF NOT EXISTS athlete_daily_stats (
+    athlete_id BIGINT NOT NULL,
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    project_type VARCHAR(50) NOT NULL DEFAULT '' COMMENT '训练项目，比赛记录为空',
+    record_type VARCHAR(20) NOT NULL COMMENT '记录类型',
+    session_id BIGINT NOT NULL DEFAULT 0 COMMENT '训练场次ID或比赛ID，未关联场次为0',
+    shot_count BIGINT NOT NULL DEFAULT 0 COMMENT '射击次数',
+    score_sum DECIMAL(14,1) NOT NULL DEFAULT 0 COMMENT '环数之和',
+    score_sq_sum DECIMAL(18,2) NOT NULL DEFAULT 0 COMMENT '环数平方和',
+    min_score DECIMAL(4,1) COMMENT '最低环数',
+    max_score DECIMAL(4,1) COMMENT '最高环数',
+    perfect_count BIGINT NOT NULL DEFAULT 0 COMMENT '10环次数（环数恰好为10）',
+    high_score_count BIGINT NOT NULL DEFAULT 0 COMMENT '9环及以上次数',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (athlete_id, stat_date, project_type, record_type, session_id),
+    INDEX idx_stat_date (stat_date)
+) COMMENT '运动员每日射击统计汇总表';
+
+-- 广播消息表（面向全体用户或某一角色的公告只存一行，用户读取收件箱时合并）
+CREATE TABLE IF NOT EXISTS broadcast_messages (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sender_id BIGINT COMMENT '发送者ID，NULL表示系统消息',
+    target_role VARCHAR(20) COMMENT '接收角色，NULL表示全体用户',
+    title VARCHAR(200) NOT NULL COMMENT '消息标题',
+    content TEXT COMMENT '消息内容',
+    type VARCHAR(20) NOT NULL COMMENT '消息类型',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_created_at (created_at)
+) COMMENT '广播消息表';
+
+-- 广播消息阅读标记表（用户阅读或删除广播消息时才写入）
+CREATE TABLE IF NOT EXISTS broadcast_receipts (
+    user_id BIGINT NOT NULL,
+    broadcast_id BIGINT NOT NULL,
+    read_at TIMESTAMP NULL COMMENT '阅读时间',
+    deleted TINYINT(1) NOT NULL DEFAULT 0 COMMENT '用户是否已删除',
+    PRIMARY KEY (user_id, broadcast_id)
+) COMMENT '广播消息阅读标记表';
+
 -- 创建分片表（按月份分片，这里创建2023年和2024年的所有月份表）
 -- 2023年
 CREATE TABLE IF NOT EXISTS shooting_records_2023_01 LIKE shooting_records;
@@ -141,7 +196,8 @@ CREATE TABLE IF NOT EXISTS users (
     role VARCHAR(20) NOT NULL DEFAULT 'ATHLETE',
     status TINYINT NOT NULL DEFAULT 1,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_created_at (created_at)
 ) COMMENT '系统用户表';
 
 -- 运动员信息表
@@ -153,7 +209,8 @@ CREATE TABLE IF NOT EXISTS athletes (
     birth_date DATE,
     level VARCHAR(20),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_created_at (created_at)
 ) COMMENT '运动员详细信息表';
 
 -- 训练场次表
@@ -209,6 +266,7 @@ CREATE TABLE IF NOT EXISTS shooting_records (
     shot_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT '射击时间(毫秒精度)',
     user_id BIGINT NOT NULL COMMENT '冗余用户ID，用于分片',
     INDEX idx_athlete_time (athlete_id, shot_at),
+    INDEX idx_shot_at (shot_at),
     INDEX idx_competition (competition_id),
     INDEX idx_training (training_session_id)
 ) COMMENT '射击记录总表';
@@ -0,0 +1,85 @@
+package com.aimlab.controller;
+
+import com.aimlab.dto.AthleteCompareDTO;
+import com.aimlab.exception.GlobalExceptionHandler;
+import com.aimlab.service.AdvancedAnalyticsService;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * 数据分析导出接口测试
+ */
+public class AnalyticsControllerTest {
+
+    private MockMvc mockMvc;
+
+    private AdvancedAnalyticsService analyticsService;
+
+    @BeforeEach
+    public void setUp() {
+        // 导出文件由真实的服务方法生成，只替换查询部分
+        analyticsService = spy(new AdvancedAnalyticsService());
+        AnalyticsController controller = new AnalyticsController();
+        ReflectionTestUtils.setField(controller, "analyticsService", analyticsService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void testCompareExportDownloadsWorkbook() throws Exception {
+        AthleteCompareDTO dto = new AthleteCompareDTO();
+        dto.setAthleteId(1L);
+        dto.setAthleteName("张三");
+        dto.setAvgScore(new BigDecimal("9.80"));
+        doReturn(Collections.singletonList(dto)).when(analyticsService).compareAthletes(any());
+
+        MvcResult started = mockMvc.perform(post("/api/analytics/compare/export")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"athleteIds\":[1]}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        Matchers.startsWith("attachment; filename=\"athlete-compare-")))
+                .andReturn();
+
+        byte[] content = result.getResponse().getContentAsByteArray();
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content))) {
+            assertEquals("张三", workbook.getSheetAt(0).getRow(1).getCell(1).getStringCellValue());
+            assertEquals(9.8, workbook.getSheetAt(0).getRow(1).getCell(3).getNumericCellValue(), 1e-9);
+        }
+    }
+
+    @Test
+    public void testCompareExportFailureReturnsErrorJson() throws Exception {
+        doThrow(new RuntimeException("数据库不可用")).when(analyticsService).compareAthletes(any());
+
+        mockMvc.perform(post("/api/analytics/compare/export")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.success").value(false));
+    }
+}
@@ -0,0 +1,56 @@
+package com.aimlab.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 统计分析时间范围单元测试
+ */
+public class DailyStatsRangeTest {
+
+    @Test
+    public void testSplitsPartialDaysFromWholeDays() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 30);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 5, 18, 0);
+        DailyStatsRange range = DailyStatsRange.ofInclusive(start, end);
+
+        assertTrue(range.isFullDays());
+        assertEquals(LocalDate.of(2025, 3, 2), range.getFromDate());
+        assertEquals(LocalDate.of(2025, 3, 5), range.getToDate());
+        List<ShotTimeWindow> windows = range.getShotWindows();
+        assertEquals(2, windows.size());
+        assertEquals(new ShotTimeWindow(start, LocalDateTime.of(2025, 3, 2, 0, 0)), windows.get(0));
+        // 结束时间包含在内，右边界为下一毫秒
+        assertEquals(new ShotTimeWindow(LocalDateTime.of(2025, 3, 5, 0, 0),
+                LocalDateTime.of(2025, 3, 5, 18, 0, 0, 1_000_000)), windows.get(1));
+    }
+
+    @Test
+    public void testRangeWithoutWholeDayReadsShotsOnly() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 30);
+        LocalDateTime end = LocalDateTime.of(2025, 3, 2, 8, 0);
+        DailyStatsRange range = DailyStatsRange.of(start, end);
+
+        assertFalse(range.isFullDays());
+        assertEquals(List.of(new ShotTimeWindow(start, end)), range.getShotWindows());
+    }
+
+    @Test
+    public void testAlignedAndOpenBounds() {
+        DailyStatsRange aligned = DailyStatsRange.of(
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 4, 1, 0, 0));
+        assertTrue(aligned.isFullDays());
+        assertTrue(aligned.getShotWindows().isEmpty());
+
+        LocalDateTime since = LocalDateTime.of(2025, 3, 1, 9, 30);
+        DailyStatsRange open = DailyStatsRange.of(since, null);
+        assertEquals(LocalDate.of(2025, 3, 2), open.getFromDate());
+        assertNull(open.getToDate());
+        assertEquals(List.of(new ShotTimeWindow(since, LocalDateTime.of(2025, 3, 2, 0, 0))), open.getShotWindows());
+    }
+}
@@ -0,0 +1,62 @@
+package com.aimlab.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 统计时间范围单元测试
+ */
+public class StatisticsTimeRangeTest {
+
+    /**
+     * 对时间列套用函数的条件，无法使用索引和按时间裁剪分表
+     */
+    private static final Pattern FUNCTION_ON_TIME_COLUMN = Pattern.compile(
+            "\\b(YEAR|MONTH|QUARTER|DATE|DATE_FORMAT)\\s*\\(\\s*(\\w+\\.)?(shot_at|created_at|stat_date|start_time|end_time)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    @Test
+    public void testPeriodsAreHalfOpenRanges() {
+        StatisticsTimeRange month = StatisticsTimeRange.ofMonth(2024, 12);
+        assertEquals(LocalDateTime.of(2024, 12, 1, 0, 0), month.getStart());
+        assertEquals(LocalDateTime.of(2025, 1, 1, 0, 0), month.getEnd());
+        assertEquals(LocalDate.of(2024, 12, 1), month.getDaily().getFromDate());
+        assertEquals(LocalDate.of(2025, 1, 1), month.getDaily().getToDate());
+        assertTrue(month.getDaily().getShotWindows().isEmpty());
+        assertEquals("2024-12", month.getLabel());
+
+        StatisticsTimeRange quarter = StatisticsTimeRange.ofQuarter(2025, 2);
+        assertEquals(LocalDateTime.of(2025, 4, 1, 0, 0), quarter.getStart());
+        assertEquals(LocalDateTime.of(2025, 7, 1, 0, 0), quarter.getEnd());
+
+        StatisticsTimeRange year = StatisticsTimeRange.ofYear(2025);
+        assertEquals(LocalDateTime.of(2026, 1, 1, 0, 0), year.getEnd());
+        assertEquals("YEARLY", year.getPeriod());
+
+        // 自定义范围的结束时间包含在内，不足一天的首尾部分不读取汇总
+        StatisticsTimeRange custom = StatisticsTimeRange.ofCustom(
+                LocalDateTime.of(2025, 1, 1, 8, 0), LocalDateTime.of(2025, 1, 31, 23, 59, 59));
+        assertEquals(LocalDateTime.of(2025, 1, 31, 23, 59, 59, 1_000_000), custom.getEnd());
+        assertEquals(LocalDate.of(2025, 1, 2), custom.getDaily().getFromDate());
+        assertEquals(LocalDate.of(2025, 1, 31), custom.getDaily().getToDate());
+        assertEquals(2, custom.getDaily().getShotWindows().size());
+        assertEquals("2025-01-01 ~ 2025-01-31", custom.getLabel());
+    }
+
+    @Test
+    public void testStatisticsQueriesDoNotWrapTimeColumns() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/mapper/StatisticsMapper.xml")) {
+            assertNotNull(in);
+            String xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertFalse(FUNCTION_ON_TIME_COLUMN.matcher(xml).find(), "统计查询不应对时间列套用函数");
+        }
+    }
+}
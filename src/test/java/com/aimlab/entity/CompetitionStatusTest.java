@@ -0,0 +1,76 @@
+package com.aimlab.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 比赛状态射击校验单元测试
+ */
+public class CompetitionStatusTest {
+
+    @Test
+    public void testRejectsUnenrolledAndOverQuotaShots() {
+        CompetitionStatus status = new CompetitionStatus(1L);
+        assertFalse(status.isShotGuardReady());
+
+        status.initShotGuard(3, Map.of(1L, 2, 2L, 0));
+        assertTrue(status.isShotGuardReady());
+        assertTrue(status.isEnrolled(1L));
+        assertFalse(status.isEnrolled(3L));
+        assertFalse(status.recordShot(3L));
+
+        assertTrue(status.recordShot(1L));
+        assertFalse(status.recordShot(1L));
+        assertEquals(3, status.getAthleteShotCount(1L));
+
+        status.revokeShot(1L);
+        assertEquals(2, status.getAthleteShotCount(1L));
+        assertTrue(status.recordShot(1L));
+
+        status.endCurrentRound();
+        assertEquals(3, status.getAthleteShotCount(1L));
+    }
+
+    @Test
+    public void testConcurrentShotsNeverExceedQuota() throws Exception {
+        CompetitionStatus status = new CompetitionStatus(1L);
+        status.initShotGuard(10, Map.of(1L, 0));
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                int accepted = 0;
+                for (int j = 0; j < 100; j++) {
+                    if (status.recordShot(1L)) {
+                        accepted++;
+                    }
+                }
+                return accepted;
+            }));
+        }
+        start.countDown();
+
+        int accepted = 0;
+        for (Future<Integer> future : futures) {
+            accepted += future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(10, accepted);
+        assertEquals(10, status.getAthleteShotCount(1L));
+    }
+}
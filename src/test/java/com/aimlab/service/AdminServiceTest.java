@@ -0,0 +1,90 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.DashboardCountsDTO;
+import com.aimlab.mapper.AthleteMapper;
+import com.aimlab.mapper.CompetitionMapper;
+import com.aimlab.mapper.DashboardMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * 管理员仪表盘单元测试
+ */
+public class AdminServiceTest {
+
+    private AdminService adminService;
+
+    private DashboardMapper dashboardMapper;
+
+    @BeforeEach
+    public void setUp() {
+        adminService = new AdminService();
+        dashboardMapper = mock(DashboardMapper.class);
+        ReflectionTestUtils.setField(adminService, "dashboardMapper", dashboardMapper);
+        ReflectionTestUtils.setField(adminService, "athleteMapper", mock(AthleteMapper.class));
+        ReflectionTestUtils.setField(adminService, "competitionMapper", mock(CompetitionMapper.class));
+        ReflectionTestUtils.setField(adminService, "parallelism", 2);
+        ReflectionTestUtils.setField(adminService, "scoreDistributionDays", 30);
+        adminService.init();
+
+        DashboardCountsDTO counts = new DashboardCountsDTO();
+        counts.setTotalUsers(12);
+        counts.setRunningCompetitions(2);
+        counts.setPausedCompetitions(1);
+        counts.setCreatedCompetitions(4);
+        when(dashboardMapper.countEntities(any())).thenReturn(counts);
+        when(dashboardMapper.getAverageScore()).thenReturn(new BigDecimal("9.35"));
+        when(dashboardMapper.countAthletesByLevel()).thenReturn(List.of(
+                Map.of("level", "一级", "count", 3L), Map.of("count", 2L)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        adminService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCountersComeFromGroupedQuery() {
+        ReflectionTestUtils.setField(adminService, "cacheSeconds", 0L);
+        Map<String, Object> metrics = adminService.getDashboardMetrics();
+
+        Map<String, Object> overview = (Map<String, Object>) metrics.get("overview");
+        assertEquals(12L, overview.get("totalUsers"));
+        assertEquals(3L, overview.get("activeCompetitions"));
+        assertEquals(new BigDecimal("9.35"), overview.get("avgScore"));
+        Map<String, Object> todos = (Map<String, Object>) metrics.get("todos");
+        assertEquals(4L, ((Map<String, Object>) todos.get("upcomingCompetitions")).get("total"));
+        Map<String, Long> levels = (Map<String, Long>) metrics.get("athleteLevelDistribution");
+        assertEquals(3L, levels.get("一级"));
+        assertEquals(2L, levels.get("未知"));
+        verify(dashboardMapper, times(1)).countEntities(any());
+        verify(dashboardMapper, times(1)).getAthleteTrainingRanking(anyInt());
+    }
+
+    @Test
+    public void testSnapshotIsReusedWithinTtl() {
+        ReflectionTestUtils.setField(adminService, "cacheSeconds", 60L);
+        Map<String, Object> first = adminService.getDashboardMetrics();
+        Map<String, Object> second = adminService.getDashboardMetrics();
+
+        verify(dashboardMapper, times(1)).countEntities(any());
+        assertEquals(first.get("generatedAt"), second.get("generatedAt"));
+        assertTrue((Long) second.get("cacheAgeMs") >= 0);
+
+        ReflectionTestUtils.setField(adminService, "cacheSeconds", 0L);
+        adminService.getDashboardMetrics();
+        verify(dashboardMapper, times(2)).countEntities(any());
+    }
+}
@@ -0,0 +1,87 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.AthleteDailyStats;
+import com.aimlab.entity.ShootingRecord;
+import com.aimlab.mapper.AthleteDailyStatsMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 每日统计汇总增量合并单元测试
+ */
+public class AthleteDailyStatsServiceTest {
+
+    @Test
+    public void testRecordsMergeIntoOneDeltaPerSessionDay() {
+        LocalDateTime day1 = LocalDateTime.of(2025, 3, 1, 23, 59);
+        LocalDateTime day2 = day1.plusMinutes(2);
+        List<ShootingRecord> records = Arrays.asList(
+                record(1L, 5L, "9.0", day1),
+                record(1L, 5L, "10.0", day1),
+                record(1L, 5L, "10.4", day1),
+                record(1L, 6L, "8.0", day1),
+                record(1L, 6L, "7.0", day2),
+                record(2L, 7L, "6.0", day1));
+
+        List<AthleteDailyStatsService.DailyDelta> deltas = AthleteDailyStatsService.aggregate(records, null);
+        assertEquals(4, deltas.size());
+
+        AthleteDailyStats stats = deltas.get(0).stats;
+        assertEquals(5L, stats.getSessionId());
+        assertEquals("", stats.getProjectType());
+        assertEquals(3, stats.getShotCount());
+        assertEquals(0, new BigDecimal("29.4").compareTo(stats.getScoreSum()));
+        assertEquals(0, new BigDecimal("289.16").compareTo(stats.getScoreSqSum()));
+        assertEquals(0, new BigDecimal("9.0").compareTo(stats.getMinScore()));
+        assertEquals(0, new BigDecimal("10.4").compareTo(stats.getMaxScore()));
+        // 只统计恰好10环的射击
+        assertEquals(1, stats.getPerfectCount());
+        assertEquals(3, stats.getHighScoreCount());
+
+        assertEquals(6L, deltas.get(1).stats.getSessionId());
+        // 跨过零点的射击计入次日，同一场次在两天各有一行
+        assertEquals(day2.toLocalDate(), deltas.get(2).stats.getStatDate());
+        assertEquals(6L, deltas.get(2).stats.getSessionId());
+        assertEquals(1, deltas.get(2).stats.getShotCount());
+        assertEquals(Long.valueOf(2L), deltas.get(3).stats.getAthleteId());
+    }
+
+    @Test
+    public void testRecordShotsOnlyUpsertsRollupRows() {
+        AthleteDailyStatsMapper mapper = mock(AthleteDailyStatsMapper.class);
+        AthleteDailyStatsService service = new AthleteDailyStatsService();
+        ReflectionTestUtils.setField(service, "athleteDailyStatsMapper", mapper);
+        LocalDateTime shotAt = LocalDateTime.of(2025, 3, 1, 10, 0);
+        ShootingRecord competitionShot = record(1L, null, "9.5", shotAt);
+        competitionShot.setRecordType("COMPETITION");
+        competitionShot.setCompetitionId(3);
+
+        service.recordShots(Arrays.asList(record(1L, 5L, "9.0", shotAt), competitionShot), null);
+
+        ArgumentCaptor<AthleteDailyStats> upserted = ArgumentCaptor.forClass(AthleteDailyStats.class);
+        verify(mapper, times(2)).upsert(upserted.capture());
+        verifyNoMoreInteractions(mapper);
+        assertEquals(5L, upserted.getAllValues().get(0).getSessionId());
+        assertEquals(3L, upserted.getAllValues().get(1).getSessionId());
+        assertEquals("COMPETITION", upserted.getAllValues().get(1).getRecordType());
+    }
+
+    private ShootingRecord record(Long athleteId, Long sessionId, String score, LocalDateTime shotAt) {
+        ShootingRecord record = new ShootingRecord();
+        record.setAthleteId(athleteId);
+        record.setTrainingSessionId(sessionId);
+        record.setRecordType("TRAINING");
+        record.setScore(new BigDecimal(score));
+        record.setShotAt(shotAt);
+        return record;
+    }
+}
@@ -0,0 +1,72 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.AthleteHistoryItemDTO;
+import com.aimlab.dto.AthleteProfileDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 运动员个人资料缓存单元测试
+ */
+public class AthleteProfileCacheTest {
+
+    @Test
+    public void testInvalidationDuringLoadIsNotOverwritten() {
+        AthleteProfileCache cache = new AthleteProfileCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+
+        AthleteProfileDTO profile = new AthleteProfileDTO();
+        profile.setId(1L);
+        long version = cache.version(1L);
+        cache.put(1L, version, profile);
+        assertEquals(profile, cache.get(1L));
+
+        // 加载期间有新的射击记录，加载结果不应写入缓存
+        long staleVersion = cache.version(1L);
+        cache.invalidate(1L);
+        assertNull(cache.get(1L));
+        cache.put(1L, staleVersion, new AthleteProfileDTO());
+        assertNull(cache.get(1L));
+
+        cache.put(1L, cache.version(1L), profile);
+        assertEquals(profile, cache.get(1L));
+        assertNull(cache.get(2L));
+
+        // 重建汇总时全部失效，加载期间取得的版本号随之作废
+        long beforeRebuild = cache.version(1L);
+        cache.invalidateAll();
+        assertNull(cache.get(1L));
+        cache.put(1L, beforeRebuild, profile);
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    public void testCallersCannotMutateCachedProfile() {
+        AthleteProfileCache cache = new AthleteProfileCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+
+        AthleteHistoryItemDTO item = new AthleteHistoryItemDTO();
+        item.setName("训练场次1");
+        AthleteProfileDTO profile = new AthleteProfileDTO();
+        profile.setName("运动员");
+        profile.setHistoryItems(new ArrayList<>(Collections.singletonList(item)));
+        cache.put(1L, cache.version(1L), profile);
+
+        // 写入后修改原对象、读取后修改副本都不影响缓存
+        profile.setName("已修改");
+        AthleteProfileDTO first = cache.get(1L);
+        first.getHistoryItems().get(0).setName("已修改");
+        first.getHistoryItems().clear();
+
+        AthleteProfileDTO second = cache.get(1L);
+        assertNotSame(first, second);
+        assertEquals("运动员", second.getName());
+        assertEquals(1, second.getHistoryItems().size());
+        assertEquals("训练场次1", second.getHistoryItems().get(0).getName());
+    }
+}
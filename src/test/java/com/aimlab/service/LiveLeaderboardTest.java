@@ -0,0 +1,153 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.RankingDeltaDTO;
+import com.aimlab.dto.RankingItemDTO;
+import com.aimlab.dto.RankingSnapshotDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 实时排行榜单元测试
+ */
+public class LiveLeaderboardTest {
+
+    @Test
+    public void testRegisteredAthletesStartWithZeroScore() {
+        LiveLeaderboard leaderboard = new LiveLeaderboard(1L);
+        leaderboard.register(2L, "B");
+        leaderboard.register(1L, "A");
+        leaderboard.register(1L, "A");
+
+        List<RankingItemDTO> rankings = leaderboard.snapshot();
+        assertEquals(2, rankings.size());
+        assertEquals(1L, rankings.get(0).getAthleteId());
+        assertEquals(1, rankings.get(0).getRank());
+        assertEquals(0, BigDecimal.ZERO.compareTo(rankings.get(1).getTotalScore()));
+        assertEquals(0, rankings.get(1).getTotalShots());
+    }
+
+    @Test
+    public void testRecordShotReordersAndTieBreaks() {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 10, 0);
+        LiveLeaderboard leaderboard = new LiveLeaderboard(1L);
+        leaderboard.register(1L, "A");
+        leaderboard.register(2L, "B");
+        leaderboard.register(3L, "C");
+
+        RankingDeltaDTO delta = leaderboard.recordShot(3L, new BigDecimal("10.5"), base);
+        assertEquals(1L, delta.getSequence());
+        assertEquals(3, delta.getTotalAthletes());
+        // 运动员3从第3名升至第1名，原第1、2名各后移一位
+        assertEquals(3, delta.getChanges().size());
+        assertEquals(3L, delta.getChanges().get(0).getAthleteId());
+        assertEquals(1, delta.getChanges().get(0).getRank());
+        assertEquals(3, delta.getChanges().get(2).getRank());
+
+        // 同分时先达到该分数者排名靠前
+        leaderboard.recordShot(1L, new BigDecimal("10.5"), base.plusSeconds(5));
+        assertEquals(1, leaderboard.getRank(3L));
+        assertEquals(2, leaderboard.getRank(1L));
+
+        // 同分时射击次数少者排名靠前
+        leaderboard.recordShot(2L, new BigDecimal("5.0"), base.plusSeconds(1));
+        leaderboard.recordShot(2L, new BigDecimal("5.5"), base.plusSeconds(2));
+        assertEquals(3, leaderboard.getRank(2L));
+
+        delta = leaderboard.recordShot(2L, new BigDecimal("0.1"), base.plusSeconds(10));
+        assertEquals(1, leaderboard.getRank(2L));
+        assertEquals(3, leaderboard.snapshot().get(0).getTotalShots());
+        assertEquals(5L, delta.getSequence());
+
+        RankingSnapshotDTO snapshot = leaderboard.toSnapshot();
+        assertEquals(5L, snapshot.getSequence());
+        assertEquals(delta.getEpoch(), snapshot.getEpoch());
+        assertEquals(3, snapshot.getRankings().size());
+
+        assertNull(leaderboard.recordShot(99L, BigDecimal.TEN, base));
+        assertNull(leaderboard.getRank(99L));
+    }
+
+    @Test
+    public void testUnchangedRankOnlyReportsShooter() {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 10, 0);
+        LiveLeaderboard leaderboard = new LiveLeaderboard(1L);
+        leaderboard.register(1L, "A");
+        leaderboard.register(2L, "B");
+        leaderboard.load(1L, new BigDecimal("9.0"), base);
+
+        RankingDeltaDTO delta = leaderboard.recordShot(1L, new BigDecimal("8.0"), base.plusSeconds(1));
+        assertEquals(1L, delta.getSequence());
+        assertEquals(1, delta.getChanges().size());
+        assertEquals(0, new BigDecimal("17.0").compareTo(delta.getChanges().get(0).getTotalScore()));
+        assertEquals(2, delta.getChanges().get(0).getTotalShots());
+    }
+
+    @Test
+    public void testMarkedShotsDrainAsSingleDelta() {
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 10, 0);
+        LiveLeaderboard leaderboard = new LiveLeaderboard(1L);
+        for (long id = 1; id <= 6; id++) {
+            leaderboard.register(id, "athlete-" + id);
+        }
+        assertNull(leaderboard.drainDelta());
+
+        // 运动员2升至第1名影响名次1-2，运动员5升至第2名影响名次2-5
+        assertTrue(leaderboard.markShot(2L, new BigDecimal("10.0"), base));
+        assertTrue(leaderboard.markShot(5L, new BigDecimal("9.0"), base.plusSeconds(1)));
+        assertFalse(leaderboard.markShot(99L, BigDecimal.TEN, base));
+
+        RankingDeltaDTO delta = leaderboard.drainDelta();
+        assertEquals(1L, delta.getSequence());
+        assertEquals(5, delta.getChanges().size());
+        assertEquals(2L, delta.getChanges().get(0).getAthleteId());
+        assertEquals(5L, delta.getChanges().get(1).getAthleteId());
+        assertEquals(5, delta.getChanges().get(4).getRank());
+        assertNull(leaderboard.drainDelta());
+
+        // 立即发布的射击会带上此前未发布的变化
+        leaderboard.markShot(6L, new BigDecimal("1.0"), base.plusSeconds(2));
+        delta = leaderboard.recordShot(1L, new BigDecimal("0.5"), base.plusSeconds(3));
+        assertEquals(2L, delta.getSequence());
+        assertEquals(3, delta.getChanges().get(0).getRank());
+        assertEquals(6, delta.getChanges().get(delta.getChanges().size() - 1).getRank());
+        assertEquals(2L, leaderboard.toSnapshot().getSequence());
+    }
+
+    @Test
+    public void testSnapshotMatchesFullSort() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2025, 6, 1, 10, 0);
+        LiveLeaderboard leaderboard = new LiveLeaderboard(1L);
+        for (long id = 1; id <= 64; id++) {
+            leaderboard.register(id, "athlete-" + id);
+        }
+
+        for (int i = 0; i < 640; i++) {
+            long athleteId = 1 + random.nextInt(64);
+            BigDecimal score = BigDecimal.valueOf(random.nextInt(110), 1);
+            leaderboard.recordShot(athleteId, score, base.plusSeconds(i));
+        }
+
+        List<RankingItemDTO> rankings = leaderboard.snapshot();
+        assertEquals(64, rankings.size());
+
+        List<RankingItemDTO> expected = new ArrayList<>(rankings);
+        expected.sort(Comparator.comparing(RankingItemDTO::getTotalScore, Comparator.reverseOrder())
+                .thenComparing(RankingItemDTO::getTotalShots)
+                .thenComparing(RankingItemDTO::getLastShotTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(RankingItemDTO::getAthleteId));
+        for (int i = 0; i < rankings.size(); i++) {
+            assertEquals(expected.get(i).getAthleteId(), rankings.get(i).getAthleteId());
+            assertEquals(i + 1, rankings.get(i).getRank());
+            assertEquals(i + 1, leaderboard.getRank(rankings.get(i).getAthleteId()));
+        }
+    }
+}
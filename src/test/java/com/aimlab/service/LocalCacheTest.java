@@ -0,0 +1,58 @@
+package com.aimlab.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 节点内过期缓存单元测试
+ */
+public class LocalCacheTest {
+
+    @Test
+    public void testInvalidationDuringLoadDiscardsResult() {
+        LocalCache<Long, String> cache = new LocalCache<>(() -> 60L);
+        AtomicInteger loads = new AtomicInteger();
+
+        // 加载期间失效，旧值不写入缓存
+        assertEquals("旧值", cache.get(1L, id -> {
+            loads.incrementAndGet();
+            cache.invalidate(1L);
+            return "旧值";
+        }));
+        assertNull(cache.getIfPresent(1L));
+
+        assertEquals("新值", cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return "新值";
+        }));
+        assertEquals("新值", cache.get(1L, id -> "不应加载"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testScopedInvalidationCoversDescendants() {
+        LocalCache<String, Long> cache = new LocalCache<>(() -> 60L, () -> 100,
+                key -> Arrays.asList(key, key.substring(0, key.indexOf(':'))));
+        cache.put("inbox:1", cache.version("inbox:1"), 1L);
+        cache.put("inbox:2", cache.version("inbox:2"), 2L);
+        cache.put("users:1", cache.version("users:1"), 3L);
+
+        cache.invalidate("inbox");
+        assertNull(cache.getIfPresent("inbox:1"));
+        assertNull(cache.getIfPresent("inbox:2"));
+        assertEquals(3L, cache.getIfPresent("users:1"));
+        assertEquals(1, cache.keys().size());
+    }
+
+    @Test
+    public void testZeroTtlDisablesCaching() {
+        LocalCache<Long, String> cache = new LocalCache<>(() -> 0L);
+        cache.put(1L, cache.version(1L), "值");
+        assertNull(cache.getIfPresent(1L));
+        assertTrue(cache.keys().isEmpty());
+    }
+}
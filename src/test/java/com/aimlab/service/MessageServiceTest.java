@@ -0,0 +1,203 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.KeysetCursor;
+import com.aimlab.entity.Message;
+import com.aimlab.entity.User;
+import com.aimlab.mapper.BroadcastMessageMapper;
+import com.aimlab.mapper.MessageMapper;
+import com.aimlab.mapper.UserMapper;
+import com.aimlab.websocket.WebSocketService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 站内信批量发送、未读数推送与收件箱分页单元测试
+ */
+public class MessageServiceTest {
+
+    private MessageService messageService;
+
+    private MessageMapper messageMapper;
+
+    private UserMapper userMapper;
+
+    private AdminRecipientCache adminRecipientCache;
+
+    private BroadcastMessageMapper broadcastMessageMapper;
+
+    private WebSocketService webSocketService;
+
+    @BeforeEach
+    public void setUp() {
+        messageMapper = mock(MessageMapper.class);
+        when(messageMapper.batchInsert(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+        userMapper = mock(UserMapper.class);
+        adminRecipientCache = new AdminRecipientCache();
+        ReflectionTestUtils.setField(adminRecipientCache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(adminRecipientCache, "ttlSeconds", 300L);
+
+        messageService = new MessageService();
+        ReflectionTestUtils.setField(messageService, "messageMapper", messageMapper);
+        ReflectionTestUtils.setField(messageService, "adminRecipientCache", adminRecipientCache);
+        ReflectionTestUtils.setField(messageService, "insertBatchSize", 2);
+
+        broadcastMessageMapper = mock(BroadcastMessageMapper.class);
+        webSocketService = mock(WebSocketService.class);
+        UnreadCountCache unreadCountCache = new UnreadCountCache();
+        ReflectionTestUtils.setField(unreadCountCache, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(messageService, "broadcastMessageMapper", broadcastMessageMapper);
+        ReflectionTestUtils.setField(messageService, "userRoleCache", mock(UserRoleCache.class));
+        ReflectionTestUtils.setField(messageService, "unreadCountCache", unreadCountCache);
+        ReflectionTestUtils.setField(messageService, "webSocketService", webSocketService);
+
+        PageTotalCache pageTotalCache = new PageTotalCache();
+        ReflectionTestUtils.setField(pageTotalCache, "ttlSeconds", 30L);
+        ReflectionTestUtils.setField(pageTotalCache, "maxEntries", 100);
+        ReflectionTestUtils.setField(messageService, "pageTotalCache", pageTotalCache);
+        ReflectionTestUtils.setField(messageService, "maxPageSize", 100);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchMessageIsInsertedInChunks() {
+        int sent = messageService.sendBatchMessage(1L, Arrays.asList(10L, 11L, 10L, 12L, 13L, 14L),
+                "标题", "内容", MessageService.TYPE_MANUAL);
+
+        assertEquals(5, sent);
+        ArgumentCaptor<List<Message>> captor = ArgumentCaptor.forClass(List.class);
+        verify(messageMapper, times(3)).batchInsert(captor.capture());
+        List<Long> receivers = new ArrayList<>();
+        for (List<Message> batch : captor.getAllValues()) {
+            assertTrue(batch.size() <= 2);
+            batch.forEach(message -> receivers.add(message.getReceiverId()));
+        }
+        assertEquals(Arrays.asList(10L, 11L, 12L, 13L, 14L), receivers);
+        verify(messageMapper, never()).insert(any());
+    }
+
+    @Test
+    public void testAdminRecipientsAreCachedUntilInvalidated() {
+        when(userMapper.findByRole("ADMIN")).thenReturn(List.of(user(1L)));
+
+        messageService.notifyAdminsNewAthleteRegistration("张三");
+        messageService.notifyAdminsAthleteModification("张三");
+        verify(userMapper, times(1)).findByRole("ADMIN");
+
+        when(userMapper.findByRole("ADMIN")).thenReturn(List.of(user(1L), user(2L)));
+        adminRecipientCache.invalidate();
+        assertEquals(2, messageService.sendToAdmins(5L, "反馈", "内容", MessageService.TYPE_MANUAL));
+        verify(userMapper, times(2)).findByRole("ADMIN");
+    }
+
+    @Test
+    public void testNoAdminsSendsNothing() {
+        when(userMapper.findByRole("ADMIN")).thenReturn(List.of());
+        assertEquals(0, messageService.sendToAdmins(5L, "反馈", "内容", MessageService.TYPE_MANUAL));
+        verify(messageMapper, never()).batchInsert(anyList());
+    }
+
+    @Test
+    public void testUnreadCountIsCachedAndPushedOnChange() {
+        when(messageMapper.countUnreadByReceiverId(7L)).thenReturn(3);
+        when(broadcastMessageMapper.countUnread(eq(7L), any())).thenReturn(1);
+        when(webSocketService.isUserConnected(7L)).thenReturn(true);
+
+        assertEquals(4, messageService.getUnreadCount(7L));
+        assertEquals(4, messageService.getUnreadCount(7L));
+        verify(messageMapper, times(1)).countUnreadByReceiverId(7L);
+
+        messageService.sendSystemNotification(7L, "标题", "内容");
+        verify(webSocketService).sendUnreadCount(7L, 5);
+        assertEquals(5, messageService.getUnreadCount(7L));
+
+        Message unread = new Message();
+        unread.setReceiverId(7L);
+        unread.setIsRead(false);
+        when(messageMapper.findById(100L)).thenReturn(unread);
+        when(messageMapper.markAsRead(100L)).thenReturn(1);
+        assertTrue(messageService.markAsRead(100L, 7L));
+        verify(webSocketService).sendUnreadCount(7L, 4);
+
+        messageService.markAllAsRead(7L);
+        verify(webSocketService).sendUnreadCount(7L, 0);
+        assertEquals(0, messageService.getUnreadCount(7L));
+        verify(messageMapper, times(1)).countUnreadByReceiverId(7L);
+    }
+
+    @Test
+    public void testOfflineUsersAreNotPushed() {
+        messageService.sendBatchMessage(null, List.of(20L, 21L), "标题", "内容", MessageService.TYPE_SYSTEM);
+        verify(webSocketService, never()).sendUnreadCount(any(), anyInt());
+        verify(messageMapper, never()).countUnreadByReceiverId(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testInboxPagesByCursorAndCachesTotal() {
+        LocalDateTime t2 = LocalDateTime.of(2024, 5, 1, 10, 0, 2);
+        LocalDateTime t1 = t2.minusSeconds(1);
+        when(messageMapper.findByReceiverId(eq(7L), any(), any(), any(), anyInt()))
+                .thenReturn(new ArrayList<>(List.of(message(5L, t2, false), message(4L, t1, false))));
+        when(broadcastMessageMapper.findPageForUser(eq(7L), any(), any(), any(), any(), anyInt()))
+                .thenReturn(new ArrayList<>(List.of(message(9L, t2, true), message(8L, t1.minusSeconds(5), true))));
+        when(messageMapper.findInboxPage(eq(7L), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new ArrayList<>(List.of(message(5L, t2, false), message(9L, t2, true), message(4L, t1, false))));
+        when(messageMapper.countByReceiverId(eq(7L), any(), any(), any())).thenReturn(4);
+
+        // 按页码查询时由数据库合并排序，只取一页和判断是否还有下一页的一行
+        Map<String, Object> first = messageService.getMessageList(7L, null, null, null, 1, 2, null);
+        List<Message> list = (List<Message>) first.get("list");
+        assertEquals(List.of(5L, 9L), List.of(list.get(0).getId(), list.get(1).getId()));
+        assertEquals(true, first.get("hasMore"));
+        assertEquals(4L, first.get("total"));
+        verify(messageMapper).findInboxPage(7L, null, null, null, 0, 3);
+        verify(messageMapper, never()).findByReceiverId(any(), any(), any(), any(), anyInt());
+        messageService.getMessageList(7L, null, null, null, 3, 2, null);
+        verify(messageMapper).findInboxPage(7L, null, null, null, 4, 3);
+
+        // 游标翻页不跳过行，也不再统计总数
+        String cursor = (String) first.get("nextCursor");
+        assertEquals(new KeysetCursor(t2, 9L, 1), KeysetCursor.decode(cursor));
+        Map<String, Object> second = messageService.getMessageList(7L, null, null, cursor, 5, 2, null);
+        assertFalse(second.containsKey("total"));
+        assertFalse(second.containsKey("page"));
+        verify(messageMapper).findByReceiverId(7L, null, null, new KeysetCursor(t2, 9L, 1), 3);
+
+        messageService.getMessageList(7L, null, null, null, 1, 2, null);
+        verify(messageMapper, times(1)).countByReceiverId(eq(7L), any(), any(), any());
+        messageService.sendSystemNotification(7L, "标题", "内容");
+        messageService.getMessageList(7L, null, null, null, 1, 2, null);
+        verify(messageMapper, times(2)).countByReceiverId(eq(7L), any(), any(), any());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> messageService.getMessageList(7L, null, null, "bad-cursor", 1, 2, null));
+    }
+
+    private static Message message(Long id, LocalDateTime createdAt, boolean broadcast) {
+        Message message = new Message();
+        message.setId(id);
+        message.setCreatedAt(createdAt);
+        message.setBroadcast(broadcast);
+        return message;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -0,0 +1,85 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.AthleteMonthlyResultDTO;
+import com.aimlab.dto.RankingDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 排行榜快照计算单元测试
+ */
+public class RankingSnapshotServiceTest {
+
+    @Test
+    public void testSnapshotRanksOverallLevelAndMonth() {
+        List<AthleteMonthlyResultDTO> rows = Arrays.asList(
+                row(1L, "一级", 2025, 3, 1, "90.00", 1),
+                row(1L, "一级", 2025, 4, 1, "100.00", 0),
+                row(2L, "一级", 2025, 3, 1, "96.00", 0),
+                row(3L, "二级", 2025, 4, 2, "188.00", 2),
+                row(4L, "二级", null, null, 0, "0", 0));
+
+        RankingSnapshotService.Snapshot snapshot = RankingSnapshotService.Snapshot.build(rows);
+
+        assertEquals(4, snapshot.overall.size());
+        assertEquals(Long.valueOf(2L), snapshot.overall.get(0).getAthleteId());
+        RankingDTO first = snapshot.overallIndex.get(1L);
+        assertEquals(Integer.valueOf(2), first.getRank());
+        assertEquals(0, new BigDecimal("95.00").compareTo(first.getAverageScore()));
+        assertEquals(0, new BigDecimal("190.00").compareTo(first.getTotalScore()));
+        assertEquals(0, new BigDecimal("50.00").compareTo(first.getWinRate()));
+        assertEquals(Integer.valueOf(4), snapshot.overallIndex.get(4L).getRank());
+
+        // 等级榜独立编号，不影响全站排名
+        assertEquals(Integer.valueOf(2), snapshot.byLevel.get("一级").get(1).getRank());
+        assertEquals(Integer.valueOf(1), snapshot.byLevel.get("二级").get(0).getRank());
+        assertEquals(Integer.valueOf(2), first.getRank());
+
+        List<RankingDTO> april = snapshot.monthly.get(YearMonth.of(2025, 4));
+        assertEquals(2, april.size());
+        assertEquals(Long.valueOf(1L), april.get(0).getAthleteId());
+        assertEquals(Integer.valueOf(2), snapshot.monthlyIndex.get(YearMonth.of(2025, 4)).get(3L).getRank());
+    }
+
+    @Test
+    public void testAthleteWithoutMonthlyResultsKeepsRankOne() {
+        RankingSnapshotService service = new RankingSnapshotService();
+        ReflectionTestUtils.setField(service, "snapshot", RankingSnapshotService.Snapshot.build(Arrays.asList(
+                row(1L, "一级", 2025, 3, 1, "90.00", 1),
+                row(2L, "一级", 2025, 3, 1, "96.00", 0),
+                row(3L, "二级", null, null, 0, "0", 0))));
+
+        assertEquals(Integer.valueOf(2), service.getAthleteMonthlyRanking(1L, YearMonth.of(2025, 3)).getRank());
+
+        // 当月没有成绩时沿用原接口的结果：名次为1，成绩均为0
+        RankingDTO absent = service.getAthleteMonthlyRanking(3L, YearMonth.of(2025, 3));
+        assertEquals(Integer.valueOf(1), absent.getRank());
+        assertEquals(0, BigDecimal.ZERO.compareTo(absent.getAverageScore()));
+        assertEquals(Integer.valueOf(0), absent.getParticipationCount());
+        assertEquals(Integer.valueOf(1), service.getAthleteMonthlyRanking(1L, YearMonth.of(2025, 4)).getRank());
+        assertNull(service.getAthleteMonthlyRanking(9L, YearMonth.of(2025, 3)));
+    }
+
+    private AthleteMonthlyResultDTO row(Long athleteId, String level, Integer year, Integer month,
+                                        int results, String scoreSum, int wins) {
+        AthleteMonthlyResultDTO row = new AthleteMonthlyResultDTO();
+        row.setAthleteId(athleteId);
+        row.setAthleteName("运动员" + athleteId);
+        row.setAthleteLevel(level);
+        row.setResultYear(year);
+        row.setResultMonth(month);
+        row.setResultCount(results);
+        row.setCompetitionCount(results);
+        row.setScoreSum(new BigDecimal(scoreSum));
+        row.setMaxScore(results > 0 ? new BigDecimal(scoreSum).divide(BigDecimal.valueOf(results)) : null);
+        row.setWinCount(wins);
+        return row;
+    }
+}
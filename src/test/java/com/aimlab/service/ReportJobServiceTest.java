@@ -0,0 +1,125 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.TrainingSession;
+import com.aimlab.mapper.ShootingRecordMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * 报告任务服务单元测试
+ */
+public class ReportJobServiceTest {
+
+    @TempDir
+    Path cacheDir;
+
+    private ReportJobService service;
+
+    private MessageService messageService;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        service = new ReportJobService();
+        messageService = mock(MessageService.class);
+        ReflectionTestUtils.setField(service, "messageService", messageService);
+        ReflectionTestUtils.setField(service, "workers", 1);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1);
+        ReflectionTestUtils.setField(service, "cacheDir", cacheDir.toString());
+        ReflectionTestUtils.setField(service, "cacheMaxMb", 16L);
+        ReflectionTestUtils.setField(service, "jobRetentionMinutes", 60L);
+        service.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void testSameContentIsRenderedOnceAndThenServedFromDisk() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger renders = new AtomicInteger();
+        ReportJobService.Renderer renderer = () -> {
+            renders.incrementAndGet();
+            await(release);
+            return "%PDF".getBytes(StandardCharsets.US_ASCII);
+        };
+
+        ReportJob first = service.submit(ReportJob.TYPE_TRAINING, 1L, "training-1-100-0", "r.pdf", 10L, true, renderer);
+        ReportJob second = service.submit(ReportJob.TYPE_TRAINING, 1L, "training-1-100-0", "r.pdf", 20L, false, renderer);
+        assertSame(first, second);
+        assertTrue(first.isViewer(20L));
+
+        release.countDown();
+        first.getResult().get(5, TimeUnit.SECONDS);
+        assertEquals(ReportJob.STATUS_COMPLETED, first.getStatus());
+        assertEquals("%PDF", new String(service.readReport(first), StandardCharsets.US_ASCII));
+        verify(messageService, timeout(5000)).sendSystemNotification(eq(10L), anyString(), anyString());
+        verify(messageService, never()).sendSystemNotification(eq(20L), anyString(), anyString());
+
+        ReportJob cached = service.submit(ReportJob.TYPE_TRAINING, 1L, "training-1-100-0", "r.pdf", 30L, true, renderer);
+        assertNotSame(first, cached);
+        assertEquals(ReportJob.STATUS_COMPLETED, cached.getStatus());
+        assertEquals(1, renders.get());
+        assertSame(cached, service.getJob(cached.getId(), 30L));
+        assertThrows(RuntimeException.class, () -> service.getJob(cached.getId(), 10L));
+    }
+
+    @Test
+    public void testCachedTrainingReportRecordsGeneratedAt() throws IOException {
+        TrainingService trainingService = mock(TrainingService.class);
+        ReflectionTestUtils.setField(service, "trainingService", trainingService);
+        ReflectionTestUtils.setField(service, "shootingRecordMapper", mock(ShootingRecordMapper.class));
+        when(trainingService.getSessionById(1L)).thenReturn(new TrainingSession());
+        Files.write(cacheDir.resolve("training-1-0-0.pdf"), "%PDF".getBytes(StandardCharsets.US_ASCII));
+
+        ReportJob job = service.submitTrainingReport(1L, 10L, false);
+
+        assertEquals(ReportJob.STATUS_COMPLETED, job.getStatus());
+        verify(trainingService, never()).getTrainingReportAsPdf(anyLong());
+        verify(trainingService).recordReportGenerated(1L);
+    }
+
+    @Test
+    public void testSubmissionsBeyondQueueAreRejected() {
+        CountDownLatch release = new CountDownLatch(1);
+        ReportJobService.Renderer blocking = () -> {
+            await(release);
+            return new byte[0];
+        };
+        try {
+            service.submit(ReportJob.TYPE_COMPETITION, 1L, "competition-1-0", "c1.pdf", 1L, false, blocking);
+            service.submit(ReportJob.TYPE_COMPETITION, 2L, "competition-2-0", "c2.pdf", 1L, false, blocking);
+            RuntimeException e = assertThrows(RuntimeException.class, () ->
+                    service.submit(ReportJob.TYPE_COMPETITION, 3L, "competition-3-0", "c3.pdf", 1L, false, blocking));
+            assertEquals("报告生成任务较多，请稍后再试", e.getMessage());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
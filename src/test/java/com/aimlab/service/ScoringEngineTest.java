@@ -0,0 +1,92 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.ShootingRecord;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 射击计分引擎单元测试
+ */
+public class ScoringEngineTest {
+
+    private final ScoringEngine scoringEngine = new ScoringEngine();
+
+    @Test
+    public void testStandardProfileMatchesFrontendRings() {
+        // 前端靶面为200×200，每环宽10，压线计入内环
+        assertEquals(10.0, scoringEngine.score(TargetProfile.STANDARD, 0.5, 0.5));
+        assertEquals(10.0, scoringEngine.score(TargetProfile.STANDARD, 0.55, 0.5));
+        assertEquals(9.0, scoringEngine.score(TargetProfile.STANDARD, 0.5501, 0.5));
+        assertEquals(9.0, scoringEngine.score(TargetProfile.STANDARD, 0.5, 0.4));
+        assertEquals(1.0, scoringEngine.score(TargetProfile.STANDARD, 1.0, 0.5));
+        assertEquals(0.0, scoringEngine.score(TargetProfile.STANDARD, 0.0, 0.0));
+    }
+
+    @Test
+    public void testAirRifleDecimalScoring() {
+        TargetProfile rifle = TargetProfile.AIR_RIFLE_10M;
+        assertEquals(10.9, scoringEngine.score(rifle, 0.5, 0.5));
+
+        // 弹孔外沿恰好压10环外沿：中心距 = 0.25 + 2.25 = 2.5mm
+        double tenRingEdge = 2.5 / rifle.getScale();
+        assertEquals(10.0, scoringEngine.score(rifle, 0.5 + tenRingEdge, 0.5));
+
+        // 外沿再向外半个环宽
+        double halfRingOut = (2.5 + 1.25) / rifle.getScale();
+        assertEquals(9.5, scoringEngine.score(rifle, 0.5, 0.5 + halfRingOut));
+
+        // 弹孔中心在靶面边缘时，外沿仍在1环以内
+        assertEquals(1.9, scoringEngine.score(rifle, 1.0, 0.5));
+        assertEquals(0.0, scoringEngine.score(rifle, 0.0, 0.0));
+    }
+
+    @Test
+    public void testRescoreOnlyReturnsChangedRecords() {
+        List<ShootingRecord> records = new ArrayList<>();
+        records.add(record("0.5", "0.5", "10.0"));
+        records.add(record("0.5", "0.4", "10.0"));
+        records.add(record(null, null, "7.0"));
+
+        List<ShootingRecord> changed = scoringEngine.rescore(TargetProfile.STANDARD, records);
+        assertEquals(1, changed.size());
+        assertEquals(0, new BigDecimal("9.0").compareTo(records.get(1).getScore()));
+        assertEquals(0, new BigDecimal("7.0").compareTo(records.get(2).getScore()));
+
+        changed = scoringEngine.rescore(TargetProfile.AIR_RIFLE_10M, records);
+        assertEquals(2, changed.size());
+        assertEquals(0, new BigDecimal("10.9").compareTo(records.get(0).getScore()));
+    }
+
+    @Test
+    public void testApplyScoreUsesStoredCoordinatePrecision() {
+        // 未取整时距离略超过9环外沿，按入库精度取整后恰好压线
+        ShootingRecord record = record("0.5", "0.39996", "0.0");
+        scoringEngine.applyScore(TargetProfile.STANDARD, record);
+
+        assertEquals(0, new BigDecimal("0.4000").compareTo(record.getY()));
+        assertEquals(4, record.getY().scale());
+        assertEquals(0, new BigDecimal("9.0").compareTo(record.getScore()));
+        assertTrue(scoringEngine.rescore(TargetProfile.STANDARD, List.of(record)).isEmpty());
+    }
+
+    @Test
+    public void testMissingCoordinatesRejected() {
+        ShootingRecord record = record(null, "0.5", "10.0");
+        assertThrows(RuntimeException.class, () -> scoringEngine.applyScore(TargetProfile.STANDARD, record));
+        assertEquals(TargetProfile.AIR_PISTOL_10M, TargetProfile.resolve(" air_pistol_10m "));
+        assertEquals(TargetProfile.STANDARD, TargetProfile.resolve(null));
+    }
+
+    private ShootingRecord record(String x, String y, String score) {
+        ShootingRecord record = new ShootingRecord();
+        record.setX(x != null ? new BigDecimal(x) : null);
+        record.setY(y != null ? new BigDecimal(y) : null);
+        record.setScore(new BigDecimal(score));
+        return record;
+    }
+}
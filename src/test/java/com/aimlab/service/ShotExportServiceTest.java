@@ -0,0 +1,103 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.ShotExportRowDTO;
+import com.aimlab.dto.ShotTimeWindow;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 原始射击记录导出单元测试
+ */
+public class ShotExportServiceTest {
+
+    @Test
+    public void testRangeIsSplitIntoMonthWindows() {
+        List<ShotTimeWindow> windows = ShotExportService.monthWindows(
+                LocalDateTime.of(2025, 1, 15, 8, 0), LocalDateTime.of(2025, 3, 10, 0, 0));
+        assertEquals(3, windows.size());
+        assertEquals(new ShotTimeWindow(LocalDateTime.of(2025, 1, 15, 8, 0), LocalDateTime.of(2025, 2, 1, 0, 0)), windows.get(0));
+        assertEquals(new ShotTimeWindow(LocalDateTime.of(2025, 2, 1, 0, 0), LocalDateTime.of(2025, 3, 1, 0, 0)), windows.get(1));
+        assertEquals(new ShotTimeWindow(LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 10, 0, 0)), windows.get(2));
+
+        assertEquals(1, ShotExportService.monthWindows(
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 2, 1, 0, 0)).size());
+        assertTrue(ShotExportService.monthWindows(
+                LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    public void testColumnarWriterLayout() throws IOException {
+        LocalDateTime shotAt = LocalDateTime.of(2025, 1, 1, 8, 0, 0, 123_000_000);
+        ShotExportRowDTO training = row(1L, "TRAINING", null, 7L, "10米气步枪", shotAt);
+        ShotExportRowDTO competition = row(2L, "COMPETITION", 5, null, null, shotAt.plusSeconds(1));
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ShotExportService.ColumnarWriter writer = new ShotExportService.ColumnarWriter(bos);
+        writer.add(training);
+        writer.add(competition);
+        writer.finish();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bos.toByteArray()));
+        byte[] magic = new byte[8];
+        in.readFully(magic);
+        assertEquals("AIMSHOT1", new String(magic, StandardCharsets.US_ASCII));
+        assertEquals(2, in.readInt());
+        assertEquals(1L, in.readLong());
+        assertEquals(2L, in.readLong());
+        assertEquals(11L, in.readLong());
+        assertEquals(11L, in.readLong());
+        assertEquals(shotAt.toInstant(ZoneOffset.UTC).toEpochMilli(), in.readLong());
+        assertEquals(shotAt.plusSeconds(1).toInstant(ZoneOffset.UTC).toEpochMilli(), in.readLong());
+        assertEquals(0, in.readByte());
+        assertEquals(1, in.readByte());
+        assertEquals(-1, in.readInt());
+        assertEquals(5, in.readInt());
+        assertEquals(7L, in.readLong());
+        assertEquals(-1L, in.readLong());
+        assertEquals(1, in.readInt());
+        assertEquals(1, in.readInt());
+        assertEquals(3, in.readInt());
+        assertEquals(3, in.readInt());
+        assertEquals(0.5f, in.readFloat());
+        assertEquals(0.5f, in.readFloat());
+        assertEquals(0.25f, in.readFloat());
+        assertEquals(0.25f, in.readFloat());
+        assertEquals(10.5f, in.readFloat());
+        assertEquals(10.5f, in.readFloat());
+        byte[] projectType = new byte[in.readShort()];
+        in.readFully(projectType);
+        assertEquals("10米气步枪", new String(projectType, StandardCharsets.UTF_8));
+        assertEquals(0, in.readShort());
+        assertEquals(0, in.readInt());
+        assertEquals(0, in.available());
+    }
+
+    private static ShotExportRowDTO row(Long id, String recordType, Integer competitionId,
+                                        Long trainingSessionId, String projectType, LocalDateTime shotAt) {
+        ShotExportRowDTO row = new ShotExportRowDTO();
+        row.setId(id);
+        row.setRecordType(recordType);
+        row.setAthleteId(11L);
+        row.setCompetitionId(competitionId);
+        row.setTrainingSessionId(trainingSessionId);
+        row.setProjectType(projectType);
+        row.setRoundNumber(1);
+        row.setShotNumber(3);
+        row.setX(new BigDecimal("0.5000"));
+        row.setY(new BigDecimal("0.2500"));
+        row.setScore(new BigDecimal("10.5"));
+        row.setShotAt(shotAt);
+        return row;
+    }
+}
@@ -0,0 +1,106 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.ShootingRecord;
+import com.aimlab.mapper.ShootingRecordMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 射击记录异步写入管道单元测试
+ */
+public class ShotIngestionPipelineTest {
+
+    @TempDir
+    Path journalDir;
+
+    private ShotIngestionPipeline pipeline;
+
+    private ShootingRecordMapper shootingRecordMapper;
+
+    @BeforeEach
+    public void setUp() {
+        shootingRecordMapper = mock(ShootingRecordMapper.class);
+        pipeline = new ShotIngestionPipeline();
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        ReflectionTestUtils.setField(pipeline, "shootingRecordMapper", shootingRecordMapper);
+        ReflectionTestUtils.setField(pipeline, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(pipeline, "athleteDailyStatsService", mock(AthleteDailyStatsService.class));
+        ReflectionTestUtils.setField(pipeline, "mode", "async");
+        ReflectionTestUtils.setField(pipeline, "queueCapacity", 16);
+        ReflectionTestUtils.setField(pipeline, "batchSize", 100);
+        ReflectionTestUtils.setField(pipeline, "offerTimeoutMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "journalDir", journalDir.toString());
+    }
+
+    @Test
+    public void testCloseRetriesUntilBacklogIsWritten() {
+        ReflectionTestUtils.setField(pipeline, "closeTimeoutMs", 2000L);
+        when(shootingRecordMapper.batchInsert(anyList()))
+                .thenThrow(new RuntimeException("连接中断"))
+                .thenReturn(2);
+        pipeline.submit(record(1L));
+        pipeline.submit(record(2L));
+
+        pipeline.close(1);
+
+        verify(shootingRecordMapper, times(2)).batchInsert(anyList());
+        assertEquals(0, pipeline.getBacklog(1));
+    }
+
+    @Test
+    public void testCloseFailsWhileShotsAreUnwritten() {
+        ReflectionTestUtils.setField(pipeline, "closeTimeoutMs", 100L);
+        when(shootingRecordMapper.batchInsert(anyList())).thenThrow(new RuntimeException("连接中断"));
+        pipeline.submit(record(1L));
+
+        assertThrows(RuntimeException.class, () -> pipeline.close(1));
+        assertEquals(1, pipeline.getBacklog(1));
+    }
+
+    @Test
+    public void testSubmitAfterCloseIsRejected() {
+        ReflectionTestUtils.setField(pipeline, "closeTimeoutMs", 2000L);
+        when(shootingRecordMapper.batchInsert(anyList())).thenReturn(1);
+        pipeline.submit(record(1L));
+
+        pipeline.close(1);
+
+        // 关闭后不会为迟到的射击建出新队列
+        assertThrows(RuntimeException.class, () -> pipeline.submit(record(2L)));
+        assertEquals(0, pipeline.getBacklog(1));
+        verify(shootingRecordMapper, times(1)).batchInsert(anyList());
+    }
+
+    @Test
+    public void testFailedCloseReopensSubmission() {
+        ReflectionTestUtils.setField(pipeline, "closeTimeoutMs", 100L);
+        when(shootingRecordMapper.batchInsert(anyList())).thenThrow(new RuntimeException("连接中断"));
+        pipeline.submit(record(1L));
+        assertThrows(RuntimeException.class, () -> pipeline.close(1));
+
+        pipeline.submit(record(2L));
+        assertEquals(2, pipeline.getBacklog(1));
+    }
+
+    private static ShootingRecord record(Long athleteId) {
+        ShootingRecord record = new ShootingRecord();
+        record.setCompetitionId(1);
+        record.setAthleteId(athleteId);
+        record.setScore(new BigDecimal("9.5"));
+        record.setShotAt(LocalDateTime.of(2025, 3, 1, 10, 0));
+        return record;
+    }
+}
@@ -0,0 +1,88 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.AthleteDailyStats;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 射击成绩单遍统计单元测试
+ */
+public class ShotStatsAccumulatorTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void testSinglePassStatistics() {
+        ShotStatsAccumulator stats = new ShotStatsAccumulator();
+        for (double score : new double[]{9.0, 10.0, 8.0, 10.9, 7.5}) {
+            stats.add(score);
+        }
+
+        assertEquals(5, stats.getCount());
+        assertEquals(45.4, stats.getSum(), DELTA);
+        assertEquals(9.08, stats.getMean(), DELTA);
+        assertEquals(1.5656, stats.getVariance(), DELTA);
+        assertEquals(7.5, stats.getMin(), DELTA);
+        assertEquals(10.9, stats.getMax(), DELTA);
+
+        Map<Integer, Integer> distribution = stats.getRingDistribution();
+        assertEquals(Integer.valueOf(2), distribution.get(10));
+        assertEquals(Integer.valueOf(1), distribution.get(7));
+        assertNull(distribution.get(6));
+        assertEquals("1.25", ShotStatsAccumulator.toDecimal(stats.getStdDev(), 2).toPlainString());
+    }
+
+    @Test
+    public void testMergedPartitionsMatchSinglePass() {
+        double[] scores = {6.0, 9.5, 10.0, 8.2, 7.7, 10.4, 9.9, 5.0};
+        ShotStatsAccumulator whole = new ShotStatsAccumulator();
+        ShotStatsAccumulator left = new ShotStatsAccumulator();
+        ShotStatsAccumulator right = new ShotStatsAccumulator();
+        for (int i = 0; i < scores.length; i++) {
+            whole.add(scores[i]);
+            (i < 3 ? left : right).add(scores[i]);
+        }
+
+        ShotStatsAccumulator merged = new ShotStatsAccumulator().merge(left).merge(right);
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getMean(), merged.getMean(), DELTA);
+        assertEquals(whole.getVariance(), merged.getVariance(), DELTA);
+        assertEquals(whole.getMin(), merged.getMin(), DELTA);
+        assertEquals(whole.getMax(), merged.getMax(), DELTA);
+        assertEquals(whole.getRingDistribution(), merged.getRingDistribution());
+
+        ShotStatsAccumulator empty = new ShotStatsAccumulator();
+        assertEquals(0.0, empty.getMean());
+        assertEquals(0.0, empty.getStdDev());
+        assertEquals(0.0, empty.getMax());
+    }
+
+    @Test
+    public void testDailyTotalsMatchSinglePass() {
+        double[] scores = {9.0, 10.0, 8.0, 10.9, 7.5};
+        ShotStatsAccumulator whole = new ShotStatsAccumulator();
+        for (double score : scores) {
+            whole.add(score);
+        }
+        AthleteDailyStats totals = new AthleteDailyStats();
+        totals.setShotCount(5);
+        totals.setScoreSum(new BigDecimal("45.4"));
+        totals.setScoreSqSum(new BigDecimal("420.06"));
+        totals.setMinScore(new BigDecimal("7.5"));
+        totals.setMaxScore(new BigDecimal("10.9"));
+
+        ShotStatsAccumulator stats = ShotStatsAccumulator.of(totals);
+        assertEquals(whole.getCount(), stats.getCount());
+        assertEquals(whole.getMean(), stats.getMean(), DELTA);
+        assertEquals(whole.getVariance(), stats.getVariance(), 1e-6);
+        assertEquals(whole.getMin(), stats.getMin(), DELTA);
+        assertEquals(whole.getMax(), stats.getMax(), DELTA);
+        assertTrue(stats.getRingDistribution().isEmpty());
+
+        assertEquals(0, ShotStatsAccumulator.of((AthleteDailyStats) null).getCount());
+    }
+}
@@ -0,0 +1,56 @@
+package com.aimlab.service;
+
+import com.aimlab.dto.ExportFile;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式导出单元测试
+ */
+public class StreamingExportsTest {
+
+    @Test
+    public void testCsvIsWrittenRowByRowWithEscaping() throws IOException {
+        ExportFile file = StreamingExports.csv("test.csv", writer -> {
+            StreamingExports.writeCsvRow(writer, "name", "score", "note");
+            StreamingExports.writeCsvRow(writer, "张三", 10.5, null);
+            StreamingExports.writeCsvRow(writer, "a,b", 9, "say \"hi\"");
+        });
+        assertEquals(ExportFile.CSV_CONTENT_TYPE, file.getContentType());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        file.writeTo(out);
+        assertEquals("name,score,note\n张三,10.5,\n\"a,b\",9,\"say \"\"hi\"\"\"\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testXlsxKeepsRowsBeyondWindow() throws IOException {
+        int rows = StreamingExports.ROW_WINDOW * 3;
+        ExportFile file = StreamingExports.xlsx("test.xlsx", workbook -> {
+            Sheet sheet = StreamingExports.createSheet(workbook, "Data", "序号");
+            for (int i = 1; i <= rows; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i);
+            }
+        });
+        assertEquals(ExportFile.XLSX_CONTENT_TYPE, file.getContentType());
+
+        try (Workbook workbook = new XSSFWorkbook(new ByteArrayInputStream(file.getData()))) {
+            Sheet sheet = workbook.getSheet("Data");
+            assertEquals("序号", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(rows, sheet.getLastRowNum());
+            Row last = sheet.getRow(rows);
+            assertEquals(rows, (int) last.getCell(0).getNumericCellValue());
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -49,6 +50,9 @@ public class TrainingAnalyticsServiceIntegrationTest {
     @Autowired
     private ShootingRecordMapper shootingRecordMapper;
 
+    @Autowired
+    private AthleteDailyStatsService athleteDailyStatsService;
+
     private BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
 
     private User testUser;
@@ -116,6 +120,9 @@ public class TrainingAnalyticsServiceIntegrationTest {
         // 创建训练场次
         createTrainingSessions();
         createShootingRecords();
+
+        // 直接写入的射击记录不经过汇总累加，由射击记录重建每日汇总
+        athleteDailyStatsService.rebuild(LocalDate.now().minusDays(4), LocalDate.now());
     }
 
     private void createTrainingSessions() {
@@ -284,6 +291,12 @@ public class TrainingAnalyticsServiceIntegrationTest {
 
         assertNotNull(stats);
         assertTrue(stats.size() >= 2); // 至少有两个运动员
+        TrainingAthleteStatsDTO athlete1Stats = stats.stream()
+                .filter(stat -> athlete1.getId().equals(stat.getAthleteId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(10L, athlete1Stats.getTotalShots());
+        assertEquals(1L, athlete1Stats.getSessionCount());
         System.out.println("✓ 测试6通过：按运动员维度聚合训练数据");
         System.out.println("  运动员数量: " + stats.size());
         
@@ -0,0 +1,57 @@
+package com.aimlab.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 未读消息数缓存单元测试
+ */
+public class UnreadCountCacheTest {
+
+    private UnreadCountCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new UnreadCountCache();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(cache, "brokerMode", "simple");
+    }
+
+    @Test
+    public void testAdjustDuringLoadDiscardsLoadedCount() {
+        // 加载期间收到新消息，加载结果可能已过时，不写入缓存
+        assertEquals(3, cache.get(1L, () -> {
+            cache.adjust(1L, 1);
+            return 3;
+        }));
+        assertTrue(cache.cachedUserIds().isEmpty());
+        assertNull(cache.adjust(1L, 1));
+
+        assertEquals(4, cache.get(1L, () -> 4));
+        assertEquals(5, cache.adjust(1L, 1));
+        cache.set(1L, 0);
+        assertEquals(0, cache.get(1L, () -> 99));
+        assertEquals(0, cache.adjust(1L, -1));
+        assertTrue(cache.cachedUserIds().contains(1L));
+
+        cache.evict(1L);
+        assertTrue(cache.cachedUserIds().isEmpty());
+    }
+
+    @Test
+    public void testRelayModeDisablesCaching() {
+        ReflectionTestUtils.setField(cache, "brokerMode", "relay");
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, loads::incrementAndGet);
+        cache.get(1L, loads::incrementAndGet);
+        assertEquals(2, loads.get());
+        assertNull(cache.adjust(1L, 1));
+        assertTrue(cache.cachedUserIds().isEmpty());
+    }
+}
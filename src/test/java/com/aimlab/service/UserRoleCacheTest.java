@@ -0,0 +1,70 @@
+package com.aimlab.service;
+
+import com.aimlab.entity.User;
+import com.aimlab.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户角色缓存单元测试
+ */
+public class UserRoleCacheTest {
+
+    private UserRoleCache cache;
+
+    private UserMapper userMapper;
+
+    @BeforeEach
+    public void setUp() {
+        cache = new UserRoleCache();
+        userMapper = mock(UserMapper.class);
+        ReflectionTestUtils.setField(cache, "userMapper", userMapper);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 300L);
+    }
+
+    @Test
+    public void testRoleIsLoadedOnceUntilInvalidated() {
+        when(userMapper.findById(1L)).thenReturn(user("ATHLETE"));
+
+        assertEquals("ATHLETE", cache.getRole(1L));
+        assertEquals("ATHLETE", cache.getRole("1"));
+        verify(userMapper, times(1)).findById(1L);
+
+        when(userMapper.findById(1L)).thenReturn(user("ADMIN"));
+        cache.invalidate(1L);
+        assertEquals("ADMIN", cache.getRole(1L));
+
+        when(userMapper.findById(1L)).thenReturn(user("COACH"));
+        cache.doKickout("login", 1L, "token");
+        assertEquals("COACH", cache.getRole(1L));
+        verify(userMapper, times(3)).findById(1L);
+    }
+
+    @Test
+    public void testMissingUserIsCachedAsNoRole() {
+        assertNull(cache.getRole(2L));
+        assertNull(cache.getRole(2L));
+        verify(userMapper, times(1)).findById(2L);
+    }
+
+    @Test
+    public void testRelayModeShortensTtl() {
+        ReflectionTestUtils.setField(cache, "relayTtlSeconds", 5L);
+        ReflectionTestUtils.setField(cache, "brokerMode", "simple");
+        assertEquals(300L, cache.effectiveTtlSeconds());
+
+        // 多节点时其他节点收不到失效，只能靠较短的有效期收敛
+        ReflectionTestUtils.setField(cache, "brokerMode", "relay");
+        assertEquals(5L, cache.effectiveTtlSeconds());
+    }
+
+    private static User user(String role) {
+        User user = new User();
+        user.setRole(role);
+        return user;
+    }
+}
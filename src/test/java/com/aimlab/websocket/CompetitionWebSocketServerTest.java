@@ -0,0 +1,113 @@
+package com.aimlab.websocket;
+
+import com.aimlab.dto.RankingSnapshotDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.websocket.CloseReason;
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.*;
+
+/**
+ * 比赛WebSocket发送队列单元测试
+ */
+public class CompetitionWebSocketServerTest {
+
+    private final CompetitionWebSocketServer server = new CompetitionWebSocketServer();
+
+    @Test
+    public void testSlowSessionIsEvictedWithoutStallingOthers() throws Exception {
+        RemoteEndpoint.Async fastRemote = mock(RemoteEndpoint.Async.class);
+        doAnswer(invocation -> {
+            invocation.<SendHandler>getArgument(1).onResult(new SendResult());
+            return null;
+        }).when(fastRemote).sendText(anyString(), any(SendHandler.class));
+        Session fast = mockSession("fast", fastRemote);
+
+        // 慢客户端的发送永远不完成
+        RemoteEndpoint.Async slowRemote = mock(RemoteEndpoint.Async.class);
+        Session slow = mockSession("slow", slowRemote);
+
+        server.onOpen(fast, "evict");
+        server.onOpen(slow, "evict");
+        long evictedBefore = server.getEvictedSessionCount();
+
+        int total = CompetitionWebSocketServer.MAX_QUEUED_FRAMES + 2;
+        for (int i = 0; i < total; i++) {
+            server.broadcastToCompetition("evict", "frame-" + i);
+        }
+
+        verify(fastRemote, times(total)).sendText(anyString(), any(SendHandler.class));
+        verify(slowRemote, times(1)).sendText(anyString(), any(SendHandler.class));
+        assertEquals(evictedBefore + 1, server.getEvictedSessionCount());
+        verify(slow, timeout(2000)).close(any(CloseReason.class));
+
+        server.onClose(fast, "evict");
+        server.onClose(slow, "evict");
+        assertEquals(0, server.getConnectionCount("evict"));
+    }
+
+    @Test
+    public void testQueuedRankingSnapshotsAreCoalescedThroughWebSocketService() {
+        WebSocketService webSocketService = new WebSocketService();
+        JsonWebSocketMessageCodec codec = new JsonWebSocketMessageCodec();
+        ObjectMapper objectMapper = new ObjectMapper();
+        ReflectionTestUtils.setField(codec, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(webSocketService, "messagingTemplate", mock(SimpMessagingTemplate.class));
+        ReflectionTestUtils.setField(webSocketService, "messageCodec", codec);
+        ReflectionTestUtils.setField(webSocketService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(webSocketService, "competitionWebSocketServer", server);
+
+        RemoteEndpoint.Async remote = mock(RemoteEndpoint.Async.class);
+        Session session = mockSession("coalesce", remote);
+        server.onOpen(session, "7");
+        long droppedBefore = server.getDroppedFrameCount();
+
+        webSocketService.sendCustomMessage("7", "PING", "record-1");
+        webSocketService.sendRankingSnapshot("7", snapshot(1L));
+        webSocketService.sendCustomMessage("7", "PING", "record-2");
+        webSocketService.sendRankingSnapshot("7", snapshot(2L));
+        assertEquals(droppedBefore + 1, server.getDroppedFrameCount());
+
+        ArgumentCaptor<String> text = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<SendHandler> handler = ArgumentCaptor.forClass(SendHandler.class);
+        verify(remote).sendText(text.capture(), handler.capture());
+        assertTrue(text.getValue().contains("record-1"));
+        handler.getValue().onResult(new SendResult());
+        verify(remote, times(2)).sendText(text.capture(), handler.capture());
+        assertTrue(text.getValue().contains("\"sequence\":2"));
+        handler.getValue().onResult(new SendResult());
+        verify(remote, times(3)).sendText(text.capture(), handler.capture());
+        assertTrue(text.getValue().contains("record-2"));
+        verify(remote, never()).sendText(contains("\"sequence\":1"), any(SendHandler.class));
+
+        server.onClose(session, "7");
+    }
+
+    private static RankingSnapshotDTO snapshot(Long sequence) {
+        RankingSnapshotDTO snapshot = new RankingSnapshotDTO();
+        snapshot.setCompetitionId(7L);
+        snapshot.setSequence(sequence);
+        snapshot.setRankings(Collections.emptyList());
+        return snapshot;
+    }
+
+    private Session mockSession(String id, RemoteEndpoint.Async remote) {
+        Session session = mock(Session.class);
+        when(session.getId()).thenReturn(id);
+        when(session.getAsyncRemote()).thenReturn(remote);
+        return session;
+    }
+}